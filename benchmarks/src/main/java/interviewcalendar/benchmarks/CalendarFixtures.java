@@ -0,0 +1,38 @@
+package interviewcalendar.benchmarks;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import interviewcalendar.InterviewCalendar;
+
+/**
+ * Calendar fixtures build reproducible calendars for the benchmarks
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class CalendarFixtures {
+	static final LocalDate START = LocalDate.of(2018, 1, 1);
+
+	private CalendarFixtures() {
+	}
+
+	/**
+	 * Give a person random availability, every hour from 8am to 8pm is available with the given probability
+	 *
+	 * @param calendar
+	 * @param personID
+	 * @param days number of days starting from {@link #START}
+	 * @param density probability of an hour being available
+	 * @param random
+	 */
+	static void fill(InterviewCalendar calendar, int personID, int days, double density, Random random) {
+		for (int i = 0; i < days; i++) {
+			LocalDate date = START.plusDays(i);
+			for (int hour = 8; hour < 20; hour++) {
+				if (random.nextDouble() < density)
+					calendar.addAvailableTimeslot(personID, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour);
+			}
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package interviewcalendar.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import interviewcalendar.InterviewCalendar;
+
+/**
+ * Retained heap per person, measured as the growth of the used heap after a full GC
+ * while a calendar of many people is loaded. Run it with a fixed heap (-Xms equal to -Xmx)
+ * for stable numbers
+ *
+ * @author Lina Gafurova
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class FootprintBenchmark {
+	private static final int PEOPLE = 200;
+
+	@Param({ "30", "365" })
+	int days;
+
+	@Param({ "0.2", "0.8" })
+	double density;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+		public long bytesPerPerson;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytesPerPerson = 0;
+		}
+	}
+
+	@Benchmark
+	public InterviewCalendar loadCalendar(Footprint footprint) {
+		Random random = new Random(42);
+		long before = usedHeap();
+		InterviewCalendar calendar = new InterviewCalendar();
+		for (int i = 0; i < PEOPLE; i++)
+			CalendarFixtures.fill(calendar, calendar.addInterviewer("Interviewer " + i), days, density, random);
+		footprint.bytesPerPerson = (usedHeap() - before) / PEOPLE;
+		return calendar;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
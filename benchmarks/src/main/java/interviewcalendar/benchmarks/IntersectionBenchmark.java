@@ -0,0 +1,85 @@
+package interviewcalendar.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import interviewcalendar.InterviewCalendar;
+import interviewcalendar.SlotGranularity;
+import interviewcalendar.Timeslot;
+
+/**
+ * 1:1 and 1:N intersections at several calendar sizes and densities, with and without the result cache,
+ * for hourly and quarter-hour calendars holding the same availability
+ *
+ * @author Lina Gafurova
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+	@Param({ "30", "365" })
+	int days;
+
+	@Param({ "0.2", "0.8" })
+	double density;
+
+	@Param({ "1", "5" })
+	int panelSize;
+
+	// 0 measures the intersection itself, otherwise repeated queries are answered by the result cache
+	@Param({ "0", "1024" })
+	int cacheSize;
+
+	@Param({ "60", "15" })
+	int minutesPerSlot;
+
+	private InterviewCalendar calendar;
+	private int candidateID;
+	private List<Integer> interviewersIDs;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		calendar = new InterviewCalendar(SlotGranularity.ofMinutes(minutesPerSlot), cacheSize);
+		candidateID = calendar.addCandidate("Candidate");
+		CalendarFixtures.fill(calendar, candidateID, days, density, random);
+		interviewersIDs = new ArrayList<>();
+		for (int i = 0; i < panelSize; i++) {
+			int id = calendar.addInterviewer("Interviewer " + i);
+			CalendarFixtures.fill(calendar, id, days, density, random);
+			interviewersIDs.add(id);
+		}
+	}
+
+	@Benchmark
+	public void getTimeslotsIntersection(Blackhole blackhole) {
+		Set<Timeslot> timeslots = calendar.getTimeslotsIntersection(candidateID, interviewersIDs);
+		// Walk the result so lazily built results are paid for
+		for (Timeslot timeslot : timeslots) blackhole.consume(timeslot);
+	}
+
+	@Benchmark
+	public int getTimeslotsIntersectionSize() {
+		return calendar.getTimeslotsIntersection(candidateID, interviewersIDs).size();
+	}
+}
@@ -0,0 +1,72 @@
+package interviewcalendar.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import interviewcalendar.AvailabilityBatch;
+import interviewcalendar.InterviewCalendar;
+
+/**
+ * Bulk loading of a person's availability, day ranges, single hours and batches of hours
+ *
+ * @author Lina Gafurova
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+	@Param({ "30", "365" })
+	int days;
+
+	@Benchmark
+	public InterviewCalendar addAvailableTimeslotsByDay() {
+		InterviewCalendar calendar = new InterviewCalendar();
+		int id = calendar.addInterviewer("Interviewer");
+		for (int i = 0; i < days; i++) {
+			LocalDate date = CalendarFixtures.START.plusDays(i);
+			calendar.addAvailableTimeslots(id, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 9, 17);
+		}
+		return calendar;
+	}
+
+	@Benchmark
+	public InterviewCalendar addAvailableTimeslotByHour() {
+		InterviewCalendar calendar = new InterviewCalendar();
+		int id = calendar.addInterviewer("Interviewer");
+		for (int i = 0; i < days; i++) {
+			LocalDate date = CalendarFixtures.START.plusDays(i);
+			for (int hour = 9; hour < 17; hour++)
+				calendar.addAvailableTimeslot(id, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour);
+		}
+		return calendar;
+	}
+
+	@Benchmark
+	public InterviewCalendar applyBatchByHour() {
+		InterviewCalendar calendar = new InterviewCalendar();
+		int id = calendar.addInterviewer("Interviewer");
+		AvailabilityBatch batch = new AvailabilityBatch();
+		for (int i = 0; i < days; i++) {
+			LocalDate date = CalendarFixtures.START.plusDays(i);
+			for (int hour = 9; hour < 17; hour++)
+				batch.add(id, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour, hour + 1);
+		}
+		calendar.applyBatch(batch);
+		return calendar;
+	}
+}
@@ -0,0 +1,64 @@
+package interviewcalendar.benchmarks;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import interviewcalendar.InterviewCalendar;
+
+/**
+ * Removing and re-adding random hours of a populated calendar
+ *
+ * @author Lina Gafurova
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemovalChurnBenchmark {
+	@Param({ "30", "365" })
+	int days;
+
+	private InterviewCalendar calendar;
+	private int personID;
+	private Random random;
+
+	@Setup
+	public void setUp() {
+		random = new Random(42);
+		calendar = new InterviewCalendar();
+		personID = calendar.addInterviewer("Interviewer");
+		CalendarFixtures.fill(calendar, personID, days, 1.0, random);
+	}
+
+	@Benchmark
+	public void removeAndAddTimeslot() {
+		LocalDate date = CalendarFixtures.START.plusDays(random.nextInt(days));
+		int hour = 8 + random.nextInt(12);
+		calendar.removeUnavailableTimeslot(personID, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour);
+		calendar.addAvailableTimeslot(personID, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour);
+	}
+
+	@Benchmark
+	public void removeAndAddTimeslots() {
+		LocalDate date = CalendarFixtures.START.plusDays(random.nextInt(days));
+		int startHour = 8 + random.nextInt(8);
+		calendar.removeUnavailableTimeslots(personID, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), startHour, startHour + 4);
+		calendar.addAvailableTimeslots(personID, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), startHour, startHour + 4);
+	}
+}
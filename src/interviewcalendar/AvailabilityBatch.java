@@ -0,0 +1,186 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Availability batch collects many changes of availability of many people, to be applied at once.
+ * The changes are grouped per person and reduced to sorted, disjoint ranges of timeslots to add
+ * and to remove, where a later change of a timeslot wins over an earlier one.
+ * Each person then takes its write lock once and gets its ranges merged word by word
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class AvailabilityBatch {
+	private final SlotGranularity granularity;
+	private int size;
+	private int[] personIDs = new int[16];
+	private long[] fromSlots = new long[16];
+	private long[] toSlots = new long[16];
+	private boolean[] available = new boolean[16];
+
+	public AvailabilityBatch() {
+		this(SlotGranularity.HOURLY);
+	}
+
+	/**
+	 * Create a batch for a calendar of the given granularity, which is the unit of the slots of the batch
+	 *
+	 * @param granularity
+	 */
+	public AvailabilityBatch(SlotGranularity granularity) {
+		this.granularity = granularity;
+	}
+
+	public SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	/**
+	 * Add a range of timeslots on a single day to a person's availability
+	 *
+	 * @param personID
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param startHour starting hour of the first available timeslot in 24-hour format
+	 * @param endHour ending hour of the last available timeslot in 24-hour format
+	 * @return this batch
+	 */
+	public AvailabilityBatch add(int personID, int year, int month, int day, int startHour, int endHour) {
+		long daySlot = granularity.slotOf(year, month, day, 0, 0);
+		return add(personID, daySlot + startHour * granularity.getSlotsPerHour(), daySlot + endHour * granularity.getSlotsPerHour());
+	}
+
+	/**
+	 * Remove a range of timeslots on a single day from a person's availability
+	 *
+	 * @param personID
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param startHour starting hour of the first unavailable timeslot in 24-hour format
+	 * @param endHour ending hour of the last unavailable timeslot in 24-hour format
+	 * @return this batch
+	 */
+	public AvailabilityBatch remove(int personID, int year, int month, int day, int startHour, int endHour) {
+		long daySlot = granularity.slotOf(year, month, day, 0, 0);
+		return remove(personID, daySlot + startHour * granularity.getSlotsPerHour(), daySlot + endHour * granularity.getSlotsPerHour());
+	}
+
+	/**
+	 * Add the slots [fromSlot, toSlot) to a person's availability
+	 *
+	 * @param personID
+	 * @param fromSlot
+	 * @param toSlot
+	 * @return this batch
+	 */
+	public AvailabilityBatch add(int personID, long fromSlot, long toSlot) {
+		append(personID, fromSlot, toSlot, true);
+		return this;
+	}
+
+	/**
+	 * Remove the slots [fromSlot, toSlot) from a person's availability
+	 *
+	 * @param personID
+	 * @param fromSlot
+	 * @param toSlot
+	 * @return this batch
+	 */
+	public AvailabilityBatch remove(int personID, long fromSlot, long toSlot) {
+		append(personID, fromSlot, toSlot, false);
+		return this;
+	}
+
+	/**
+	 * Get the number of changes in the batch
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void append(int personID, long fromSlot, long toSlot, boolean isAvailable) {
+		if (fromSlot >= toSlot) return;
+		if (size == personIDs.length) {
+			int capacity = 2 * size;
+			personIDs = Arrays.copyOf(personIDs, capacity);
+			fromSlots = Arrays.copyOf(fromSlots, capacity);
+			toSlots = Arrays.copyOf(toSlots, capacity);
+			available = Arrays.copyOf(available, capacity);
+		}
+		personIDs[size] = personID;
+		fromSlots[size] = fromSlot;
+		toSlots[size] = toSlot;
+		available[size] = isAvailable;
+		size++;
+	}
+
+	/**
+	 * Get the changes grouped by person, in ascending order of the ids
+	 *
+	 * @return changes of each person in the order they were added to the batch
+	 */
+	List<int[]> groupByPerson() {
+		// Sorting id and position packed into one number keeps the original order within each person
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) keys[i] = (long) personIDs[i] << 32 | i;
+		Arrays.sort(keys);
+
+		List<int[]> groups = new ArrayList<>();
+		for (int start = 0; start < size; ) {
+			int end = start;
+			while (end < size && keys[end] >>> 32 == keys[start] >>> 32) end++;
+			int[] group = new int[end - start];
+			for (int i = start; i < end; i++) group[i - start] = (int) keys[i];
+			groups.add(group);
+			start = end;
+		}
+		return groups;
+	}
+
+	int getPersonID(int change) {
+		return personIDs[change];
+	}
+
+	/**
+	 * Reduce the changes of one person to disjoint ranges, every timeslot taking the value of the last change covering it
+	 *
+	 * @param changes positions of the person's changes in ascending order
+	 * @param added receives the ranges to add
+	 * @param removed receives the ranges to remove
+	 */
+	void coalesce(int[] changes, IntervalSet added, IntervalSet removed) {
+		Integer[] byStart = new Integer[changes.length];
+		long[] bounds = new long[2 * changes.length];
+		for (int i = 0; i < changes.length; i++) {
+			byStart[i] = changes[i];
+			bounds[2 * i] = fromSlots[changes[i]];
+			bounds[2 * i + 1] = toSlots[changes[i]];
+		}
+		Arrays.sort(byStart, Comparator.comparingLong(change -> fromSlots[change]));
+		Arrays.sort(bounds);
+
+		// Sweep the elementary segments between consecutive bounds, keeping the covering changes latest first
+		PriorityQueue<Integer> covering = new PriorityQueue<>(Comparator.reverseOrder());
+		int next = 0;
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			long start = bounds[i];
+			long end = bounds[i + 1];
+			if (start == end) continue;
+			while (next < byStart.length && fromSlots[byStart[next]] <= start) covering.add(byStart[next++]);
+			// Changes which ended before the segment are dropped once they are the latest ones left
+			while (!covering.isEmpty() && toSlots[covering.peek()] <= start) covering.poll();
+			if (covering.isEmpty()) continue;
+			if (available[covering.peek()]) added.append(start, end);
+			else removed.append(start, end);
+		}
+	}
+}
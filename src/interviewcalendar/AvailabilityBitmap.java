@@ -0,0 +1,464 @@
+package interviewcalendar;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Availability bitmap is a compact set of timeslots where each timeslot is a single bit,
+ * indexed by its slot offset from the epoch (1970/01/01 00:00) in the granularity of the bitmap.
+ * Bits are kept in week-long chunks, 3 words for hourly timeslots, so empty weeks cost nothing
+ * and intersections are computed word by word
+ *
+ * @author Lina Gafurova
+ *
+ */
+class AvailabilityBitmap {
+	static final int DAYS_PER_WEEK = 7;
+
+	private final SlotGranularity granularity;
+	private final int slotsPerWeek;
+	private final int wordsPerWeek;
+	// Non-empty week chunks by week index
+	private TreeMap<Long, long[]> weeks = new TreeMap<>();
+
+	AvailabilityBitmap() {
+		this(SlotGranularity.HOURLY);
+	}
+
+	AvailabilityBitmap(SlotGranularity granularity) {
+		this.granularity = granularity;
+		this.slotsPerWeek = DAYS_PER_WEEK * granularity.getSlotsPerDay();
+		this.wordsPerWeek = (slotsPerWeek + 63) / 64;
+	}
+
+	SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	int getSlotsPerWeek() {
+		return slotsPerWeek;
+	}
+
+	int getWordsPerWeek() {
+		return wordsPerWeek;
+	}
+
+	/**
+	 * Create an empty bitmap of the same granularity
+	 *
+	 * @return
+	 */
+	AvailabilityBitmap empty() {
+		return new AvailabilityBitmap(granularity);
+	}
+
+	long weekOf(long slot) {
+		return Math.floorDiv(slot, slotsPerWeek);
+	}
+
+	int bitOf(long slot) {
+		return Math.floorMod(slot, slotsPerWeek);
+	}
+
+	boolean get(long slot) {
+		long[] words = weeks.get(weekOf(slot));
+		if (words == null) return false;
+		int bit = bitOf(slot);
+		return (words[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	void set(long slot) {
+		long[] words = weeks.computeIfAbsent(weekOf(slot), week -> new long[wordsPerWeek]);
+		int bit = bitOf(slot);
+		words[bit >>> 6] |= 1L << bit;
+	}
+
+	void clear(long slot) {
+		long week = weekOf(slot);
+		long[] words = weeks.get(week);
+		if (words == null) return;
+		int bit = bitOf(slot);
+		words[bit >>> 6] &= ~(1L << bit);
+		if (isEmpty(words)) weeks.remove(week);
+	}
+
+	/**
+	 * Set the range [from, to) of timeslots, a word at a time
+	 *
+	 * @param from
+	 * @param to
+	 */
+	void setRange(long from, long to) {
+		for (long week = weekOf(from); from < to; week++) {
+			long weekStart = week * slotsPerWeek;
+			long[] words = weeks.computeIfAbsent(week, key -> new long[wordsPerWeek]);
+			applyRange(words, (int) (from - weekStart), (int) Math.min(slotsPerWeek, to - weekStart), true);
+			from = weekStart + slotsPerWeek;
+		}
+	}
+
+	/**
+	 * Clear the range [from, to) of timeslots, a word at a time
+	 *
+	 * @param from
+	 * @param to
+	 */
+	void clearRange(long from, long to) {
+		if (from >= to) return;
+		long fromWeek = weekOf(from);
+		Iterator<Map.Entry<Long, long[]>> iterator = weeks.subMap(fromWeek, true, weekOf(to - 1), true).entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, long[]> entry = iterator.next();
+			long weekStart = entry.getKey() * slotsPerWeek;
+			long[] words = entry.getValue();
+			applyRange(words, (int) Math.max(0, from - weekStart), (int) Math.min(slotsPerWeek, to - weekStart), false);
+			if (isEmpty(words)) iterator.remove();
+		}
+	}
+
+	/**
+	 * Convert the bitmap to runs of consecutive timeslots
+	 *
+	 * @return
+	 */
+	IntervalSet toIntervals() {
+		IntervalSet intervals = new IntervalSet(granularity);
+		for (Map.Entry<Long, long[]> entry : weeks.entrySet()) {
+			long[] words = entry.getValue();
+			for (int i = 0; i < wordsPerWeek; i++) {
+				long wordStart = entry.getKey() * slotsPerWeek + i * 64;
+				long word = words[i];
+				while (word != 0) {
+					int start = Long.numberOfTrailingZeros(word);
+					int end = Math.min(64, start + Long.numberOfTrailingZeros(~(word >>> start)));
+					intervals.append(wordStart + start, wordStart + end);
+					word = end == 64 ? 0 : word & (-1L << end);
+				}
+			}
+		}
+		return intervals;
+	}
+
+	boolean isEmpty() {
+		return weeks.isEmpty();
+	}
+
+	void clear() {
+		weeks.clear();
+	}
+
+	/**
+	 * Get the words of a week chunk
+	 *
+	 * @param week
+	 * @return the chunk or null if the week has no timeslots
+	 */
+	long[] getWeek(long week) {
+		return weeks.get(week);
+	}
+
+	/**
+	 * Replace the words of a week chunk, the array is not copied
+	 *
+	 * @param week
+	 * @param words
+	 */
+	void putWeek(long week, long[] words) {
+		if (isEmpty(words)) weeks.remove(week);
+		else weeks.put(week, words);
+	}
+
+	/**
+	 * Get the non-empty week chunks between two weeks, both inclusive
+	 *
+	 * @param fromWeek
+	 * @param toWeek
+	 * @return
+	 */
+	NavigableMap<Long, long[]> getWeeks(long fromWeek, long toWeek) {
+		return weeks.subMap(fromWeek, true, toWeek, true);
+	}
+
+	/**
+	 * Remove all week chunks before a week at once
+	 *
+	 * @param week first week to keep
+	 * @return the first slot of the earliest removed week, or of the given week if nothing was removed
+	 */
+	long dropWeeksBefore(long week) {
+		NavigableMap<Long, long[]> dropped = weeks.headMap(week, false);
+		if (dropped.isEmpty()) return week * slotsPerWeek;
+		long firstSlot = dropped.firstKey() * slotsPerWeek;
+		dropped.clear();
+		return firstSlot;
+	}
+
+	int weekCount() {
+		return weeks.size();
+	}
+
+	/**
+	 * Count the timeslots in the bitmap
+	 *
+	 * @return number of set bits
+	 */
+	int cardinality() {
+		int count = 0;
+		for (long[] words : weeks.values())
+			for (long word : words) count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * Estimate the heap used by the bitmap on a 64-bit JVM with compressed references:
+	 * the map, and per week a map entry, a boxed key and the words
+	 *
+	 * @return bytes
+	 */
+	long estimateBytes() {
+		return 48 + (long) weeks.size() * (40 + 16 + 16 + 8 * wordsPerWeek);
+	}
+
+	/**
+	 * Add all timeslots of another bitmap to this one
+	 *
+	 * @param other
+	 */
+	void or(AvailabilityBitmap other) {
+		for (Map.Entry<Long, long[]> entry : other.weeks.entrySet()) {
+			long[] words = weeks.get(entry.getKey());
+			if (words == null) {
+				weeks.put(entry.getKey(), entry.getValue().clone());
+				continue;
+			}
+			long[] otherWords = entry.getValue();
+			for (int i = 0; i < wordsPerWeek; i++) words[i] |= otherWords[i];
+		}
+	}
+
+	/**
+	 * Keep only the timeslots which are also present in another bitmap
+	 *
+	 * @param other
+	 */
+	void and(AvailabilityBitmap other) {
+		Iterator<Map.Entry<Long, long[]>> iterator = weeks.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, long[]> entry = iterator.next();
+			long[] otherWords = other.weeks.get(entry.getKey());
+			if (otherWords == null) {
+				iterator.remove();
+				continue;
+			}
+			long[] words = entry.getValue();
+			for (int i = 0; i < wordsPerWeek; i++) words[i] &= otherWords[i];
+			if (isEmpty(words)) iterator.remove();
+		}
+	}
+
+	/**
+	 * Remove all timeslots which are present in another bitmap
+	 *
+	 * @param other
+	 */
+	void andNot(AvailabilityBitmap other) {
+		Iterator<Map.Entry<Long, long[]>> iterator = weeks.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, long[]> entry = iterator.next();
+			long[] otherWords = other.weeks.get(entry.getKey());
+			if (otherWords == null) continue;
+			long[] words = entry.getValue();
+			for (int i = 0; i < wordsPerWeek; i++) words[i] &= ~otherWords[i];
+			if (isEmpty(words)) iterator.remove();
+		}
+	}
+
+	AvailabilityBitmap copy() {
+		AvailabilityBitmap copy = empty();
+		for (Map.Entry<Long, long[]> entry : weeks.entrySet())
+			copy.weeks.put(entry.getKey(), entry.getValue().clone());
+		return copy;
+	}
+
+	/**
+	 * Copy the weeks overlapping a window of timeslots
+	 *
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @return
+	 */
+	AvailabilityBitmap copy(long fromSlot, long toSlot) {
+		AvailabilityBitmap copy = empty();
+		if (fromSlot >= toSlot) return copy;
+		for (Map.Entry<Long, long[]> entry : getWeeks(weekOf(fromSlot), weekOf(toSlot - 1)).entrySet())
+			copy.weeks.put(entry.getKey(), entry.getValue().clone());
+		return copy;
+	}
+
+	/**
+	 * Iterate over the timeslot indexes in ascending order
+	 *
+	 * @return
+	 */
+	PrimitiveIterator.OfLong slots() {
+		return new PrimitiveIterator.OfLong() {
+			private Iterator<Map.Entry<Long, long[]>> chunks = weeks.entrySet().iterator();
+			private long base;
+			private long[] words;
+			private int wordIndex = wordsPerWeek;
+			private long word;
+
+			@Override
+			public boolean hasNext() {
+				while (word == 0) {
+					if (words != null && ++wordIndex < wordsPerWeek) {
+						word = words[wordIndex];
+					} else if (chunks.hasNext()) {
+						Map.Entry<Long, long[]> entry = chunks.next();
+						base = entry.getKey() * slotsPerWeek;
+						words = entry.getValue();
+						wordIndex = 0;
+						word = words[0];
+					} else {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) throw new NoSuchElementException();
+				int bit = Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				return base + wordIndex * 64 + bit;
+			}
+		};
+	}
+
+	/**
+	 * Get the timeslot indexes in ascending order
+	 *
+	 * @return
+	 */
+	long[] toArray() {
+		long[] slots = new long[cardinality()];
+		int i = 0;
+		for (PrimitiveIterator.OfLong iterator = slots(); iterator.hasNext(); ) slots[i++] = iterator.nextLong();
+		return slots;
+	}
+
+	/**
+	 * Get a read-only view of the bitmap as a set of timeslots, sorted by time
+	 *
+	 * @return
+	 */
+	Set<Timeslot> asTimeslotSet() {
+		return new AbstractSet<Timeslot>() {
+			@Override
+			public boolean contains(Object o) {
+				if (!(o instanceof Timeslot) || ((Timeslot) o).getStartMinute() % granularity.getMinutesPerSlot() != 0) return false;
+				return get(granularity.slotOf((Timeslot) o));
+			}
+
+			@Override
+			public boolean isEmpty() {
+				return AvailabilityBitmap.this.isEmpty();
+			}
+
+			@Override
+			public int size() {
+				return cardinality();
+			}
+
+			@Override
+			public Iterator<Timeslot> iterator() {
+				PrimitiveIterator.OfLong slots = slots();
+				return new Iterator<Timeslot>() {
+					@Override
+					public boolean hasNext() {
+						return slots.hasNext();
+					}
+
+					@Override
+					public Timeslot next() {
+						return granularity.toTimeslot(slots.nextLong());
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Get a read-only set of the timeslots of the bitmap at local times of a zone, sorted by time.
+	 * A local time repeated when the clocks go back is in the set once
+	 *
+	 * @param zone
+	 * @return a view for UTC, otherwise a copy
+	 */
+	Set<Timeslot> asTimeslotSet(ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return asTimeslotSet();
+		TreeSet<Timeslot> timeslots = new TreeSet<>();
+		for (PrimitiveIterator.OfLong slots = slots(); slots.hasNext(); )
+			timeslots.add(granularity.toTimeslot(slots.nextLong(), zone));
+		return Collections.unmodifiableSet(timeslots);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof AvailabilityBitmap) || !granularity.equals(((AvailabilityBitmap) o).granularity)) return false;
+		Map<Long, long[]> otherWeeks = ((AvailabilityBitmap) o).weeks;
+		if (weeks.size() != otherWeeks.size()) return false;
+		for (Map.Entry<Long, long[]> entry : weeks.entrySet())
+			if (!Arrays.equals(entry.getValue(), otherWeeks.get(entry.getKey()))) return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (Map.Entry<Long, long[]> entry : weeks.entrySet())
+			hash += entry.getKey().hashCode() ^ Arrays.hashCode(entry.getValue());
+		return hash;
+	}
+
+	/**
+	 * Set or clear the bits [fromBit, toBit) of a week chunk
+	 */
+	static void applyRange(long[] words, int fromBit, int toBit, boolean value) {
+		for (int i = fromBit >>> 6; i < words.length && i * 64 < toBit; i++) {
+			long mask = rangeMask(fromBit - i * 64, toBit - i * 64);
+			if (value) words[i] |= mask;
+			else words[i] &= ~mask;
+		}
+	}
+
+	/**
+	 * Mask of the bits [from, to) of a single word, bounds are clamped to the word
+	 */
+	static long rangeMask(int from, int to) {
+		from = Math.max(0, from);
+		to = Math.min(64, to);
+		if (from >= to) return 0;
+		long upper = to == 64 ? -1L : (1L << to) - 1;
+		return upper & (-1L << from);
+	}
+
+	static boolean isEmpty(long[] words) {
+		for (long word : words)
+			if (word != 0) return false;
+		return true;
+	}
+}
@@ -0,0 +1,200 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Availability index maps every timeslot to the ids of the interviewers available at it.
+ * Timeslots are bucketed by day and the index is kept up to date by listening to the interviewers'
+ * availability changes. Only the stored timeslots are indexed: recurring availability is infinite,
+ * so interviewers with recurrence rules are checked directly instead of being expanded into the index.
+ * So are interviewers with held timeslots or with days or weeks at capacity, whose stored timeslots stay in the index
+ *
+ * @author Lina Gafurova
+ *
+ */
+class AvailabilityIndex implements AvailabilityListener {
+	private final SlotGranularity granularity;
+	private final int slotsPerDay;
+	// Interviewer ids by timeslot of the day, by epoch day
+	private final TreeMap<Long, BitSet[]> days = new TreeMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	// People with recurring availability, held timeslots or at capacity, whose stored timeslots are not what they can be booked at
+	private final Set<Person> checked = ConcurrentHashMap.newKeySet();
+
+	AvailabilityIndex() {
+		this(SlotGranularity.HOURLY);
+	}
+
+	AvailabilityIndex(SlotGranularity granularity) {
+		this.granularity = granularity;
+		this.slotsPerDay = granularity.getSlotsPerDay();
+	}
+
+	/**
+	 * Start indexing a person
+	 *
+	 * @param person
+	 */
+	void add(Person person) {
+		// Under the person's lock no change is missed or applied twice between the listener and the stored timeslots
+		List<Person> locked = Person.lockAll(Collections.singletonList(person), false);
+		try {
+			person.addListener(this);
+			update(person.getId(), person.getStoredIntervals(), true);
+			updateChecked(person);
+		} finally {
+			Person.unlockAll(locked, false);
+		}
+	}
+
+	/**
+	 * Stop indexing a person
+	 *
+	 * @param person
+	 */
+	void remove(Person person) {
+		// The index holds exactly the stored timeslots, which the listener kept in step
+		List<Person> locked = Person.lockAll(Collections.singletonList(person), false);
+		try {
+			person.removeListener(this);
+			checked.remove(person);
+			update(person.getId(), person.getStoredIntervals(), false);
+		} finally {
+			Person.unlockAll(locked, false);
+		}
+	}
+
+	@Override
+	public void availabilityChanged(Person person, long fromSlot, long toSlot, boolean available) {
+		update(person.getId(), fromSlot, toSlot, available);
+	}
+
+	@Override
+	public void rulesChanged(Person person, RecurrenceRule rule, boolean added) {
+		updateChecked(person);
+	}
+
+	@Override
+	public void bookingsChanged(Person person, long fromSlot, long toSlot) {
+		updateChecked(person);
+	}
+
+	private void updateChecked(Person person) {
+		if (person.hasRecurringAvailability() || person.isPartlyBooked()) checked.add(person);
+		else checked.remove(person);
+	}
+
+	/**
+	 * Get the ids of the interviewers available at a timeslot
+	 *
+	 * @param slot
+	 * @return
+	 */
+	BitSet getAvailable(long slot) {
+		BitSet ids = new BitSet();
+		lock.readLock().lock();
+		try {
+			BitSet[] timeslots = days.get(Math.floorDiv(slot, slotsPerDay));
+			int index = Math.floorMod(slot, slotsPerDay);
+			if (timeslots != null && timeslots[index] != null) ids.or(timeslots[index]);
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		// People are checked outside of the index lock, which is always taken after a person's lock
+		for (Person person : checked) {
+			if (person.isAvailable(slot)) ids.set(person.getId());
+			else ids.clear(person.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Get the timeslots within a window at which at least the given number of interviewers are available
+	 *
+	 * @param minInterviewers
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @return
+	 */
+	AvailabilityBitmap getTimeslotsWithAvailable(int minInterviewers, long fromSlot, long toSlot) {
+		if (toSlot - fromSlot > Integer.MAX_VALUE) throw new IllegalArgumentException("Window is too large");
+		int[] counts = new int[(int) Math.max(0, toSlot - fromSlot)];
+		List<Person> people = new ArrayList<>(checked);
+
+		lock.readLock().lock();
+		try {
+			long fromDay = Math.floorDiv(fromSlot, slotsPerDay);
+			for (Map.Entry<Long, BitSet[]> entry : days.subMap(fromDay, true, Math.floorDiv(toSlot - 1, slotsPerDay), true).entrySet()) {
+				BitSet[] timeslots = entry.getValue();
+				for (int index = 0; index < slotsPerDay; index++) {
+					long slot = entry.getKey() * slotsPerDay + index;
+					if (timeslots[index] == null || slot < fromSlot || slot >= toSlot) continue;
+					int count = timeslots[index].cardinality();
+					// Checked people are counted from their own calendars below
+					for (Person person : people)
+						if (timeslots[index].get(person.getId())) count--;
+					counts[(int) (slot - fromSlot)] = count;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		for (Person person : people) {
+			AvailabilityBitmap availability = person.snapshot(fromSlot, toSlot);
+			for (PrimitiveIterator.OfLong slots = availability.slots(); slots.hasNext(); ) {
+				long slot = slots.nextLong();
+				if (slot >= fromSlot && slot < toSlot) counts[(int) (slot - fromSlot)]++;
+			}
+		}
+
+		AvailabilityBitmap timeslots = new AvailabilityBitmap(granularity);
+		for (int i = 0; i < counts.length; i++)
+			if (counts[i] >= minInterviewers && counts[i] > 0) timeslots.set(fromSlot + i);
+		return timeslots;
+	}
+
+	private void update(int id, IntervalSet intervals, boolean available) {
+		for (int i = 0; i < intervals.size(); i++) update(id, intervals.getStartSlot(i), intervals.getEndSlot(i), available);
+	}
+
+	private void update(int id, long fromSlot, long toSlot, boolean available) {
+		lock.writeLock().lock();
+		try {
+			for (long slot = fromSlot; slot < toSlot; slot++) {
+				long day = Math.floorDiv(slot, slotsPerDay);
+				int index = Math.floorMod(slot, slotsPerDay);
+				BitSet[] timeslots = days.get(day);
+				if (available) {
+					if (timeslots == null) days.put(day, timeslots = new BitSet[slotsPerDay]);
+					if (timeslots[index] == null) timeslots[index] = new BitSet();
+					timeslots[index].set(id);
+				} else if (timeslots != null && timeslots[index] != null) {
+					timeslots[index].clear(id);
+					if (timeslots[index].isEmpty()) {
+						timeslots[index] = null;
+						if (isEmpty(timeslots)) days.remove(day);
+					}
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static boolean isEmpty(BitSet[] timeslots) {
+		for (BitSet ids : timeslots)
+			if (ids != null) return false;
+		return true;
+	}
+}
@@ -0,0 +1,51 @@
+package interviewcalendar;
+
+/**
+ * Availability listener is notified about changes of a person's availability.
+ * Notifications are delivered while the person's write lock is held, in the order of the changes,
+ * and are followed by {@link #changesCompleted(Person)} once the lock is released
+ *
+ * @author Lina Gafurova
+ *
+ */
+interface AvailabilityListener {
+	/**
+	 * Timeslots [fromSlot, toSlot) were added to or removed from the person's availability
+	 *
+	 * @param person
+	 * @param fromSlot
+	 * @param toSlot
+	 * @param available true if the timeslots were added, false if removed
+	 */
+	void availabilityChanged(Person person, long fromSlot, long toSlot, boolean available);
+
+	/**
+	 * A recurrence rule was added to or removed from the person's availability
+	 *
+	 * @param person
+	 * @param rule
+	 * @param added
+	 */
+	void rulesChanged(Person person, RecurrenceRule rule, boolean added);
+
+	/**
+	 * Timeslots within [fromSlot, toSlot) were held or released, or days or weeks within it reached
+	 * or dropped below the person's capacity. The stored availability did not change,
+	 * but the timeslots the person can be booked at did
+	 *
+	 * @param person
+	 * @param fromSlot
+	 * @param toSlot
+	 */
+	default void bookingsChanged(Person person, long fromSlot, long toSlot) {
+	}
+
+	/**
+	 * The person's write lock was released after a change. Work which locks other people
+	 * belongs here rather than in the notifications delivered under the lock
+	 *
+	 * @param person
+	 */
+	default void changesCompleted(Person person) {
+	}
+}
@@ -0,0 +1,38 @@
+package interviewcalendar;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batch schedule is the result of scheduling many interview requests at once
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class BatchSchedule {
+	private final List<ScheduledInterview> scheduled;
+	private final List<InterviewRequest> unscheduled;
+
+	BatchSchedule(List<ScheduledInterview> scheduled, List<InterviewRequest> unscheduled) {
+		this.scheduled = Collections.unmodifiableList(scheduled);
+		this.unscheduled = Collections.unmodifiableList(unscheduled);
+	}
+
+	/**
+	 * Get the scheduled interviews in the order of their requests
+	 *
+	 * @return
+	 */
+	public List<ScheduledInterview> getScheduled() {
+		return scheduled;
+	}
+
+	/**
+	 * Get the requests which could not be given a timeslot without a conflict
+	 *
+	 * @return
+	 */
+	public List<InterviewRequest> getUnscheduled() {
+		return unscheduled;
+	}
+}
@@ -0,0 +1,112 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch scheduler assigns non-conflicting timeslots to many interview requests at once.
+ * The intersections of all requests are computed in parallel, then the requests are assigned
+ * sequentially, most constrained first, so the same input always gives the same schedule
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class BatchScheduler {
+	// Number of best panels considered for a request choosing its panel from a pool
+	static final int POOL_PANEL_OPTIONS = 16;
+
+	private final InterviewCalendar calendar;
+	private final long fromSlot;
+	private final long toSlot;
+
+	BatchScheduler(InterviewCalendar calendar, long fromSlot, long toSlot) {
+		this.calendar = calendar;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+	}
+
+	BatchSchedule schedule(List<InterviewRequest> requests) {
+		// Parallel phase: intersections of every request, independent of each other
+		List<List<PanelMatch>> options = requests.parallelStream()
+				.map(this::options)
+				.collect(Collectors.toList());
+
+		// Deterministic phase: fewest possible timeslots first, ties in the order of the requests
+		List<Integer> order = IntStream.range(0, requests.size()).boxed()
+				.sorted(Comparator.comparingLong((Integer i) -> countTimeslots(options.get(i))).thenComparingInt(i -> i))
+				.collect(Collectors.toList());
+
+		Map<Integer, AvailabilityBitmap> booked = new HashMap<>();
+		ScheduledInterview[] scheduled = new ScheduledInterview[requests.size()];
+		for (int i : order) scheduled[i] = assign(requests.get(i), options.get(i), booked);
+
+		List<ScheduledInterview> interviews = new ArrayList<>();
+		List<InterviewRequest> unscheduled = new ArrayList<>();
+		for (int i = 0; i < requests.size(); i++) {
+			if (scheduled[i] != null) interviews.add(scheduled[i]);
+			else unscheduled.add(requests.get(i));
+		}
+		return new BatchSchedule(interviews, unscheduled);
+	}
+
+	/**
+	 * Get the possible panels of a request with their common timeslots, best first
+	 */
+	private List<PanelMatch> options(InterviewRequest request) {
+		Person candidate = calendar.getCandidate(request.getCandidateID());
+		if (candidate == null) return Collections.emptyList();
+
+		List<Person> interviewers = new ArrayList<>();
+		for (int id : request.getInterviewersIDs()) {
+			Person interviewer = calendar.getInterviewer(id);
+			if (interviewer != null) interviewers.add(interviewer);
+			else if (request.isFixedPanel()) return Collections.emptyList();
+		}
+		if (interviewers.size() < request.getPanelSize()) return Collections.emptyList();
+
+		int maxResults = request.isFixedPanel() ? 1 : POOL_PANEL_OPTIONS;
+		return new PanelSearch(request.getPanelSize(), fromSlot, toSlot, maxResults).search(candidate, interviewers);
+	}
+
+	/**
+	 * Assign the earliest timeslot of the best panel at which nobody is booked yet
+	 *
+	 * @return the interview or null if every option conflicts
+	 */
+	private ScheduledInterview assign(InterviewRequest request, List<PanelMatch> options, Map<Integer, AvailabilityBitmap> booked) {
+		for (PanelMatch option : options) {
+			List<Integer> participants = new ArrayList<>(option.getInterviewersIDs());
+			participants.add(request.getCandidateID());
+
+			for (PrimitiveIterator.OfLong slots = option.getTimeslotBitmap().slots(); slots.hasNext(); ) {
+				long slot = slots.nextLong();
+				if (isBooked(participants, slot, booked)) continue;
+
+				for (int id : participants) booked.computeIfAbsent(id, key -> option.getTimeslotBitmap().empty()).set(slot);
+				return new ScheduledInterview(request, option.getInterviewersIDs(), option.getTimeslotBitmap().getGranularity().toTimeslot(slot));
+			}
+		}
+		return null;
+	}
+
+	private static boolean isBooked(List<Integer> participants, long slot, Map<Integer, AvailabilityBitmap> booked) {
+		for (int id : participants) {
+			AvailabilityBitmap bookedSlots = booked.get(id);
+			if (bookedSlots != null && bookedSlots.get(slot)) return true;
+		}
+		return false;
+	}
+
+	private static long countTimeslots(List<PanelMatch> options) {
+		long count = 0;
+		for (PanelMatch option : options) count += option.getTimeslotCount();
+		return count;
+	}
+}
@@ -0,0 +1,464 @@
+package interviewcalendar;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Calendar journal is an append-only write-ahead log of calendar mutations kept next to a snapshot.
+ * Mutations are encoded into an in-memory buffer while the person's lock is held, and a background
+ * thread writes and forces the buffer every commit interval, so one disk flush covers many mutations.
+ *
+ * Every record carries a sequence number, and every person remembers the last sequence number applied
+ * to it, which is saved with the snapshot. Recovery loads the snapshot and replays only the records newer
+ * than each person's sequence number, so records already reflected in the snapshot are skipped.
+ * Compaction starts a new journal file, saves a snapshot and deletes the older journal files.
+ *
+ * Only people, their stored availability and their recurrence rules are durable. Reservations, the interviews
+ * counted against the capacity and the capacity itself live in memory: after recovery the held and booked
+ * timeslots are offered again, nobody has interviews and nobody has a limit until the application sets them again
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class CalendarJournal implements AvailabilityListener {
+	static final String SNAPSHOT_FILE = "calendar.snapshot";
+	static final String JOURNAL_PREFIX = "calendar.journal.";
+	static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 10;
+	static final long DEFAULT_COMPACTION_THRESHOLD = 64L << 20;
+
+	private static final byte ADD_INTERVIEWER = 1;
+	private static final byte ADD_CANDIDATE = 2;
+	private static final byte REMOVE_PERSON = 3;
+	private static final byte AVAILABLE = 4;
+	private static final byte UNAVAILABLE = 5;
+	private static final byte ADD_RULE = 6;
+	private static final byte REMOVE_RULE = 7;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private final InterviewCalendar calendar;
+	private final Path directory;
+	private final long compactionThreshold;
+	private final ScheduledExecutorService flusher;
+
+	// Guards the pending buffer and the sequence numbers
+	private final Object appendLock = new Object();
+	private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+	private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+	private long nextSequence;
+	private long lastSequence;
+	// Position of the record started last in the pending buffer
+	private int recordStart;
+
+	// Guards the file, only one thread writes to it at a time
+	private final Object flushLock = new Object();
+	private FileChannel channel;
+	private long generation;
+	private volatile long durableSequence;
+	private volatile IOException failure;
+
+	private final Object compactionLock = new Object();
+	private final AtomicBoolean compacting = new AtomicBoolean();
+
+	private CalendarJournal(InterviewCalendar calendar, Path directory, long generation, long nextSequence,
+			long commitIntervalMillis, long compactionThreshold) throws IOException {
+		this.calendar = calendar;
+		this.directory = directory;
+		this.generation = generation;
+		this.nextSequence = nextSequence;
+		this.lastSequence = nextSequence - 1;
+		this.durableSequence = lastSequence;
+		this.compactionThreshold = compactionThreshold;
+		this.channel = openGeneration(generation);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "calendar-journal");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, commitIntervalMillis, commitIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Get the granularity of the calendar kept in a directory
+	 *
+	 * @param directory
+	 * @return the granularity of the snapshot or null if there is none
+	 * @throws IOException
+	 */
+	static SlotGranularity readGranularity(Path directory) throws IOException {
+		Path snapshot = directory.resolve(SNAPSHOT_FILE);
+		return Files.exists(snapshot) ? CalendarSnapshot.readGranularity(snapshot) : null;
+	}
+
+	/**
+	 * Recover a calendar from the snapshot and the journal files of a directory,
+	 * then compact them and start journaling the calendar's mutations
+	 *
+	 * @param directory
+	 * @param calendar an empty calendar
+	 * @param commitIntervalMillis maximum time between a mutation and its disk flush
+	 * @param compactionThreshold journal size in bytes which triggers a compaction
+	 * @return
+	 * @throws IOException
+	 */
+	static CalendarJournal open(Path directory, InterviewCalendar calendar, long commitIntervalMillis,
+			long compactionThreshold) throws IOException {
+		Files.createDirectories(directory);
+		Path snapshot = directory.resolve(SNAPSHOT_FILE);
+		if (Files.exists(snapshot)) CalendarSnapshot.load(snapshot, calendar);
+
+		long lastSequence = 0;
+		for (Person person : calendar.getInterviewers().values()) lastSequence = Math.max(lastSequence, person.getJournalSequence());
+		for (Person person : calendar.getCandidates().values()) lastSequence = Math.max(lastSequence, person.getJournalSequence());
+		TreeMap<Long, Path> generations = listGenerations(directory);
+		for (Path file : generations.values()) lastSequence = Math.max(lastSequence, replay(file, calendar));
+
+		// The recovered state becomes the new snapshot, so the replayed files are not needed any more
+		long generation = generations.isEmpty() ? 0 : generations.lastKey() + 1;
+		CalendarJournal journal = new CalendarJournal(calendar, directory, generation, lastSequence + 1,
+				commitIntervalMillis, compactionThreshold);
+		try {
+			CalendarSnapshot.save(calendar, snapshot);
+			for (Path file : generations.values()) Files.deleteIfExists(file);
+		} catch (IOException e) {
+			journal.close();
+			throw e;
+		}
+		for (Person person : calendar.getInterviewers().values()) person.addListener(journal);
+		for (Person person : calendar.getCandidates().values()) person.addListener(journal);
+		return journal;
+	}
+
+	/**
+	 * Start journaling a person's mutations
+	 *
+	 * @param person
+	 * @param interviewer
+	 */
+	void personAdded(Person person, boolean interviewer) {
+		byte[] name = person.getName().getBytes(StandardCharsets.UTF_8);
+		byte[] zone = person.getZone().getId().getBytes(StandardCharsets.UTF_8);
+		synchronized (appendLock) {
+			ByteBuffer body = startRecord(interviewer ? ADD_INTERVIEWER : ADD_CANDIDATE, person.getId(),
+					2 * Integer.BYTES + name.length + zone.length);
+			body.putInt(name.length);
+			body.put(name);
+			body.putInt(zone.length);
+			body.put(zone);
+			endRecord(body);
+		}
+		person.addListener(this);
+	}
+
+	void personRemoved(Person person) {
+		person.removeListener(this);
+		synchronized (appendLock) {
+			endRecord(startRecord(REMOVE_PERSON, person.getId(), 0));
+		}
+	}
+
+	@Override
+	public void availabilityChanged(Person person, long fromSlot, long toSlot, boolean available) {
+		synchronized (appendLock) {
+			ByteBuffer body = startRecord(available ? AVAILABLE : UNAVAILABLE, person.getId(), 2 * Long.BYTES);
+			body.putLong(fromSlot);
+			body.putLong(toSlot);
+			person.setJournalSequence(endRecord(body));
+		}
+	}
+
+	@Override
+	public void rulesChanged(Person person, RecurrenceRule rule, boolean added) {
+		synchronized (appendLock) {
+			ByteBuffer body = startRecord(added ? ADD_RULE : REMOVE_RULE, person.getId(), Integer.BYTES + 2
+					+ 3 * Long.BYTES + Long.BYTES * rule.getExceptions().size());
+			body.putInt(rule.getDaysOfWeek());
+			body.put((byte) rule.getStartHour());
+			body.put((byte) rule.getEndHour());
+			body.putLong(rule.getStartDate().toEpochDay());
+			body.putLong(rule.getUntilDate() == null ? NO_DATE : rule.getUntilDate().toEpochDay());
+			body.putLong(rule.getExceptions().size());
+			for (LocalDate exception : rule.getExceptions()) body.putLong(exception.toEpochDay());
+			person.setJournalSequence(endRecord(body));
+		}
+	}
+
+	/**
+	 * Wait until all mutations made so far are on disk.
+	 * Threads syncing at the same time share a single disk flush
+	 *
+	 * @throws IOException
+	 */
+	void sync() throws IOException {
+		long target;
+		synchronized (appendLock) {
+			target = lastSequence;
+		}
+		synchronized (flushLock) {
+			if (durableSequence < target) flush();
+		}
+		if (failure != null) throw failure;
+	}
+
+	/**
+	 * Replace the journal files with a new snapshot
+	 *
+	 * @throws IOException
+	 */
+	void compact() throws IOException {
+		synchronized (compactionLock) {
+			long previous;
+			synchronized (flushLock) {
+				flush();
+				channel.close();
+				previous = generation++;
+				channel = openGeneration(generation);
+			}
+			// Mutations made from now on go to the new file, and to the snapshot if they happen before it reaches the person
+			CalendarSnapshot.save(calendar, directory.resolve(SNAPSHOT_FILE));
+			for (Path file : listGenerations(directory).headMap(previous, true).values()) Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Flush the pending mutations and stop journaling
+	 *
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		flusher.shutdown();
+		synchronized (compactionLock) {
+			synchronized (flushLock) {
+				flush();
+				channel.close();
+			}
+		}
+		if (failure != null) throw failure;
+	}
+
+	private void flushQuietly() {
+		try {
+			boolean compact;
+			synchronized (flushLock) {
+				// A flush may still be scheduled after the journal was closed
+				if (!channel.isOpen()) return;
+				flush();
+				compact = channel.size() > compactionThreshold;
+			}
+			if (compact && compacting.compareAndSet(false, true)) {
+				Thread thread = new Thread(() -> {
+					try {
+						compact();
+					} catch (IOException e) {
+						failure = e;
+					} finally {
+						compacting.set(false);
+					}
+				}, "calendar-journal-compaction");
+				thread.setDaemon(true);
+				thread.start();
+			}
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * Write and force the pending records, the caller must hold the flush lock
+	 *
+	 * @throws IOException
+	 */
+	private void flush() throws IOException {
+		ByteBuffer batch;
+		long batchSequence;
+		synchronized (appendLock) {
+			if (pending.position() == 0) return;
+			batch = pending;
+			pending = spare;
+			batchSequence = lastSequence;
+		}
+		batch.flip();
+		while (batch.hasRemaining()) channel.write(batch);
+		channel.force(false);
+		batch.clear();
+		spare = batch;
+		durableSequence = batchSequence;
+	}
+
+	/**
+	 * Start a record in the pending buffer, the caller must hold the append lock
+	 *
+	 * @param type
+	 * @param personID
+	 * @param payloadBytes
+	 * @return the pending buffer positioned at the payload
+	 */
+	private ByteBuffer startRecord(byte type, int personID, int payloadBytes) {
+		int bodyBytes = 1 + Long.BYTES + Integer.BYTES + payloadBytes;
+		if (pending.remaining() < 2 * Integer.BYTES + bodyBytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + 2 * Integer.BYTES + bodyBytes));
+			pending.flip();
+			grown.put(pending);
+			pending = grown;
+		}
+		recordStart = pending.position();
+		pending.putInt(bodyBytes);
+		// The checksum is filled in by endRecord
+		pending.putInt(0);
+		pending.put(type);
+		pending.putLong(nextSequence);
+		pending.putInt(personID);
+		return pending;
+	}
+
+	/**
+	 * Fill in the checksum of the record started last
+	 *
+	 * @param body
+	 * @return sequence number of the record
+	 */
+	private long endRecord(ByteBuffer body) {
+		int bodyStart = recordStart + 2 * Integer.BYTES;
+		CRC32 crc = new CRC32();
+		crc.update(body.array(), bodyStart, body.position() - bodyStart);
+		body.putInt(recordStart + Integer.BYTES, (int) crc.getValue());
+		lastSequence = nextSequence++;
+		return lastSequence;
+	}
+
+	private FileChannel openGeneration(long generation) throws IOException {
+		return FileChannel.open(directory.resolve(JOURNAL_PREFIX + generation),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	private static TreeMap<Long, Path> listGenerations(Path directory) throws IOException {
+		TreeMap<Long, Path> generations = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*")) {
+			for (Path file : files) {
+				try {
+					generations.put(Long.parseLong(file.getFileName().toString().substring(JOURNAL_PREFIX.length())), file);
+				} catch (NumberFormatException e) {
+					// Not a journal file
+				}
+			}
+		}
+		return generations;
+	}
+
+	/**
+	 * Apply the records of a journal file which are newer than the state of their person.
+	 * Reading stops at the first incomplete or corrupted record, which is a write torn by a crash
+	 *
+	 * @param file
+	 * @param calendar
+	 * @return the last sequence number in the file
+	 * @throws IOException if the file cannot be read or has a record of an unknown type
+	 */
+	private static long replay(Path file, InterviewCalendar calendar) throws IOException {
+		long lastSequence = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] bytes;
+				try {
+					int length = in.readInt();
+					int checksum = in.readInt();
+					if (length < 1 + Long.BYTES + Integer.BYTES) break;
+					bytes = new byte[length];
+					in.readFully(bytes);
+					crc.reset();
+					crc.update(bytes);
+					if ((int) crc.getValue() != checksum) break;
+				} catch (EOFException e) {
+					break;
+				}
+
+				ByteBuffer body = ByteBuffer.wrap(bytes);
+				byte type = body.get();
+				long sequence = body.getLong();
+				int personID = body.getInt();
+				lastSequence = Math.max(lastSequence, sequence);
+				apply(calendar, type, sequence, personID, body, file);
+			}
+		}
+		return lastSequence;
+	}
+
+	private static void apply(InterviewCalendar calendar, byte type, long sequence, int personID, ByteBuffer body, Path file)
+			throws IOException {
+		Person person = calendar.getPerson(personID);
+		switch (type) {
+		case ADD_INTERVIEWER:
+		case ADD_CANDIDATE:
+			// Ids are never reused, so a known id was added before the snapshot
+			if (person != null) return;
+			byte[] name = new byte[body.getInt()];
+			body.get(name);
+			byte[] zoneID = new byte[body.getInt()];
+			body.get(zoneID);
+			ZoneId zone = ZoneId.of(new String(zoneID, StandardCharsets.UTF_8));
+			calendar.restorePerson(new Person(personID, new String(name, StandardCharsets.UTF_8), calendar.getGranularity(), zone),
+					type == ADD_INTERVIEWER);
+			calendar.restoreNextID(Math.max(calendar.getNextID(), personID + 1));
+			return;
+		case REMOVE_PERSON:
+			calendar.removeInterviewer(personID);
+			calendar.removeCandidate(personID);
+			return;
+		case AVAILABLE:
+		case UNAVAILABLE:
+		case ADD_RULE:
+		case REMOVE_RULE:
+			break;
+		default:
+			throw new IOException("Unknown journal record type " + type + " in " + file);
+		}
+
+		if (person == null || sequence <= person.getJournalSequence()) return;
+		switch (type) {
+		case AVAILABLE:
+			person.addAvailableSlots(body.getLong(), body.getLong());
+			break;
+		case UNAVAILABLE:
+			person.removeUnavailableSlots(body.getLong(), body.getLong());
+			break;
+		case ADD_RULE:
+			person.addRecurringAvailability(getRule(body));
+			break;
+		case REMOVE_RULE:
+			person.removeRecurringAvailability(getRule(body));
+			break;
+		}
+		person.setJournalSequence(sequence);
+	}
+
+	private static RecurrenceRule getRule(ByteBuffer body) {
+		int daysOfWeek = body.getInt();
+		int startHour = body.get();
+		int endHour = body.get();
+		LocalDate startDate = LocalDate.ofEpochDay(body.getLong());
+		long until = body.getLong();
+		long exceptionCount = body.getLong();
+		Set<LocalDate> exceptions = new HashSet<>();
+		for (long i = 0; i < exceptionCount; i++) exceptions.add(LocalDate.ofEpochDay(body.getLong()));
+		return RecurrenceRule.of(daysOfWeek, startHour, endHour, startDate, until == NO_DATE ? null : LocalDate.ofEpochDay(until), exceptions);
+	}
+}
@@ -0,0 +1,72 @@
+package interviewcalendar;
+
+/**
+ * Calendar metrics receives measurements of calendar operations as they complete.
+ * Methods are called on the threads doing the operations, sometimes while a person's lock is held,
+ * so implementations must be thread-safe and must neither block nor allocate, see {@link MetricsRecorder}
+ *
+ * @author Lina Gafurova
+ *
+ */
+public interface CalendarMetrics {
+	/**
+	 * Metrics which ignore all measurements, used until other metrics are set
+	 */
+	CalendarMetrics NONE = new CalendarMetrics() {
+	};
+
+	/**
+	 * Measured operations
+	 */
+	enum Operation {
+		INTERSECTION,
+		// One range of consecutive timeslots, so a call or batch with several intervals records each of them
+		ADD_AVAILABILITY,
+		REMOVE_AVAILABILITY,
+		// A whole batch, in addition to its ranges
+		BATCH,
+		FIND_BLOCKS,
+		FIND_PANELS,
+		SCHEDULE,
+		RANK_TIMESLOTS
+	}
+
+	/**
+	 * An operation completed
+	 *
+	 * @param operation
+	 * @param nanos duration of the operation including waiting for locks
+	 */
+	default void operationCompleted(Operation operation, long nanos) {
+	}
+
+	/**
+	 * Get the start time of an operation, the clock is not read if the metrics are {@link #NONE}
+	 *
+	 * @param metrics
+	 * @return
+	 */
+	static long start(CalendarMetrics metrics) {
+		return metrics == NONE ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Report an operation which started at the given time, unless the metrics are {@link #NONE}
+	 *
+	 * @param metrics the metrics the start time was taken for
+	 * @param operation
+	 * @param start
+	 */
+	static void complete(CalendarMetrics metrics, Operation operation, long start) {
+		if (metrics != NONE) metrics.operationCompleted(operation, System.nanoTime() - start);
+	}
+
+	/**
+	 * An intersection query was answered
+	 *
+	 * @param timeslots number of timeslots in the result
+	 * @param cached true if the result came from the intersection cache
+	 */
+	default void intersectionCompleted(long timeslots, boolean cached) {
+	}
+}
@@ -0,0 +1,38 @@
+package interviewcalendar;
+
+import java.util.Collection;
+
+/**
+ * Calendar partition keeps a share of the people of a {@link PartitionedCalendar}.
+ * {@link InterviewCalendar} is the in-process partition, other implementations may stand in for partitions
+ * kept elsewhere. The partition with index i of n partitions must generate ids equal to i modulo n
+ *
+ * @author Lina Gafurova
+ *
+ */
+public interface CalendarPartition {
+	SlotGranularity getGranularity();
+
+	int addInterviewer(String name);
+
+	void removeInterviewer(int id);
+
+	int addCandidate(String name);
+
+	void removeCandidate(int id);
+
+	void addAvailableSlots(int personID, long fromSlot, long toSlot);
+
+	void removeUnavailableSlots(int personID, long fromSlot, long toSlot);
+
+	/**
+	 * Get the slots within a window which are available for all of the given people of the partition
+	 *
+	 * @param personIDs
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return the common intervals
+	 * @throws IllegalArgumentException if there are no people or a person is unknown
+	 */
+	IntervalSet getCommonAvailability(Collection<Integer> personIDs, long fromSlot, long toSlot);
+}
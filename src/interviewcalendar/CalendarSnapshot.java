@@ -0,0 +1,315 @@
+package interviewcalendar;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calendar snapshot stores a whole calendar in a compact binary file, so that a calendar
+ * is restored by a sequential read of memory-mapped week chunks instead of timeslot by timeslot.
+ *
+ * The file is big-endian: magic, version, minutes per timeslot, next unique id, number of people, then for each person
+ * its kind, id, name, zone, journal sequence number, availability bitmap, recurrence rules and blocked bitmap.
+ * A bitmap is a number of weeks followed by the index and the words of every non-empty week,
+ * the number of words of a week depends on the granularity
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class CalendarSnapshot {
+	static final int MAGIC = 0x49434153;
+	static final int VERSION = 1;
+
+	private static final byte INTERVIEWER = 0;
+	private static final byte CANDIDATE = 1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+	// Size of the write buffer and of the mapped windows of the file
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int WINDOW_SIZE = 1 << 26;
+
+	private CalendarSnapshot() {
+	}
+
+	/**
+	 * Save a calendar, every person is captured under its read lock.
+	 * The file is written next to the target and moved into place, so a failed save keeps the previous snapshot
+	 *
+	 * @param calendar
+	 * @param file
+	 * @throws IOException
+	 */
+	static void save(InterviewCalendar calendar, Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Writer writer = new Writer(channel);
+			List<Person> interviewers = new ArrayList<>(calendar.getInterviewers().values());
+			List<Person> candidates = new ArrayList<>(calendar.getCandidates().values());
+			// Every saved person has an id below the next id read after them
+			int nextID = calendar.getNextID();
+
+			writer.putInt(MAGIC);
+			writer.putInt(VERSION);
+			writer.putInt(calendar.getGranularity().getMinutesPerSlot());
+			writer.putInt(nextID);
+			writer.putInt(interviewers.size() + candidates.size());
+			for (Person person : interviewers) person.saveTo(writer, INTERVIEWER);
+			for (Person person : candidates) person.saveTo(writer, CANDIDATE);
+			writer.flush();
+			channel.force(false);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read the granularity of the calendar saved in a snapshot
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if the file is not a snapshot
+	 */
+	static SlotGranularity readGranularity(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Reader reader = new Reader(channel);
+			readVersion(reader, file);
+			return reader.getGranularity();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupted snapshot: " + file, e);
+		}
+	}
+
+	/**
+	 * Load people from a snapshot into an empty calendar
+	 *
+	 * @param file
+	 * @param calendar calendar of the granularity of the snapshot
+	 * @throws IOException if the file is not a snapshot, is truncated or is of another granularity
+	 */
+	static void load(Path file, InterviewCalendar calendar) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Reader reader = new Reader(channel);
+			readVersion(reader, file);
+			SlotGranularity granularity = reader.getGranularity();
+			if (!granularity.equals(calendar.getGranularity()))
+				throw new IOException("Snapshot of " + granularity + " timeslots cannot be loaded into a calendar of "
+						+ calendar.getGranularity() + " timeslots");
+
+			int nextID = reader.getInt();
+			int count = reader.getInt();
+			for (int i = 0; i < count; i++) {
+				byte kind = reader.getByte();
+				if (kind != INTERVIEWER && kind != CANDIDATE) throw new IOException("Corrupted snapshot: " + file);
+				int id = reader.getInt();
+				String name = reader.getString();
+				ZoneId zone = ZoneId.of(reader.getString());
+				long journalSequence = reader.getLong();
+				AvailabilityBitmap availability = reader.getBitmap();
+				List<RecurrenceRule> rules = reader.getRules();
+				AvailabilityBitmap blocked = reader.getBitmap();
+				Person person = new Person(id, name, zone, availability, rules, blocked);
+				person.setJournalSequence(journalSequence);
+				calendar.restorePerson(person, kind == INTERVIEWER);
+				nextID = Math.max(nextID, id + 1);
+			}
+			calendar.restoreNextID(nextID);
+		} catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+			throw new IOException("Corrupted snapshot: " + file, e);
+		}
+	}
+
+	private static void readVersion(Reader reader, Path file) throws IOException {
+		if (reader.getInt() != MAGIC) throw new IOException("Not a calendar snapshot: " + file);
+		int version = reader.getInt();
+		if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+	}
+
+	/**
+	 * Sequential writer of snapshot values through a reusable direct buffer
+	 */
+	static final class Writer {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		private Writer(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * Write a person, the caller must hold the lock of the person
+		 */
+		void putPerson(byte kind, int id, String name, ZoneId zone, long journalSequence, AvailabilityBitmap availability,
+				List<RecurrenceRule> rules, AvailabilityBitmap blocked) throws IOException {
+			ensure(1);
+			buffer.put(kind);
+			putInt(id);
+			putString(name);
+			putString(zone.getId());
+			ensure(Long.BYTES);
+			buffer.putLong(journalSequence);
+			putBitmap(availability);
+			putInt(rules.size());
+			for (RecurrenceRule rule : rules) putRule(rule);
+			putBitmap(blocked);
+		}
+
+		private void putString(String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			for (int offset = 0; offset < bytes.length; ) {
+				ensure(1);
+				int length = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		private void putBitmap(AvailabilityBitmap bitmap) throws IOException {
+			putInt(bitmap.weekCount());
+			for (Map.Entry<Long, long[]> entry : bitmap.getWeeks(Long.MIN_VALUE, Long.MAX_VALUE).entrySet()) {
+				ensure(Long.BYTES * (1 + bitmap.getWordsPerWeek()));
+				buffer.putLong(entry.getKey());
+				for (long word : entry.getValue()) buffer.putLong(word);
+			}
+		}
+
+		private void putRule(RecurrenceRule rule) throws IOException {
+			ensure(Integer.BYTES + 2 + 2 * Long.BYTES + Integer.BYTES);
+			buffer.putInt(rule.getDaysOfWeek());
+			buffer.put((byte) rule.getStartHour());
+			buffer.put((byte) rule.getEndHour());
+			buffer.putLong(rule.getStartDate().toEpochDay());
+			buffer.putLong(rule.getUntilDate() == null ? NO_DATE : rule.getUntilDate().toEpochDay());
+			buffer.putInt(rule.getExceptions().size());
+			for (LocalDate exception : rule.getExceptions()) {
+				ensure(Long.BYTES);
+				buffer.putLong(exception.toEpochDay());
+			}
+		}
+
+		private void putInt(int value) throws IOException {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+		}
+
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) flush();
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) channel.write(buffer);
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Sequential reader of snapshot values from memory-mapped windows of the file,
+	 * so files larger than a single mapping are read as well
+	 */
+	private static final class Reader {
+		private final FileChannel channel;
+		private final long size;
+		private ByteBuffer buffer = ByteBuffer.allocate(0);
+		// Position of the current window in the file
+		private long windowStart;
+		// Granularity of the bitmaps
+		private SlotGranularity granularity;
+
+		Reader(FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+		}
+
+		byte getByte() throws IOException {
+			ensure(1);
+			return buffer.get();
+		}
+
+		int getInt() throws IOException {
+			ensure(Integer.BYTES);
+			return buffer.getInt();
+		}
+
+		long getLong() throws IOException {
+			ensure(Long.BYTES);
+			return buffer.getLong();
+		}
+
+		/**
+		 * Read the granularity of the bitmaps which follow
+		 */
+		SlotGranularity getGranularity() throws IOException {
+			granularity = SlotGranularity.ofMinutes(getInt());
+			return granularity;
+		}
+
+		String getString() throws IOException {
+			int length = getInt();
+			if (length < 0) throw new IOException("Corrupted snapshot");
+			ensure(length);
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		AvailabilityBitmap getBitmap() throws IOException {
+			AvailabilityBitmap bitmap = new AvailabilityBitmap(granularity);
+			int weeks = getInt();
+			for (int i = 0; i < weeks; i++) {
+				ensure(Long.BYTES * (1 + bitmap.getWordsPerWeek()));
+				long week = buffer.getLong();
+				long[] words = new long[bitmap.getWordsPerWeek()];
+				for (int j = 0; j < words.length; j++) words[j] = buffer.getLong();
+				bitmap.putWeek(week, words);
+			}
+			return bitmap;
+		}
+
+		List<RecurrenceRule> getRules() throws IOException {
+			int count = getInt();
+			List<RecurrenceRule> rules = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				ensure(Integer.BYTES + 2 + 2 * Long.BYTES + Integer.BYTES);
+				int daysOfWeek = buffer.getInt();
+				int startHour = buffer.get();
+				int endHour = buffer.get();
+				LocalDate startDate = LocalDate.ofEpochDay(buffer.getLong());
+				long until = buffer.getLong();
+				LocalDate untilDate = until == NO_DATE ? null : LocalDate.ofEpochDay(until);
+				int exceptionCount = buffer.getInt();
+				Set<LocalDate> exceptions = new HashSet<>();
+				for (int j = 0; j < exceptionCount; j++) {
+					ensure(Long.BYTES);
+					exceptions.add(LocalDate.ofEpochDay(buffer.getLong()));
+				}
+				rules.add(RecurrenceRule.of(daysOfWeek, startHour, endHour, startDate, untilDate, exceptions));
+			}
+			return rules;
+		}
+
+		/**
+		 * Map the next window of the file if the current one has less than the given number of bytes left
+		 */
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes) return;
+			long position = windowStart + buffer.position();
+			if (size - position < bytes) throw new IOException("Truncated snapshot");
+			windowStart = position;
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(WINDOW_SIZE, bytes)));
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package interviewcalendar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram counts non-negative values in log-linear buckets: values below 32 have their own bucket,
+ * larger values share a bucket with values of the same 5 leading bits, so every value is kept
+ * with a relative error below 1/32 in a fixed table of buckets. Recording updates an atomic counter
+ * and never locks nor allocates, so many threads record at once
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class Histogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// Exponents SUB_BUCKET_BITS..62 of positive longs, plus the exact buckets below SUB_BUCKETS
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record a value, negative values are recorded as 0
+	 *
+	 * @param value
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+		long currentMax = max.get();
+		while (value > currentMax && !max.compareAndSet(currentMax, value)) currentMax = max.get();
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long total = count.sum();
+		return total == 0 ? 0 : (double) sum.sum() / total;
+	}
+
+	/**
+	 * Get the value below which the given percentage of the recorded values fall
+	 *
+	 * @param percentile between 0 and 100
+	 * @return the highest value of the bucket reaching the percentile, at most the maximum, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Invalid percentile " + percentile);
+		long total = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+		if (total == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) return Math.min(highestValueOf(i), getMax());
+		}
+		return getMax();
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
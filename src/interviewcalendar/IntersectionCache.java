@@ -0,0 +1,149 @@
+package interviewcalendar;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intersection cache keeps the results of recent intersection queries, evicting the least recently used ones.
+ * Every result remembers the versions of the people it was computed from, so a result is recomputed
+ * only when one of those people has changed since
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class IntersectionCache {
+	private final int maxEntries;
+	private final LinkedHashMap<Key, Result> entries;
+
+	IntersectionCache(int maxEntries) {
+		if (maxEntries < 0) throw new IllegalArgumentException("Negative cache size " + maxEntries);
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+				return size() > IntersectionCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Create the key of a query, the interviewers are sorted and duplicates are dropped
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param fromSlot
+	 * @param toSlot
+	 * @return
+	 */
+	static Key key(int candidateID, int[] interviewersIDs, long fromSlot, long toSlot) {
+		int[] sorted = interviewersIDs.clone();
+		Arrays.sort(sorted);
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (i == 0 || sorted[i] != sorted[i - 1]) sorted[size++] = sorted[i];
+		return new Key(candidateID, Arrays.copyOf(sorted, size), fromSlot, toSlot);
+	}
+
+	/**
+	 * Get a cached result which is still up to date
+	 *
+	 * @param key
+	 * @param people the candidate followed by the interviewers of the query
+	 * @return the result or null
+	 */
+	AvailabilityBitmap get(Key key, List<Person> people) {
+		Result cached;
+		synchronized (entries) {
+			cached = entries.get(key);
+		}
+		if (cached == null || !cached.isValid(people)) return null;
+		return cached.result;
+	}
+
+	/**
+	 * Cache a result, which must not be modified afterwards
+	 *
+	 * @param key
+	 * @param versions versions of the people read before computing the result
+	 * @param result
+	 */
+	void put(Key key, long[] versions, AvailabilityBitmap result) {
+		if (maxEntries == 0) return;
+		synchronized (entries) {
+			entries.put(key, new Result(versions, result));
+		}
+	}
+
+	int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Read the current versions of people, before computing a result from them.
+	 * A change made while the result is computed makes the result look outdated, never the other way round
+	 *
+	 * @param people
+	 * @return
+	 */
+	static long[] versions(List<Person> people) {
+		long[] versions = new long[people.size()];
+		for (int i = 0; i < versions.length; i++) versions[i] = people.get(i).getVersion();
+		return versions;
+	}
+
+	static final class Key {
+		private final int candidateID;
+		private final int[] interviewersIDs;
+		private final long fromSlot;
+		private final long toSlot;
+
+		private Key(int candidateID, int[] interviewersIDs, long fromSlot, long toSlot) {
+			this.candidateID = candidateID;
+			this.interviewersIDs = interviewersIDs;
+			this.fromSlot = fromSlot;
+			this.toSlot = toSlot;
+		}
+
+		int[] getInterviewersIDs() {
+			return interviewersIDs;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return candidateID == other.candidateID && fromSlot == other.fromSlot && toSlot == other.toSlot
+					&& Arrays.equals(interviewersIDs, other.interviewersIDs);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 31 * candidateID + Arrays.hashCode(interviewersIDs);
+			hash = 31 * hash + Long.hashCode(fromSlot);
+			return 31 * hash + Long.hashCode(toSlot);
+		}
+	}
+
+	private static final class Result {
+		private final long[] versions;
+		private final AvailabilityBitmap result;
+
+		Result(long[] versions, AvailabilityBitmap result) {
+			this.versions = versions;
+			this.result = result;
+		}
+
+		boolean isValid(List<Person> people) {
+			// A removed person changes the list of people, so the result no longer applies
+			if (people.size() != versions.length) return false;
+			for (int i = 0; i < versions.length; i++)
+				if (people.get(i).getVersion() != versions[i]) return false;
+			return true;
+		}
+	}
+}
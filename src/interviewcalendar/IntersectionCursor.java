@@ -0,0 +1,150 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Intersection cursor steps through the common slots of several people one week at a time.
+ * Every step takes the read locks of all people anew, skips the weeks in which somebody cannot be available,
+ * intersects a single week and releases the locks, so a long window is never copied at once
+ * and writers never wait for more than a week of work. Each week is as it was when the cursor reached it
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class IntersectionCursor {
+	private final List<Person> people;
+	private final long fromSlot;
+	private final long toSlot;
+	// Copies the state of the people with every week, for scoring its slots
+	private final boolean withState;
+	// Common slots of the current week
+	private final AvailabilityBitmap week;
+	private PanelState state;
+	// First slot which the cursor has not stepped through yet
+	private long nextSlot;
+
+	/**
+	 * Create a cursor before the first week of a window
+	 *
+	 * @param people people of the same granularity
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 */
+	IntersectionCursor(List<Person> people, long fromSlot, long toSlot) {
+		this(people, fromSlot, toSlot, false);
+	}
+
+	/**
+	 * Create a cursor before the first week of a window
+	 *
+	 * @param people the candidate followed by the interviewers, of the same granularity
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @param withState true to copy the state of the people with every week, see {@link #getState()}
+	 */
+	IntersectionCursor(List<Person> people, long fromSlot, long toSlot, boolean withState) {
+		this.people = people;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+		this.withState = withState;
+		this.week = new AvailabilityBitmap(people.get(0).getGranularity());
+		this.nextSlot = fromSlot;
+	}
+
+	/**
+	 * Step to the next week which has common slots
+	 *
+	 * @return false if there are no common slots left in the window
+	 */
+	boolean next() {
+		if (nextSlot >= toSlot) return false;
+		List<Person> locked = Person.lockAll(people, false);
+		try {
+			List<AvailabilityBitmap> bitmaps = new ArrayList<>(people.size());
+			while (true) {
+				long slot = firstPossibleSlot(locked);
+				if (slot >= toSlot) {
+					nextSlot = toSlot;
+					return false;
+				}
+				nextSlot = Math.min(toSlot, (week.weekOf(slot) + 1) * week.getSlotsPerWeek());
+				bitmaps.clear();
+				for (Person person : people)
+					bitmaps.add(person.getAvailability(slot, nextSlot, fromSlot, toSlot));
+				if (IntersectionEngine.intersect(bitmaps, slot, nextSlot, week)) {
+					if (withState) state = PanelState.capture(people, slot, nextSlot, fromSlot, toSlot);
+					return true;
+				}
+			}
+		} finally {
+			Person.unlockAll(locked, false);
+		}
+	}
+
+	/**
+	 * Get the common slots of the current week
+	 *
+	 * @return a bitmap which the next step overwrites
+	 */
+	AvailabilityBitmap getSlots() {
+		return week;
+	}
+
+	/**
+	 * Get the state of the people copied under the same locks as the common slots of the current week
+	 *
+	 * @return the state or null unless the cursor was created to copy it
+	 */
+	PanelState getState() {
+		return state;
+	}
+
+	/**
+	 * Iterate over the common slots of the rest of the window, stepping to the next week when a week runs out
+	 *
+	 * @return slots in ascending order
+	 */
+	PrimitiveIterator.OfLong slots() {
+		return new PrimitiveIterator.OfLong() {
+			private PrimitiveIterator.OfLong slots = week.empty().slots();
+
+			@Override
+			public boolean hasNext() {
+				while (!slots.hasNext()) {
+					if (!IntersectionCursor.this.next()) return false;
+					slots = week.slots();
+				}
+				return true;
+			}
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return slots.nextLong();
+			}
+		};
+	}
+
+	/**
+	 * Find the first slot from which everybody may be available, moving past the gaps of every person in turn
+	 * until none of them moves the slot any more. The caller must hold the locks
+	 */
+	private long firstPossibleSlot(List<Person> locked) {
+		long slot = nextSlot;
+		boolean moved = true;
+		while (moved && slot < toSlot) {
+			moved = false;
+			for (Person person : locked) {
+				long next = person.nextAvailableSlot(slot, fromSlot, toSlot);
+				if (next > slot) {
+					slot = next;
+					moved = true;
+				}
+			}
+		}
+		return slot;
+	}
+}
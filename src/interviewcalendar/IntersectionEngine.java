@@ -0,0 +1,161 @@
+package interviewcalendar;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intersection engine computes the timeslots shared by a candidate and any number of interviewers
+ * in one pass over their packed availability words: every week chunk is ANDed across all people
+ * at once instead of intersecting whole calendars person by person
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class IntersectionEngine {
+	static final long UNBOUNDED_FROM = Long.MIN_VALUE;
+	static final long UNBOUNDED_TO = Long.MAX_VALUE;
+
+	private IntersectionEngine() {
+	}
+
+	/**
+	 * Intersect availability bitmaps within a window of timeslots
+	 *
+	 * @param bitmaps bitmaps of the candidate and interviewers
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @param out reusable bitmap receiving the result, its previous content is discarded
+	 * @return true if the intersection is not empty
+	 */
+	static boolean intersect(List<AvailabilityBitmap> bitmaps, long fromSlot, long toSlot, AvailabilityBitmap out) {
+		out.clear();
+		AvailabilityBitmap driver = driver(bitmaps, fromSlot, toSlot);
+		if (driver == null) return false;
+		if (!out.getGranularity().equals(driver.getGranularity()))
+			throw new IllegalArgumentException("Result granularity " + out.getGranularity() + " differs from " + driver.getGranularity());
+
+		long fromWeek = driver.weekOf(fromSlot);
+		long toWeek = driver.weekOf(toSlot - 1);
+		long[] words = new long[driver.getWordsPerWeek()];
+		for (Map.Entry<Long, long[]> entry : driver.getWeeks(fromWeek, toWeek).entrySet()) {
+			if (intersectWeek(entry.getKey(), entry.getValue(), driver, bitmaps, fromSlot, toSlot, words)) {
+				out.putWeek(entry.getKey(), words);
+				words = new long[driver.getWordsPerWeek()];
+			}
+		}
+
+		return !out.isEmpty();
+	}
+
+	/**
+	 * Find the runs of at least the given number of consecutive common timeslots within a window.
+	 * The intersected words are scanned run by run, runs continue across words and weeks,
+	 * and the scan stops as soon as enough runs are found
+	 *
+	 * @param bitmaps bitmaps of the candidate and interviewers
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @param minLength minimum number of timeslots in a run
+	 * @param maxRuns maximum number of runs
+	 * @return the earliest maximal runs
+	 */
+	static IntervalSet findRuns(List<AvailabilityBitmap> bitmaps, long fromSlot, long toSlot, int minLength, int maxRuns) {
+		AvailabilityBitmap driver = driver(bitmaps, fromSlot, toSlot);
+		if (driver == null) return new IntervalSet(bitmaps.isEmpty() ? SlotGranularity.HOURLY : bitmaps.get(0).getGranularity());
+		IntervalSet runs = new IntervalSet(driver.getGranularity());
+
+		long runStart = 0, runEnd = 0;
+		long[] words = new long[driver.getWordsPerWeek()];
+		for (Map.Entry<Long, long[]> entry : driver.getWeeks(driver.weekOf(fromSlot), driver.weekOf(toSlot - 1)).entrySet()) {
+			if (!intersectWeek(entry.getKey(), entry.getValue(), driver, bitmaps, fromSlot, toSlot, words)) continue;
+			for (int i = 0; i < words.length; i++) {
+				long wordStart = entry.getKey() * driver.getSlotsPerWeek() + i * 64;
+				long word = words[i];
+				while (word != 0) {
+					int start = Long.numberOfTrailingZeros(word);
+					int end = Math.min(64, start + Long.numberOfTrailingZeros(~(word >>> start)));
+					word = end == 64 ? 0 : word & (-1L << end);
+					if (wordStart + start == runEnd) {
+						runEnd = wordStart + end;
+						continue;
+					}
+					if (runEnd - runStart >= minLength) {
+						runs.append(runStart, runEnd);
+						if (runs.size() == maxRuns) return runs;
+					}
+					runStart = wordStart + start;
+					runEnd = wordStart + end;
+				}
+			}
+		}
+		if (runEnd - runStart >= minLength) runs.append(runStart, runEnd);
+		return runs;
+	}
+
+	/**
+	 * Pick the bitmap with the fewest weeks to drive the iteration
+	 *
+	 * @return the bitmap or null if some bitmap has nothing within the window
+	 * @throws IllegalArgumentException if the bitmaps are of different granularities
+	 */
+	private static AvailabilityBitmap driver(List<AvailabilityBitmap> bitmaps, long fromSlot, long toSlot) {
+		if (bitmaps.isEmpty() || fromSlot >= toSlot) return null;
+		AvailabilityBitmap driver = bitmaps.get(0);
+		for (AvailabilityBitmap bitmap : bitmaps)
+			if (!bitmap.getGranularity().equals(driver.getGranularity()))
+				throw new IllegalArgumentException("Cannot intersect " + bitmap.getGranularity() + " and " + driver.getGranularity() + " timeslots");
+		long fromWeek = driver.weekOf(fromSlot);
+		long toWeek = driver.weekOf(toSlot - 1);
+
+		for (AvailabilityBitmap bitmap : bitmaps) {
+			if (bitmap.getWeeks(fromWeek, toWeek).isEmpty()) return null;
+			if (bitmap.weekCount() < driver.weekCount()) driver = bitmap;
+		}
+		return driver;
+	}
+
+	/**
+	 * Intersect one week of the driver with the same week of all other bitmaps
+	 *
+	 * @param words receives the intersection
+	 * @return true if the week has common timeslots
+	 */
+	private static boolean intersectWeek(long week, long[] driverWords, AvailabilityBitmap driver, List<AvailabilityBitmap> bitmaps,
+			long fromSlot, long toSlot, long[] words) {
+		System.arraycopy(driverWords, 0, words, 0, words.length);
+		if (week == driver.weekOf(fromSlot) || week == driver.weekOf(toSlot - 1))
+			maskWindow(words, week * driver.getSlotsPerWeek(), driver.getSlotsPerWeek(), fromSlot, toSlot);
+
+		for (AvailabilityBitmap bitmap : bitmaps) {
+			if (bitmap == driver) continue;
+			if (!and(words, bitmap.getWeek(week))) return false;
+		}
+		return !AvailabilityBitmap.isEmpty(words);
+	}
+
+	/**
+	 * AND the running words with a week chunk
+	 *
+	 * @param words running intersection
+	 * @param other chunk of another person, null if the week is empty
+	 * @return false as soon as the running intersection becomes empty
+	 */
+	private static boolean and(long[] words, long[] other) {
+		long any = 0;
+		for (int i = 0; i < words.length; i++) {
+			words[i] = other == null ? 0 : words[i] & other[i];
+			any |= words[i];
+		}
+		return any != 0;
+	}
+
+	/**
+	 * Clear the bits of a week chunk which fall outside of the window
+	 */
+	static void maskWindow(long[] words, long weekStart, int slotsPerWeek, long fromSlot, long toSlot) {
+		int fromBit = (int) Math.max(0, Math.min(slotsPerWeek, fromSlot - weekStart));
+		int toBit = (int) Math.max(0, Math.min(slotsPerWeek, toSlot - weekStart));
+		for (int i = 0; i < words.length; i++)
+			words[i] &= AvailabilityBitmap.rangeMask(fromBit - i * 64, toBit - i * 64);
+	}
+}
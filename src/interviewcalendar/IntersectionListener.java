@@ -0,0 +1,19 @@
+package interviewcalendar;
+
+/**
+ * Intersection listener receives the changes of a subscribed intersection
+ *
+ * @author Lina Gafurova
+ *
+ */
+@FunctionalInterface
+public interface IntersectionListener {
+	/**
+	 * Timeslots were added to or removed from the intersection.
+	 * Changes of one subscription are delivered one at a time, in order
+	 *
+	 * @param added timeslots which became available for everybody
+	 * @param removed timeslots which stopped being available for somebody
+	 */
+	void intersectionChanged(IntervalSet added, IntervalSet removed);
+}
@@ -0,0 +1,187 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Intersection subscription keeps the intersection of a candidate and interviewers within a window up to date.
+ * A change of a participant's availability only marks the changed range as dirty; the dirty ranges
+ * are intersected again on an executor once the person's lock is released, and compared with the previous result,
+ * so the listener receives just the timeslots which were added or removed
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class IntersectionSubscription {
+	private final Person candidate;
+	private final List<Person> interviewers;
+	private final long fromSlot;
+	private final long toSlot;
+	private final IntersectionListener listener;
+	private final Executor executor;
+
+	// Guards the dirty ranges and the state of the drain task
+	private final Object dirtyLock = new Object();
+	private IntervalSet dirty = new IntervalSet();
+	private boolean scheduled;
+	private boolean cancelled;
+
+	// Current intersection, guarded by this
+	private final AvailabilityBitmap current;
+
+	private final AvailabilityListener participantListener = new AvailabilityListener() {
+		@Override
+		public void availabilityChanged(Person person, long from, long to, boolean available) {
+			markDirty(from, to);
+		}
+
+		@Override
+		public void rulesChanged(Person person, RecurrenceRule rule, boolean added) {
+			markDirty(fromSlot, toSlot);
+		}
+
+		@Override
+		public void bookingsChanged(Person person, long from, long to) {
+			markDirty(from, to);
+		}
+
+		@Override
+		public void changesCompleted(Person person) {
+			scheduleDrain();
+		}
+	};
+
+	IntersectionSubscription(Person candidate, List<Person> interviewers, long fromSlot, long toSlot,
+			IntersectionListener listener, Executor executor) {
+		this.candidate = candidate;
+		this.interviewers = new ArrayList<>(interviewers);
+		this.current = new AvailabilityBitmap(candidate.getGranularity());
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+		this.listener = listener;
+		this.executor = executor;
+	}
+
+	/**
+	 * Start listening to the participants and compute the initial intersection.
+	 * The intersection is computed and published under the monitor, so a drain started by a change made meanwhile
+	 * compares its ranges with the initial intersection rather than with an empty one
+	 */
+	synchronized void start() {
+		// Changes made from now on are caught as dirty ranges, even if they are already part of the initial result
+		candidate.addListener(participantListener);
+		for (Person interviewer : interviewers) interviewer.addListener(participantListener);
+		candidate.getTimeslotsIntersection(interviewers, fromSlot, toSlot, current);
+	}
+
+	/**
+	 * Get the current intersection
+	 *
+	 * @return a read-only snapshot of the timeslots sorted by time
+	 */
+	public synchronized Set<Timeslot> getTimeslots() {
+		return current.copy().asTimeslotSet();
+	}
+
+	public synchronized IntervalSet getIntervals() {
+		return current.toIntervals();
+	}
+
+	/**
+	 * Stop receiving changes, a change being delivered may still complete
+	 */
+	public void cancel() {
+		synchronized (dirtyLock) {
+			cancelled = true;
+		}
+		candidate.removeListener(participantListener);
+		for (Person interviewer : interviewers) interviewer.removeListener(participantListener);
+	}
+
+	/**
+	 * Remember a changed range to be intersected again.
+	 * Called while the changed person's lock is held, so nothing is computed or scheduled here
+	 *
+	 * @param from
+	 * @param to
+	 */
+	private void markDirty(long from, long to) {
+		from = Math.max(from, fromSlot);
+		to = Math.min(to, toSlot);
+		if (from >= to) return;
+		synchronized (dirtyLock) {
+			if (!cancelled) dirty.add(from, to);
+		}
+	}
+
+	/**
+	 * Make sure the dirty ranges are intersected again. Called after the changed person's lock
+	 * is released, so even a direct executor can lock the participants
+	 */
+	private void scheduleDrain() {
+		synchronized (dirtyLock) {
+			if (cancelled || scheduled || dirty.isEmpty()) return;
+			scheduled = true;
+		}
+		executor.execute(this::drain);
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				IntervalSet ranges;
+				synchronized (dirtyLock) {
+					if (dirty.isEmpty() || cancelled) {
+						scheduled = false;
+						return;
+					}
+					ranges = dirty;
+					dirty = new IntervalSet();
+				}
+				update(ranges);
+			}
+		} catch (RuntimeException | Error e) {
+			synchronized (dirtyLock) {
+				scheduled = false;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Intersect the dirty ranges again and deliver the difference with the previous result.
+	 * Each range is intersected and compared under the monitor, like the initial intersection,
+	 * so a result is never compared with an older or newer one than it replaces
+	 *
+	 * @param ranges
+	 */
+	private void update(IntervalSet ranges) {
+		AvailabilityBitmap added = current.empty();
+		AvailabilityBitmap removed = current.empty();
+		for (int i = 0; i < ranges.size(); i++) {
+			long from = ranges.getStartSlot(i);
+			long to = ranges.getEndSlot(i);
+			AvailabilityBitmap fresh = current.empty();
+
+			synchronized (this) {
+				candidate.getTimeslotsIntersection(interviewers, from, to, fresh);
+				AvailabilityBitmap range = current.empty();
+				range.setRange(from, to);
+				AvailabilityBitmap previous = current.copy(from, to);
+				previous.and(range);
+
+				AvailabilityBitmap newSlots = fresh.copy();
+				newSlots.andNot(previous);
+				AvailabilityBitmap oldSlots = previous;
+				oldSlots.andNot(fresh);
+				current.clearRange(from, to);
+				current.or(fresh);
+				added.or(newSlots);
+				removed.or(oldSlots);
+			}
+		}
+		if (!added.isEmpty() || !removed.isEmpty()) listener.intersectionChanged(added.toIntervals(), removed.toIntervals());
+	}
+}
@@ -0,0 +1,331 @@
+package interviewcalendar;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Interval set is a sorted list of disjoint [start, end) ranges of timeslots.
+ * Adjacent and overlapping ranges are merged, so a whole working day is a single interval
+ * regardless of how many hours it spans. Like the slots, the days and timeslots of an interval set are UTC
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class IntervalSet {
+	private final SlotGranularity granularity;
+	// Start and end of the i-th interval are stored at 2*i and 2*i+1
+	private long[] bounds;
+	private int size;
+
+	public IntervalSet() {
+		this(SlotGranularity.HOURLY);
+	}
+
+	/**
+	 * Create an interval set of slots of the given granularity
+	 *
+	 * @param granularity
+	 */
+	public IntervalSet(SlotGranularity granularity) {
+		this.granularity = granularity;
+		bounds = new long[8];
+	}
+
+	/**
+	 * Create an interval set from timeslots in any order, sorting them first
+	 * so that runs of consecutive timeslots are appended as single intervals
+	 *
+	 * @param timeslots local times of the zone
+	 * @param granularity
+	 * @param zone
+	 * @return
+	 */
+	static IntervalSet of(Collection<Timeslot> timeslots, SlotGranularity granularity, ZoneId zone) {
+		boolean utc = zone.equals(ZoneOffset.UTC);
+		long[] slots = new long[timeslots.size()];
+		int size = 0;
+		for (Timeslot timeslot : timeslots) {
+			if (utc) {
+				if (size == slots.length) slots = Arrays.copyOf(slots, 2 * size + 1);
+				slots[size++] = granularity.slotOf(timeslot);
+				continue;
+			}
+			for (long slot : granularity.slotsOf(timeslot, zone)) {
+				if (size == slots.length) slots = Arrays.copyOf(slots, 2 * size + 1);
+				slots[size++] = slot;
+			}
+		}
+		Arrays.sort(slots, 0, size);
+		IntervalSet intervals = new IntervalSet(granularity);
+		for (int i = 0; i < size; i++) intervals.append(slots[i], slots[i] + 1);
+		return intervals;
+	}
+
+	/**
+	 * Add a range of timeslots on a single day
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param startHour starting hour of the first timeslot in 24-hour format
+	 * @param endHour ending hour of the last timeslot in 24-hour format
+	 */
+	public void add(int year, int month, int day, int startHour, int endHour) {
+		long daySlot = granularity.slotOf(year, month, day, 0, 0);
+		add(daySlot + startHour * granularity.getSlotsPerHour(), daySlot + endHour * granularity.getSlotsPerHour());
+	}
+
+	/**
+	 * Remove a range of timeslots on a single day
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param startHour starting hour of the first timeslot in 24-hour format
+	 * @param endHour ending hour of the last timeslot in 24-hour format
+	 */
+	public void remove(int year, int month, int day, int startHour, int endHour) {
+		long daySlot = granularity.slotOf(year, month, day, 0, 0);
+		remove(daySlot + startHour * granularity.getSlotsPerHour(), daySlot + endHour * granularity.getSlotsPerHour());
+	}
+
+	public boolean contains(Timeslot timeslot) {
+		if (timeslot.getStartMinute() % granularity.getMinutesPerSlot() != 0) return false;
+		return contains(granularity.slotOf(timeslot));
+	}
+
+	public SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	/**
+	 * Get the number of intervals
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the total number of timeslots covered by the intervals
+	 *
+	 * @return
+	 */
+	public long getTimeslotCount() {
+		long count = 0;
+		for (int i = 0; i < size; i++) count += bounds[2 * i + 1] - bounds[2 * i];
+		return count;
+	}
+
+	/**
+	 * Get the first timeslot of an interval
+	 *
+	 * @param index
+	 * @return
+	 */
+	public Timeslot getStart(int index) {
+		return granularity.toTimeslot(getStartSlot(index));
+	}
+
+	/**
+	 * Get the first timeslot after the end of an interval
+	 *
+	 * @param index
+	 * @return
+	 */
+	public Timeslot getEnd(int index) {
+		return granularity.toTimeslot(getEndSlot(index));
+	}
+
+	/**
+	 * Get the timeslots present in both sets, computed as a linear merge of the two interval lists
+	 *
+	 * @param other interval set of the same granularity
+	 * @return a new interval set
+	 */
+	public IntervalSet intersect(IntervalSet other) {
+		if (!granularity.equals(other.granularity))
+			throw new IllegalArgumentException("Cannot intersect " + granularity + " and " + other.granularity + " timeslots");
+		IntervalSet result = new IntervalSet(granularity);
+		int i = 0, j = 0;
+		while (i < size && j < other.size) {
+			long start = Math.max(getStartSlot(i), other.getStartSlot(j));
+			long end = Math.min(getEndSlot(i), other.getEndSlot(j));
+			if (start < end) result.append(start, end);
+
+			if (getEndSlot(i) < other.getEndSlot(j)) i++;
+			else j++;
+		}
+		return result;
+	}
+
+	/**
+	 * Get the first slot of an interval
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long getStartSlot(int index) {
+		return bounds[2 * index];
+	}
+
+	/**
+	 * Get the first slot after the end of an interval
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long getEndSlot(int index) {
+		return bounds[2 * index + 1];
+	}
+
+	public boolean contains(long slot) {
+		int index = lastStartAtMost(slot);
+		return index >= 0 && slot < getEndSlot(index);
+	}
+
+	/**
+	 * Add the range [start, end) of slots
+	 *
+	 * @param start
+	 * @param end
+	 */
+	public void add(long start, long end) {
+		if (start >= end) return;
+		if (size == 0 || start > getEndSlot(size - 1)) {
+			append(start, end);
+			return;
+		}
+
+		// Intervals touching the range are replaced by their union with it
+		int first = firstEndAtLeast(start);
+		int last = lastStartAtMost(end);
+		if (first > last) {
+			replace(first, first, start, end);
+		} else {
+			replace(first, last + 1, Math.min(start, getStartSlot(first)), Math.max(end, getEndSlot(last)));
+		}
+	}
+
+	/**
+	 * Remove the range [start, end) of slots
+	 *
+	 * @param start
+	 * @param end
+	 */
+	public void remove(long start, long end) {
+		if (start >= end || size == 0) return;
+		int first = firstEndAtLeast(start + 1);
+		int last = lastStartAtMost(end - 1);
+		if (first > last) return;
+
+		long leftStart = getStartSlot(first);
+		long rightEnd = getEndSlot(last);
+		if (leftStart < start && rightEnd > end) {
+			// The range is strictly inside one interval, which splits in two
+			replace(first, last + 1, leftStart, start);
+			replace(first + 1, first + 1, end, rightEnd);
+		} else if (leftStart < start) {
+			replace(first, last + 1, leftStart, start);
+		} else if (rightEnd > end) {
+			replace(first, last + 1, end, rightEnd);
+		} else {
+			removeIntervals(first, last + 1);
+		}
+	}
+
+	/**
+	 * Append an interval after all existing ones, merging it with the last one if they touch
+	 *
+	 * @param start
+	 * @param end
+	 */
+	void append(long start, long end) {
+		if (size > 0 && start <= getEndSlot(size - 1)) {
+			bounds[2 * size - 1] = Math.max(end, getEndSlot(size - 1));
+			return;
+		}
+		ensureCapacity(size + 1);
+		bounds[2 * size] = start;
+		bounds[2 * size + 1] = end;
+		size++;
+	}
+
+	// Index of the first interval whose end is >= slot, or size if none
+	private int firstEndAtLeast(long slot) {
+		int low = 0, high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getEndSlot(middle) >= slot) high = middle;
+			else low = middle + 1;
+		}
+		return low;
+	}
+
+	// Index of the last interval whose start is <= slot, or -1 if none
+	private int lastStartAtMost(long slot) {
+		int low = 0, high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getStartSlot(middle) <= slot) low = middle + 1;
+			else high = middle;
+		}
+		return low - 1;
+	}
+
+	// Replace intervals [from, to) with a single interval
+	private void replace(int from, int to, long start, long end) {
+		int shift = 1 - (to - from);
+		ensureCapacity(size + shift);
+		System.arraycopy(bounds, 2 * to, bounds, 2 * (to + shift), 2 * (size - to));
+		bounds[2 * from] = start;
+		bounds[2 * from + 1] = end;
+		size += shift;
+	}
+
+	private void removeIntervals(int from, int to) {
+		System.arraycopy(bounds, 2 * to, bounds, 2 * from, 2 * (size - to));
+		size -= to - from;
+	}
+
+	private void ensureCapacity(int intervals) {
+		if (2 * intervals > bounds.length) bounds = Arrays.copyOf(bounds, Math.max(2 * intervals, 2 * bounds.length));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof IntervalSet)) return false;
+		IntervalSet other = (IntervalSet) o;
+		return granularity.equals(other.granularity) && size == other.size && Arrays.equals(bounds, 0, 2 * size, other.bounds, 0, 2 * size);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < 2 * size; i++) hash = 31 * hash + Long.hashCode(bounds[i]);
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) builder.append(", ");
+			builder.append(format(getStart(i))).append('-').append(format(getEnd(i)));
+		}
+		return builder.append(']').toString();
+	}
+
+	private static String format(Timeslot timeslot) {
+		if (timeslot.getStartMinute() == 0) return String.valueOf(timeslot.getID());
+		return timeslot.getID() + (timeslot.getStartMinute() < 10 ? ":0" : ":") + timeslot.getStartMinute();
+	}
+}
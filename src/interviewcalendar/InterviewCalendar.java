@@ -1,31 +1,208 @@
 package interviewcalendar;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * Interview Calendar is the main class for adding interviewers and candidates,
- * and operating on their available timeslots
+ * and operating on their available timeslots.
+ * The calendar is thread-safe: intersections take read locks of the people involved,
+ * so they run in parallel with updates of other people's calendars.
+ * The days and timeslots of a single person's calendar are local times of the person's zone,
+ * those of the queries over several people, their results included, are UTC unless a zone is given
  * 
  * @author Lina Gafurova
  *
  */
-public class InterviewCalendar {	
-	private int nextUniqueID = 0;
+public class InterviewCalendar implements CalendarPartition {	
+	/**
+	 * Number of intersection results kept by a calendar created with the default constructor
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private final AtomicInteger nextUniqueID;
+	// Difference between consecutive generated ids, more than 1 for a partition of a partitioned calendar
+	private final int idStride;
+	// Length of the timeslots of everybody in the calendar
+	private final SlotGranularity granularity;
 	
-	// Storing interviewers and candidates in separate collections
-	private HashMap<Integer, Person> interviewers = new HashMap<>();
-	private HashMap<Integer, Person> candidates = new HashMap<>();
+	// Storing interviewers and candidates in separate collections,
+	// which may be read and updated from several threads at once
+	private final ConcurrentMap<Integer, Person> interviewers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, Person> candidates = new ConcurrentHashMap<>();
+	// Interviewers available at each timeslot
+	private final AvailabilityIndex interviewersIndex;
+	// Durable log of the mutations, or null if the calendar is only kept in memory
+	private volatile CalendarJournal journal;
+	// Recent intersection results, checked against the versions of the people involved
+	private final IntersectionCache intersectionCache;
+	// Receives the latencies of the operations, set by the application
+	private volatile CalendarMetrics metrics = CalendarMetrics.NONE;
+	// How much history the people keep
+	private volatile RetentionPolicy retention = RetentionPolicy.KEEP_ALL;
+	// Tells the people today's date, from which open-ended recurring availability is expanded
+	private volatile Clock clock = Clock.systemUTC();
+	// Timeslots claimed for interviews, held until confirmed or expired
+	private final ReservationBook reservations = new ReservationBook(Clock.systemUTC());
+
+	public InterviewCalendar() {
+		this(SlotGranularity.HOURLY, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a calendar which caches the given number of most recently used intersection results
+	 *
+	 * @param cacheSize maximum number of cached results, 0 disables caching
+	 */
+	public InterviewCalendar(int cacheSize) {
+		this(SlotGranularity.HOURLY, cacheSize);
+	}
+
+	/**
+	 * Create a calendar of timeslots of the given length, e.g. {@code SlotGranularity.ofMinutes(15)}
+	 *
+	 * @param granularity
+	 */
+	public InterviewCalendar(SlotGranularity granularity) {
+		this(granularity, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a calendar of timeslots of the given length which caches the given number of intersection results
+	 *
+	 * @param granularity
+	 * @param cacheSize maximum number of cached results, 0 disables caching
+	 */
+	public InterviewCalendar(SlotGranularity granularity, int cacheSize) {
+		this(granularity, cacheSize, 0, 1);
+	}
+
+	/**
+	 * Create a calendar which generates the ids firstID, firstID + idStride, firstID + 2 * idStride...
+	 *
+	 * @param granularity
+	 * @param cacheSize
+	 * @param firstID
+	 * @param idStride
+	 */
+	InterviewCalendar(SlotGranularity granularity, int cacheSize, int firstID, int idStride) {
+		this.granularity = granularity;
+		this.nextUniqueID = new AtomicInteger(firstID);
+		this.idStride = idStride;
+		interviewersIndex = new AvailabilityIndex(granularity);
+		intersectionCache = new IntersectionCache(cacheSize);
+	}
+
+	/**
+	 * Get the length of the timeslots, which is also the unit of the slots of the calendar
+	 *
+	 * @return
+	 */
+	@Override
+	public SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	/**
+	 * Send the measurements of the calendar's operations to the given metrics, e.g. a {@link MetricsRecorder}.
+	 * Meant to be set up before the calendar is used, people added concurrently may keep the previous metrics
+	 *
+	 * @param metrics
+	 */
+	public void setMetrics(CalendarMetrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+		for (Person person : interviewers.values()) person.setMetrics(metrics);
+		for (Person person : candidates.values()) person.setMetrics(metrics);
+	}
+
+	public CalendarMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Drop the availability older than the given horizon, slots being read as UTC times.
+	 * History is dropped a whole week at a time by every change of a person's availability,
+	 * and by {@link #pruneHistory()} for people whose availability does not change.
+	 * Meant to be set up before the calendar is used, like {@link #setMetrics(CalendarMetrics)}
+	 *
+	 * @param horizon age of the oldest timeslots to keep, null keeps the whole history
+	 */
+	public void setRetention(Duration horizon) {
+		setRetention(horizon, Clock.systemUTC());
+	}
+
+	/**
+	 * Drop the availability older than the given horizon, see {@link #setRetention(Duration)}
+	 *
+	 * @param horizon age of the oldest timeslots to keep, null keeps the whole history
+	 * @param clock clock telling the current time
+	 */
+	public void setRetention(Duration horizon, Clock clock) {
+		retention = new RetentionPolicy(horizon, Objects.requireNonNull(clock));
+		for (Person person : interviewers.values()) person.setRetention(retention);
+		for (Person person : candidates.values()) person.setRetention(retention);
+	}
+
+	/**
+	 * Get the retention horizon
+	 *
+	 * @return the horizon or null if the whole history is kept
+	 */
+	public Duration getRetention() {
+		return retention.getHorizon();
+	}
+
+	/**
+	 * Tell today's date with the given clock, open-ended recurring availability is expanded from it
+	 * when a query has no upper bound. Meant to be set up before the calendar is used, like {@link #setMetrics(CalendarMetrics)}
+	 *
+	 * @param clock
+	 */
+	public void setClock(Clock clock) {
+		this.clock = Objects.requireNonNull(clock);
+		for (Person person : interviewers.values()) person.setClock(clock);
+		for (Person person : candidates.values()) person.setClock(clock);
+	}
+
+	/**
+	 * Drop the expired history of every person, one person at a time.
+	 * Meant to be run periodically, e.g. by a scheduled executor, when some people's availability rarely changes
+	 */
+	public void pruneHistory() {
+		for (Person person : interviewers.values()) person.pruneHistory();
+		for (Person person : candidates.values()) person.pruneHistory();
+	}
 
 	/**
 	 * Add new person
 	 *
 	 * @param people collection where the person should be added
 	 * @param name name of the person to be added
+	 * @param zone zone of the local times given to the person
 	 * @return generated person's unique id
 	 */
-	private int addPerson(HashMap<Integer, Person> people, String name) {
-		Person person = new Person(nextUniqueID, name);
-		people.put(nextUniqueID, person);
-		nextUniqueID++;		
+	private int addPerson(Map<Integer, Person> people, String name, ZoneId zone) {
+		Person person = new Person(nextUniqueID.getAndAdd(idStride), name, granularity, zone);
+		person.setMetrics(metrics);
+		person.setRetention(retention);
+		person.setClock(clock);
+		people.put(person.getId(), person);
+		CalendarJournal currentJournal = journal;
+		if (currentJournal != null) currentJournal.personAdded(person, people == interviewers);
 		return person.getId();
 	}
 
@@ -35,8 +212,10 @@ public class InterviewCalendar {
 	 * @param people collection where the person belongs
 	 * @param id unique id of the person
 	 */
-	private void removePerson(HashMap<Integer, Person> people, int id) {
-		if (people.containsKey(id)) people.remove(id);
+	private void removePerson(Map<Integer, Person> people, int id) {
+		Person person = people.remove(id);
+		CalendarJournal currentJournal = journal;
+		if (person != null && currentJournal != null) currentJournal.personRemoved(person);
 	}
 
 	/**
@@ -46,7 +225,7 @@ public class InterviewCalendar {
 	 * @param id
 	 * @return
 	 */
-	private Person getPerson(HashMap<Integer, Person> people, int id) {
+	private Person getPerson(Map<Integer, Person> people, int id) {
 		return people.get(id);
 	}
 
@@ -57,9 +236,8 @@ public class InterviewCalendar {
 	 * @return
 	 */
 	public Person getPerson(int id) {
-		if (isInterviewer(id)) return interviewers.get(id);
-		else if (isCandidate(id)) return candidates.get(id);
-		else return null;
+		Person person = interviewers.get(id);
+		return person != null ? person : candidates.get(id);
 	}
 
 	/**
@@ -91,8 +269,22 @@ public class InterviewCalendar {
 	 * @param name
 	 * @return unique id of the person
 	 */
+	@Override
 	public int addInterviewer(String name) {
-		return addPerson(interviewers, name);
+		return addInterviewer(name, ZoneOffset.UTC);
+	}
+
+	/**
+	 * Add new interviewer working in a zone, the days and hours of his availability are local times of that zone
+	 *
+	 * @param name
+	 * @param zone
+	 * @return unique id of the person
+	 */
+	public int addInterviewer(String name, ZoneId zone) {
+		int id = addPerson(interviewers, name, zone);
+		interviewersIndex.add(getInterviewer(id));
+		return id;
 	}
 
 	/**
@@ -100,8 +292,12 @@ public class InterviewCalendar {
 	 * 
 	 * @param id
 	 */
+	@Override
 	public void removeInterviewer(int id) {
+		Person interviewer = getInterviewer(id);
+		if (interviewer == null) return;
 		removePerson(interviewers, id);
+		interviewersIndex.remove(interviewer);
 	}
 
 	/**
@@ -114,12 +310,64 @@ public class InterviewCalendar {
 		return getPerson(interviewers, id);
 	}
 
+	/**
+	 * Get the ids of the interviewers available at a UTC timeslot
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param timeslotStartHour starting hour of the timeslot in 24-hour format
+	 * @return a set of interviewers' IDs
+	 */
+	public Set<Integer> getAvailableInterviewers(int year, int month, int day, int timeslotStartHour) {
+		return getAvailableInterviewers(new Timeslot(year, month, day, timeslotStartHour));
+	}
+
+	/**
+	 * Get the ids of the interviewers available at a UTC timeslot
+	 *
+	 * @param timeslot
+	 * @return a set of interviewers' IDs
+	 */
+	public Set<Integer> getAvailableInterviewers(Timeslot timeslot) {
+		return getAvailableInterviewers(granularity.slotOf(timeslot));
+	}
+
+	/**
+	 * Get the ids of the interviewers available at the timeslot starting at a local time of a zone
+	 *
+	 * @param start start of the timeslot, aligned to the calendar's granularity
+	 * @param zone e.g. the candidate's zone
+	 * @return a set of interviewers' IDs
+	 */
+	public Set<Integer> getAvailableInterviewers(LocalDateTime start, ZoneId zone) {
+		return getAvailableInterviewers(granularity.slotOf(start.atZone(zone)));
+	}
+
+	private Set<Integer> getAvailableInterviewers(long slot) {
+		Set<Integer> ids = new TreeSet<>();
+		interviewersIndex.getAvailable(slot).stream().forEach(ids::add);
+		return ids;
+	}
+
+	/**
+	 * Get the timeslots between two dates at which at least the given number of interviewers are available
+	 *
+	 * @param minInterviewers
+	 * @param fromDate first UTC day of the window
+	 * @param toDate last UTC day of the window, inclusive
+	 * @return a set of UTC timeslots
+	 */
+	public Set<Timeslot> getTimeslotsWithAvailableInterviewers(int minInterviewers, LocalDate fromDate, LocalDate toDate) {
+		return interviewersIndex.getTimeslotsWithAvailable(minInterviewers, granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1))).asTimeslotSet();
+	}
+
 	/**
 	 * Get the collection of interviewers
 	 *
 	 * @return
 	 */
-	public HashMap<Integer, Person> getInterviewers() {
+	public Map<Integer, Person> getInterviewers() {
 		return interviewers;
 	}
 
@@ -128,7 +376,7 @@ public class InterviewCalendar {
 	 * 
 	 * @return
 	 */
-	public HashMap<Integer, Person> getCandidates() {
+	public Map<Integer, Person> getCandidates() {
 		return candidates;
 	}
 	
@@ -138,8 +386,20 @@ public class InterviewCalendar {
 	 * @param name
 	 * @return unique id of the person
 	 */
+	@Override
 	public int addCandidate(String name) {
-		return addPerson(candidates, name);
+		return addPerson(candidates, name, ZoneOffset.UTC);
+	}
+
+	/**
+	 * Add new candidate living in a zone, the days and hours of his availability are local times of that zone
+	 *
+	 * @param name
+	 * @param zone
+	 * @return unique id of the person
+	 */
+	public int addCandidate(String name, ZoneId zone) {
+		return addPerson(candidates, name, zone);
 	}
 	
 	/**
@@ -147,6 +407,7 @@ public class InterviewCalendar {
 	 * 
 	 * @param id
 	 */
+	@Override
 	public void removeCandidate(int id) {
 		removePerson(candidates, id);
 	}
@@ -215,12 +476,163 @@ public class InterviewCalendar {
 	    getPerson(personID).removeUnavailableTimeslots(year, month, day, timeslotStartHour, timeslotEndHour);
 	}
 	
+	/**
+	 * Add a range of available slots to a person's calendar
+	 *
+	 * @param personID
+	 * @param fromSlot first available slot, in the calendar's granularity, see {@link SlotGranularity}
+	 * @param toSlot first slot after the range
+	 */
+	@Override
+	public void addAvailableSlots(int personID, long fromSlot, long toSlot) {
+		getPerson(personID).addAvailableSlots(fromSlot, toSlot);
+	}
+
+	/**
+	 * Remove a range of unavailable slots from a person's calendar
+	 *
+	 * @param personID
+	 * @param fromSlot first unavailable slot, in the calendar's granularity, see {@link SlotGranularity}
+	 * @param toSlot first slot after the range
+	 */
+	@Override
+	public void removeUnavailableSlots(int personID, long fromSlot, long toSlot) {
+		getPerson(personID).removeUnavailableSlots(fromSlot, toSlot);
+	}
+
+	/**
+	 * Add the timeslots between two times to a person's calendar, for ranges which do not start or end on the hour
+	 *
+	 * @param personID
+	 * @param from start of the first available timeslot, aligned to the calendar's granularity
+	 * @param to end of the last available timeslot, aligned to the calendar's granularity
+	 */
+	public void addAvailableRange(int personID, LocalDateTime from, LocalDateTime to) {
+		getPerson(personID).addAvailableRange(from, to);
+	}
+
+	/**
+	 * Remove the timeslots between two times from a person's calendar, for ranges which do not start or end on the hour
+	 *
+	 * @param personID
+	 * @param from start of the first unavailable timeslot, aligned to the calendar's granularity
+	 * @param to end of the last unavailable timeslot, aligned to the calendar's granularity
+	 */
+	public void removeUnavailableRange(int personID, LocalDateTime from, LocalDateTime to) {
+		getPerson(personID).removeUnavailableRange(from, to);
+	}
+
+	/**
+	 * Apply many changes of availability at once. The changes of each person are sorted and merged
+	 * into disjoint ranges, a later change of a timeslot winning over an earlier one,
+	 * and applied under a single write lock of the person
+	 *
+	 * @param batch
+	 * @throws IllegalArgumentException if the batch changes an unknown person or is of another granularity,
+	 * nothing is changed then
+	 */
+	public void applyBatch(AvailabilityBatch batch) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		if (!batch.getGranularity().equals(granularity))
+			throw new IllegalArgumentException("Batch of " + batch.getGranularity() + " timeslots for a calendar of " + granularity + " timeslots");
+		List<int[]> groups = batch.groupByPerson();
+		List<Person> people = new ArrayList<>(groups.size());
+		for (int[] changes : groups) {
+			int id = batch.getPersonID(changes[0]);
+			Person person = getPerson(id);
+			if (person == null) throw new IllegalArgumentException("Unknown person " + id);
+			people.add(person);
+		}
+
+		for (int i = 0; i < groups.size(); i++) {
+			IntervalSet added = new IntervalSet(granularity);
+			IntervalSet removed = new IntervalSet(granularity);
+			batch.coalesce(groups.get(i), added, removed);
+			people.get(i).applyChanges(added, removed);
+		}
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.BATCH, start);
+	}
+
+	/**
+	 * Add recurring availability to a person's calendar
+	 *
+	 * @param personID
+	 * @param rule
+	 */
+	public void addRecurringAvailability(int personID, RecurrenceRule rule) {
+		getPerson(personID).addRecurringAvailability(rule);
+	}
+
+	/**
+	 * Remove recurring availability from a person's calendar
+	 *
+	 * @param personID
+	 * @param rule
+	 */
+	public void removeRecurringAvailability(int personID, RecurrenceRule rule) {
+		getPerson(personID).removeRecurringAvailability(rule);
+	}
+
+	/**
+	 * Add ranges of available timeslots to a person's calendar
+	 *
+	 * @param personID
+	 * @param intervals
+	 */
+	public void addAvailableIntervals(int personID, IntervalSet intervals) {
+		getPerson(personID).addAvailableIntervals(intervals);
+	}
+
+	/**
+	 * Remove ranges of unavailable timeslots from a person's calendar
+	 *
+	 * @param personID
+	 * @param intervals
+	 */
+	public void removeUnavailableIntervals(int personID, IntervalSet intervals) {
+		getPerson(personID).removeUnavailableIntervals(intervals);
+	}
+
+	/**
+	 * Get all ranges of timeslots which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @return an interval set
+	 */
+	public IntervalSet getIntervalsIntersection(int candidateID, Collection<Integer> interviewersIDs) {
+		return getPerson(candidateID).getIntervalsIntersection(getPeople(interviewersIDs));
+	}
+
+	/**
+	 * Get the slots within a window which are available for all of the given people
+	 *
+	 * @param personIDs ids of candidates and interviewers
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return the common intervals
+	 * @throws IllegalArgumentException if there are no people or a person is unknown
+	 */
+	@Override
+	public IntervalSet getCommonAvailability(Collection<Integer> personIDs, long fromSlot, long toSlot) {
+		if (personIDs.isEmpty()) throw new IllegalArgumentException("No people");
+		List<Person> people = new ArrayList<>(personIDs.size());
+		for (int id : new LinkedHashSet<>(personIDs)) {
+			Person person = getPerson(id);
+			// An unknown person has no availability to intersect, rather than being available everywhere
+			if (person == null) throw new IllegalArgumentException("Unknown person " + id);
+			people.add(person);
+		}
+		return people.get(0).findBlocks(people.subList(1, people.size()), fromSlot, toSlot, 1, Integer.MAX_VALUE);
+	}
+
 	/**
 	 * Get all timeslots which are available for both the candidate and the interviewer
 	 * 
 	 * @param candidateID
 	 * @param interviewerID
-	 * @return a set of timeslots
+	 * @return a set of UTC timeslots
 	 */
 	public Set<Timeslot> getTimeslotsIntersection(int candidateID, int interviewerID) {
 		return getTimeslotsIntersection(candidateID, Collections.singleton(interviewerID));
@@ -231,16 +643,566 @@ public class InterviewCalendar {
 	 * 
 	 * @param candidateID
 	 * @param interviewersIDs a collection of interviewers' IDs
-	 * @return a set of timeslots
+	 * @return a set of UTC timeslots
 	 */
 	public Set<Timeslot> getTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs) {
-		List<Person> people = new LinkedList<>();
-		for(Integer interviewerID : interviewersIDs) {
-			Person person = getPerson(interviewerID);
+		return intersect(candidateID, interviewersIDs, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).asTimeslotSet();
+	}
+
+	/**
+	 * Get all timeslots between two dates which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromDate first UTC day of the window
+	 * @param toDate last UTC day of the window, inclusive
+	 * @return a set of UTC timeslots
+	 */
+	public Set<Timeslot> getTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs, LocalDate fromDate, LocalDate toDate) {
+		return intersect(candidateID, interviewersIDs, granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1))).asTimeslotSet();
+	}
+
+	/**
+	 * Get all timeslots between two dates of a zone which are available for the candidate and for all of the interviewers.
+	 * The intersection runs on UTC slots whatever the zones of the people, only the window and the result are converted
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromDate first day of the window in the zone
+	 * @param toDate last day of the window in the zone, inclusive
+	 * @param zone zone of the window and of the result, e.g. the candidate's zone
+	 * @return starts of the timeslots in the zone, sorted by time
+	 */
+	public List<ZonedDateTime> getTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs,
+			LocalDate fromDate, LocalDate toDate, ZoneId zone) {
+		long fromSlot = granularity.ceilSlot(fromDate.atStartOfDay(zone).toInstant());
+		long toSlot = granularity.floorSlot(toDate.plusDays(1).atStartOfDay(zone).toInstant());
+		AvailabilityBitmap possibleSlots = intersect(candidateID, interviewersIDs, fromSlot, toSlot);
+		List<ZonedDateTime> timeslots = new ArrayList<>(possibleSlots.cardinality());
+		for (PrimitiveIterator.OfLong slots = possibleSlots.slots(); slots.hasNext(); )
+			timeslots.add(granularity.toZonedDateTime(slots.nextLong(), zone));
+		return timeslots;
+	}
+
+	/**
+	 * Get all slots which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @return slots in ascending order, in the calendar's granularity, see {@link SlotGranularity}
+	 */
+	public long[] getSlotsIntersection(int candidateID, Collection<Integer> interviewersIDs) {
+		return intersect(candidateID, interviewersIDs, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).toArray();
+	}
+
+	/**
+	 * Stream the slots within a window which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return a lazy stream of slots in ascending order
+	 */
+	public LongStream streamSlotsIntersection(int candidateID, Collection<Integer> interviewersIDs, long fromSlot, long toSlot) {
+		return getPerson(candidateID).streamSlotsIntersection(getPeople(interviewersIDs), fromSlot, toSlot);
+	}
+
+	/**
+	 * Stream the timeslots within a window which are available for the candidate and for all of the interviewers.
+	 * The timeslots are found while the stream is consumed
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param from first UTC timeslot of the window
+	 * @param to first UTC timeslot after the window
+	 * @return a lazy stream of UTC timeslots sorted by time
+	 */
+	public Stream<Timeslot> streamTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs, Timeslot from, Timeslot to) {
+		return Timeslot.stream(getPerson(candidateID).iterateTimeslotsIntersection(getPeople(interviewersIDs),
+				granularity.slotOf(from), granularity.slotOf(to)), granularity);
+	}
+
+	/**
+	 * Get at most the given number of the earliest timeslots within a window
+	 * which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param from first UTC timeslot of the window
+	 * @param to first UTC timeslot after the window
+	 * @param limit maximum number of timeslots
+	 * @return a lazy stream of UTC timeslots sorted by time
+	 */
+	public Stream<Timeslot> streamTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs, Timeslot from, Timeslot to, int limit) {
+		return streamTimeslotsIntersection(candidateID, interviewersIDs, from, to).limit(limit);
+	}
+
+	/**
+	 * Find the blocks of at least the given number of consecutive timeslots between two dates
+	 * which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param minHours minimum length of a block in hours
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @return the blocks, each as long as the common availability allows
+	 */
+	public IntervalSet findContiguousBlocks(int candidateID, Collection<Integer> interviewersIDs, int minHours,
+			LocalDate fromDate, LocalDate toDate) {
+		return findContiguousBlocks(candidateID, interviewersIDs, minHours * granularity.getSlotsPerHour(),
+				granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1)), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Find the blocks of at least the given length between two dates which are available for the candidate
+	 * and for all of the interviewers, for lengths which are not whole hours
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param minDuration minimum length of a block, rounded up to whole timeslots
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @return the blocks, each as long as the common availability allows
+	 */
+	public IntervalSet findContiguousBlocks(int candidateID, Collection<Integer> interviewersIDs, Duration minDuration,
+			LocalDate fromDate, LocalDate toDate) {
+		Duration slotLength = Duration.ofMinutes(granularity.getMinutesPerSlot());
+		if (minDuration.isNegative() || minDuration.compareTo(slotLength.multipliedBy(Integer.MAX_VALUE)) > 0)
+			throw new IllegalArgumentException("Invalid block length " + minDuration);
+		long minSlots = minDuration.plus(slotLength).minusNanos(1).dividedBy(slotLength);
+		return findContiguousBlocks(candidateID, interviewersIDs, (int) minSlots,
+				granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1)), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Find the first blocks of at least the given number of consecutive timeslots starting at or after a timeslot
+	 * which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param minHours minimum length of a block in hours
+	 * @param from earliest timeslot of a block
+	 * @param maxBlocks maximum number of blocks
+	 * @return the earliest blocks, each as long as the common availability allows
+	 */
+	public IntervalSet findContiguousBlocks(int candidateID, Collection<Integer> interviewersIDs, int minHours,
+			Timeslot from, int maxBlocks) {
+		return findContiguousBlocks(candidateID, interviewersIDs, minHours * granularity.getSlotsPerHour(),
+				granularity.slotOf(from), IntersectionEngine.UNBOUNDED_TO, maxBlocks);
+	}
+
+	private IntervalSet findContiguousBlocks(int candidateID, Collection<Integer> interviewersIDs, int minSlots,
+			long fromSlot, long toSlot, int maxBlocks) {
+		if (minSlots < 1) throw new IllegalArgumentException("Invalid block length " + minSlots);
+		if (maxBlocks < 1) throw new IllegalArgumentException("Invalid number of blocks " + maxBlocks);
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		IntervalSet blocks = getPerson(candidateID).findBlocks(getPeople(interviewersIDs), fromSlot, toSlot, minSlots, maxBlocks);
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.FIND_BLOCKS, start);
+		return blocks;
+	}
+
+	/**
+	 * Get the best timeslots between two dates which are available for the candidate and for all of the interviewers.
+	 * The common timeslots are scored week by week as they are found, against the state of the people copied with them,
+	 * and only the best ones are kept, so the whole intersection is neither collected nor sorted
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @param scorer scores the timeslots, e.g. {@link SlotScorer#leastFragmenting()}
+	 * @param maxResults maximum number of timeslots
+	 * @return the best timeslots first, timeslots with the same score by time
+	 */
+	public List<RankedTimeslot> rankTimeslots(int candidateID, Collection<Integer> interviewersIDs, LocalDate fromDate, LocalDate toDate,
+			SlotScorer scorer, int maxResults) {
+		SlotRanker ranker = new SlotRanker(scorer, maxResults);
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		List<Person> people = new ArrayList<>(interviewersIDs.size() + 1);
+		people.add(getPerson(candidateID));
+		people.addAll(getPeople(interviewersIDs));
+		List<RankedTimeslot> ranked = ranker.rank(new IntersectionCursor(people,
+				granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1)), true));
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.RANK_TIMESLOTS, start);
+		return ranked;
+	}
+
+	/**
+	 * Find the panels of interviewers which share the most timeslots with the candidate between two dates
+	 *
+	 * @param candidateID
+	 * @param panelSize number of interviewers in a panel
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @param maxResults maximum number of panels
+	 * @return panels with at least one common timeslot, ranked by the number of common timeslots
+	 */
+	public List<PanelMatch> findPanels(int candidateID, int panelSize, LocalDate fromDate, LocalDate toDate, int maxResults) {
+		return findPanels(candidateID, interviewers.keySet(), panelSize, fromDate, toDate, maxResults);
+	}
+
+	/**
+	 * Find the panels of interviewers from a pool which share the most timeslots with the candidate between two dates
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs to choose from
+	 * @param panelSize number of interviewers in a panel
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @param maxResults maximum number of panels
+	 * @return panels with at least one common timeslot, ranked by the number of common timeslots
+	 */
+	public List<PanelMatch> findPanels(int candidateID, Collection<Integer> interviewersIDs, int panelSize,
+			LocalDate fromDate, LocalDate toDate, int maxResults) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		PanelSearch search = new PanelSearch(panelSize, granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1)), maxResults);
+		List<PanelMatch> panels = search.search(getPerson(candidateID), getPeople(interviewersIDs));
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.FIND_PANELS, start);
+		return panels;
+	}
+
+	/**
+	 * Subscribe to the changes of the timeslots between two dates which are available for the candidate
+	 * and for all of the interviewers. The changes are delivered on the common fork/join pool
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @param listener
+	 * @return the subscription, holding the current timeslots
+	 */
+	public IntersectionSubscription subscribe(int candidateID, Collection<Integer> interviewersIDs,
+			LocalDate fromDate, LocalDate toDate, IntersectionListener listener) {
+		return subscribe(candidateID, interviewersIDs, fromDate, toDate, listener, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Subscribe to the changes of the timeslots between two dates which are available for the candidate
+	 * and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs a collection of interviewers' IDs
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @param listener
+	 * @param executor runs the recomputation of changed ranges and delivers the changes
+	 * @return the subscription, holding the current timeslots
+	 */
+	public IntersectionSubscription subscribe(int candidateID, Collection<Integer> interviewersIDs,
+			LocalDate fromDate, LocalDate toDate, IntersectionListener listener, Executor executor) {
+		List<Person> people = getPeople(new LinkedHashSet<>(interviewersIDs));
+		IntersectionSubscription subscription = new IntersectionSubscription(getPerson(candidateID), people,
+				granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1)), listener, executor);
+		subscription.start();
+		return subscription;
+	}
+
+	/**
+	 * Schedule many interviews between two dates at once, so that nobody has two interviews at the same time.
+	 * The possible timeslots of all requests are computed in parallel, the assignment is deterministic:
+	 * the requests with the fewest possible timeslots get the earliest conflict-free timeslot first.
+	 * Availability is not changed, the schedule is a plan for the caller to confirm
+	 *
+	 * @param requests
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @return scheduled interviews and requests which could not be scheduled
+	 */
+	public BatchSchedule scheduleInterviews(List<InterviewRequest> requests, LocalDate fromDate, LocalDate toDate) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		BatchSchedule schedule = new BatchScheduler(this, granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1))).schedule(requests);
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.SCHEDULE, start);
+		return schedule;
+	}
+
+	/**
+	 * Limit the number of interviews of a person, held and confirmed reservations count against the limits.
+	 * Intersections and panel searches leave out the days and weeks at capacity.
+	 * Like reservations, the limits are not journaled and are lost when the calendar is reopened
+	 *
+	 * @param personID
+	 * @param maxInterviewsPerDay maximum number of interviews on a day of the person's zone
+	 * @param maxInterviewsPerWeek maximum number of interviews from Monday to Sunday
+	 */
+	public void setCapacity(int personID, int maxInterviewsPerDay, int maxInterviewsPerWeek) {
+		getPerson(personID).setCapacity(maxInterviewsPerDay, maxInterviewsPerWeek);
+	}
+
+	/**
+	 * Hold a timeslot for an interview: the timeslot is hidden from the availability of the candidate
+	 * and of all interviewers at once, or of nobody if somebody is not available then.
+	 * The hold must be confirmed within the given time, otherwise the timeslot is given back.
+	 * Reservations are kept in memory only, a reopened calendar offers their timeslots again
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param timeslot
+	 * @param holdFor time to confirm the hold
+	 * @return the held reservation or null if somebody is not available at the timeslot
+	 * @throws IllegalArgumentException if a person is unknown
+	 */
+	public Reservation holdTimeslot(int candidateID, Collection<Integer> interviewersIDs, Timeslot timeslot, Duration holdFor) {
+		if (holdFor.isNegative()) throw new IllegalArgumentException("Negative hold " + holdFor);
+		return claimTimeslot(candidateID, interviewersIDs, timeslot, holdFor);
+	}
+
+	/**
+	 * Book a timeslot for an interview, which is a hold confirmed at once
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param timeslot
+	 * @return the confirmed reservation or null if somebody is not available at the timeslot
+	 * @throws IllegalArgumentException if a person is unknown
+	 */
+	public Reservation bookTimeslot(int candidateID, Collection<Integer> interviewersIDs, Timeslot timeslot) {
+		return claimTimeslot(candidateID, interviewersIDs, timeslot, null);
+	}
+
+	/**
+	 * Confirm a held reservation
+	 *
+	 * @param reservationID
+	 * @return true if confirmed, false if the hold has expired or was released
+	 */
+	public boolean confirmReservation(long reservationID) {
+		return reservations.confirm(reservationID);
+	}
+
+	/**
+	 * Release a held or confirmed reservation, giving the timeslot back to everybody
+	 *
+	 * @param reservationID
+	 * @return true if released, false if the reservation has already expired or was released
+	 */
+	public boolean releaseReservation(long reservationID) {
+		return reservations.release(reservationID);
+	}
+
+	/**
+	 * Get a held or confirmed reservation
+	 *
+	 * @param reservationID
+	 * @return the reservation or null if it is unknown, expired or released
+	 */
+	public Reservation getReservation(long reservationID) {
+		return reservations.get(reservationID);
+	}
+
+	/**
+	 * Give back the timeslots of the holds which were not confirmed in time.
+	 * Every new hold expires the due holds first, so calling this is only needed when holds are rare
+	 *
+	 * @return number of expired holds
+	 */
+	public int expireHolds() {
+		return reservations.expireHolds();
+	}
+
+	private Reservation claimTimeslot(int candidateID, Collection<Integer> interviewersIDs, Timeslot timeslot, Duration holdFor) {
+		Person candidate = getPerson(candidateID);
+		if (candidate == null) throw new IllegalArgumentException("Unknown person " + candidateID);
+		List<Person> interviewers = new ArrayList<>(interviewersIDs.size());
+		for (Integer id : new LinkedHashSet<>(interviewersIDs)) {
+			Person interviewer = getPerson(id);
+			if (interviewer == null) throw new IllegalArgumentException("Unknown person " + id);
+			if (id != candidateID) interviewers.add(interviewer);
+		}
+		return reservations.claim(candidate, interviewers, granularity.slotOf(timeslot), holdFor);
+	}
+
+	/**
+	 * Save the whole calendar to a binary snapshot file
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveSnapshot(Path file) throws IOException {
+		CalendarSnapshot.save(this, file);
+	}
+
+	/**
+	 * Load a calendar from a binary snapshot file
+	 *
+	 * @param file
+	 * @return a new calendar
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static InterviewCalendar loadSnapshot(Path file) throws IOException {
+		InterviewCalendar calendar = new InterviewCalendar(CalendarSnapshot.readGranularity(file));
+		CalendarSnapshot.load(file, calendar);
+		return calendar;
+	}
+
+	/**
+	 * Open a durable calendar kept in a directory: the calendar is recovered from the snapshot
+	 * and the journal found there, and all further mutations are appended to the journal.
+	 * The journal is flushed to disk in batches, at most {@value CalendarJournal#DEFAULT_COMMIT_INTERVAL_MILLIS} ms
+	 * after a mutation, and compacted into a new snapshot when it grows large.
+	 * A calendar recovered from a snapshot keeps the granularity it was saved with, a new one is hourly
+	 *
+	 * @param directory
+	 * @return the recovered calendar
+	 * @throws IOException
+	 */
+	public static InterviewCalendar open(Path directory) throws IOException {
+		return open(directory, CalendarJournal.DEFAULT_COMMIT_INTERVAL_MILLIS, CalendarJournal.DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Open a durable calendar of timeslots of the given length kept in a directory, see {@link #open(Path)}
+	 *
+	 * @param directory
+	 * @param granularity
+	 * @return the recovered calendar
+	 * @throws IOException also if the calendar in the directory is of another granularity
+	 */
+	public static InterviewCalendar open(Path directory, SlotGranularity granularity) throws IOException {
+		return open(directory, granularity, CalendarJournal.DEFAULT_COMMIT_INTERVAL_MILLIS, CalendarJournal.DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	static InterviewCalendar open(Path directory, long commitIntervalMillis, long compactionThreshold) throws IOException {
+		SlotGranularity granularity = CalendarJournal.readGranularity(directory);
+		return open(directory, granularity == null ? SlotGranularity.HOURLY : granularity, commitIntervalMillis, compactionThreshold);
+	}
+
+	static InterviewCalendar open(Path directory, SlotGranularity granularity, long commitIntervalMillis,
+			long compactionThreshold) throws IOException {
+		InterviewCalendar calendar = new InterviewCalendar(granularity);
+		calendar.journal = CalendarJournal.open(directory, calendar, commitIntervalMillis, compactionThreshold);
+		return calendar;
+	}
+
+	/**
+	 * Wait until all mutations made so far are durable, does nothing for an in-memory calendar
+	 *
+	 * @throws IOException
+	 */
+	public void syncJournal() throws IOException {
+		CalendarJournal currentJournal = journal;
+		if (currentJournal != null) currentJournal.sync();
+	}
+
+	/**
+	 * Replace the journal with a new snapshot, does nothing for an in-memory calendar
+	 *
+	 * @throws IOException
+	 */
+	public void compactJournal() throws IOException {
+		CalendarJournal currentJournal = journal;
+		if (currentJournal != null) currentJournal.compact();
+	}
+
+	/**
+	 * Flush the journal and stop journaling, the calendar stays usable in memory
+	 *
+	 * @throws IOException
+	 */
+	public void closeJournal() throws IOException {
+		CalendarJournal currentJournal = journal;
+		if (currentJournal == null) return;
+		journal = null;
+		for (Person person : interviewers.values()) person.removeListener(currentJournal);
+		for (Person person : candidates.values()) person.removeListener(currentJournal);
+		currentJournal.close();
+	}
+
+	IntersectionCache getIntersectionCache() {
+		return intersectionCache;
+	}
+
+	int getNextID() {
+		return nextUniqueID.get();
+	}
+
+	/**
+	 * Register a person restored from a snapshot
+	 *
+	 * @param person
+	 * @param interviewer true for an interviewer, false for a candidate
+	 */
+	void restorePerson(Person person, boolean interviewer) {
+		person.setMetrics(metrics);
+		person.setRetention(retention);
+		person.setClock(clock);
+		if (interviewer) {
+			interviewers.put(person.getId(), person);
+			interviewersIndex.add(person);
+		} else {
+			candidates.put(person.getId(), person);
+		}
+	}
+
+	void restoreNextID(int nextID) {
+		nextUniqueID.set(nextID);
+	}
+
+	/**
+	 * Intersect the availability of the candidate and the interviewers within a window,
+	 * reusing a cached result if none of them has changed since it was computed.
+	 * Results of windows without an upper bound are not cached for people with recurring availability,
+	 * which is expanded from today and so changes with the date rather than with the versions
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param fromSlot
+	 * @param toSlot
+	 * @return a bitmap shared with the cache, which must not be modified
+	 */
+	private AvailabilityBitmap intersect(int candidateID, Collection<Integer> interviewersIDs, long fromSlot, long toSlot) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		// The collection may be a live view which changes while it is read
+		int[] ids = interviewersIDs.stream().mapToInt(Integer::intValue).toArray();
+		IntersectionCache.Key key = IntersectionCache.key(candidateID, ids, fromSlot, toSlot);
+
+		List<Person> people = new ArrayList<>(ids.length + 1);
+		people.add(getPerson(candidateID));
+		for (int id : key.getInterviewersIDs()) {
+			Person person = getPerson(id);
 			if (person != null) people.add(person);
 		}
+		boolean cacheable = toSlot != IntersectionEngine.UNBOUNDED_TO || !hasRecurringAvailability(people);
+		AvailabilityBitmap possibleSlots = cacheable ? intersectionCache.get(key, people) : null;
+		boolean cached = possibleSlots != null;
+		if (!cached) {
+			long[] versions = IntersectionCache.versions(people);
+			possibleSlots = new AvailabilityBitmap(granularity);
+			people.get(0).getTimeslotsIntersection(people.subList(1, people.size()), fromSlot, toSlot, possibleSlots);
+			if (cacheable) intersectionCache.put(key, versions, possibleSlots);
+		}
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.INTERSECTION, start);
+		// Counting the result is skipped unless somebody records it
+		if (currentMetrics != CalendarMetrics.NONE) currentMetrics.intersectionCompleted(possibleSlots.cardinality(), cached);
+		return possibleSlots;
+	}
+
+	private static boolean hasRecurringAvailability(List<Person> people) {
+		for (Person person : people)
+			if (person.hasRecurringAvailability()) return true;
+		return false;
+	}
 
-		return getPerson(candidateID).getTimeslotsIntersection(people);
+	/**
+	 * Get the people with the given ids, skipping unknown ids
+	 *
+	 * @param ids
+	 * @return
+	 */
+	private List<Person> getPeople(Collection<Integer> ids) {
+		List<Person> people = new ArrayList<>(ids.size());
+		for(Integer id : ids) {
+			Person person = getPerson(id);
+			if (person != null) people.add(person);
+		}
+		return people;
 	}
 
 }
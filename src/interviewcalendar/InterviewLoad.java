@@ -0,0 +1,226 @@
+package interviewcalendar;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Interview load counts the interviews of a person per local day and per local week (Monday to Sunday)
+ * against the person's capacity. Counters change by one per booking, and the slots of the days and weeks
+ * at capacity are kept in a bitmap, so checking a slot is a bit test and queries mask the whole bitmap
+ * with one word operation per word. Guarded by the lock of the person
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class InterviewLoad {
+	static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private static final int DAYS_PER_WEEK = 7;
+	// Epoch day 0 was a Thursday, 3 days after the Monday starting its week
+	private static final int EPOCH_DAY_OF_WEEK = 3;
+	private static final int WHOLE_WEEK = 1 << DAYS_PER_WEEK;
+
+	private final SlotGranularity granularity;
+	private final ZoneId zone;
+	private int maxPerDay = UNLIMITED;
+	private int maxPerWeek = UNLIMITED;
+	// Interviews by local epoch day, sorted for the load of a window
+	private final TreeMap<Long, Integer> dayLoads = new TreeMap<>();
+	private final Map<Long, Integer> weekLoads = new HashMap<>();
+	// Slots of the days and weeks which are at capacity
+	private final AvailabilityBitmap saturated;
+	// Days at capacity by week, a bit per day from Monday and WHOLE_WEEK for a full week
+	private final Map<Long, Integer> saturatedDays = new HashMap<>();
+
+	InterviewLoad(SlotGranularity granularity, ZoneId zone) {
+		this.granularity = granularity;
+		this.zone = zone;
+		this.saturated = new AvailabilityBitmap(granularity);
+	}
+
+	int getMaxPerDay() {
+		return maxPerDay;
+	}
+
+	int getMaxPerWeek() {
+		return maxPerWeek;
+	}
+
+	/**
+	 * Set the capacity, the days and weeks already over it stay booked but get no more interviews
+	 *
+	 * @param perDay
+	 * @param perWeek
+	 */
+	void setCapacity(int perDay, int perWeek) {
+		if (perDay < 0 || perWeek < 0) throw new IllegalArgumentException("Negative capacity " + perDay + "/" + perWeek);
+		maxPerDay = perDay;
+		maxPerWeek = perWeek;
+		saturated.clear();
+		saturatedDays.clear();
+		for (long week : weekLoads.keySet()) updateSaturation(week);
+	}
+
+	/**
+	 * Check if the capacity is 0, which makes every slot unavailable without marking them
+	 *
+	 * @return
+	 */
+	boolean isClosed() {
+		return maxPerDay == 0 || maxPerWeek == 0;
+	}
+
+	/**
+	 * Count an interview booked at a slot, or cancel one
+	 *
+	 * @param slot
+	 * @param delta 1 for a booked interview, -1 for a cancelled one
+	 * @return true if a day or the week of the slot reached or dropped below the capacity
+	 */
+	boolean add(long slot, int delta) {
+		long day = dayOf(slot);
+		long week = weekOfDay(day);
+		dayLoads.merge(day, delta, (a, b) -> a + b == 0 ? null : a + b);
+		weekLoads.merge(week, delta, (a, b) -> a + b == 0 ? null : a + b);
+		return updateSaturation(week);
+	}
+
+	/**
+	 * Get the first slot of the local week of a slot
+	 *
+	 * @param slot
+	 * @return
+	 */
+	long startOfWeek(long slot) {
+		return startOfDay(firstDayOfWeek(weekOfDay(dayOf(slot))));
+	}
+
+	/**
+	 * Get the first slot after the local week of a slot
+	 *
+	 * @param slot
+	 * @return
+	 */
+	long endOfWeek(long slot) {
+		return startOfDay(firstDayOfWeek(weekOfDay(dayOf(slot))) + DAYS_PER_WEEK);
+	}
+
+	boolean isSaturated(long slot) {
+		return isClosed() || saturated.get(slot);
+	}
+
+	/**
+	 * Get the slots of the days and weeks at capacity, unless the person is closed
+	 *
+	 * @return
+	 */
+	AvailabilityBitmap getSaturated() {
+		return saturated;
+	}
+
+	int getDayLoad(LocalDate date) {
+		return dayLoads.getOrDefault(date.toEpochDay(), 0);
+	}
+
+	int getWeekLoad(LocalDate date) {
+		return weekLoads.getOrDefault(weekOfDay(date.toEpochDay()), 0);
+	}
+
+	/**
+	 * Copy the capacity and the interviews booked on the days of a window, to be read without the lock of the person.
+	 * Loads of whole weeks and the days at capacity are not copied
+	 *
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return
+	 */
+	InterviewLoad copy(long fromSlot, long toSlot) {
+		InterviewLoad copy = new InterviewLoad(granularity, zone);
+		copy.maxPerDay = maxPerDay;
+		copy.maxPerWeek = maxPerWeek;
+		if (dayLoads.isEmpty() || fromSlot >= toSlot) return copy;
+		long fromDay = fromSlot == IntersectionEngine.UNBOUNDED_FROM ? Long.MIN_VALUE : dayOf(fromSlot);
+		long toDay = toSlot == IntersectionEngine.UNBOUNDED_TO ? Long.MAX_VALUE : dayOf(toSlot - 1);
+		copy.dayLoads.putAll(dayLoads.subMap(fromDay, true, toDay, true));
+		return copy;
+	}
+
+	/**
+	 * Get the number of interviews on the days of a window
+	 *
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return
+	 */
+	int getLoad(long fromSlot, long toSlot) {
+		if (dayLoads.isEmpty() || fromSlot >= toSlot) return 0;
+		long fromDay = fromSlot == IntersectionEngine.UNBOUNDED_FROM ? Long.MIN_VALUE : dayOf(fromSlot);
+		long toDay = toSlot == IntersectionEngine.UNBOUNDED_TO ? Long.MAX_VALUE : dayOf(toSlot - 1);
+		int load = 0;
+		for (int interviews : dayLoads.subMap(fromDay, true, toDay, true).values()) load += interviews;
+		return load;
+	}
+
+	/**
+	 * Mark the slots of a week which are at capacity, the other slots of the week are unmarked.
+	 * The bitmap is left alone unless the days at capacity changed
+	 *
+	 * @return true if the days at capacity changed
+	 */
+	private boolean updateSaturation(long week) {
+		if (isClosed()) return false;
+		long firstDay = firstDayOfWeek(week);
+		int days = 0;
+		if (weekLoads.getOrDefault(week, 0) >= maxPerWeek) {
+			days = WHOLE_WEEK;
+		} else {
+			for (int i = 0; i < DAYS_PER_WEEK; i++)
+				if (dayLoads.getOrDefault(firstDay + i, 0) >= maxPerDay) days |= 1 << i;
+		}
+		Integer previous = days == 0 ? saturatedDays.remove(week) : saturatedDays.put(week, days);
+		if (previous == null ? days == 0 : previous == days) return false;
+
+		saturated.clearRange(startOfDay(firstDay), startOfDay(firstDay + DAYS_PER_WEEK));
+		if (days == WHOLE_WEEK) {
+			saturated.setRange(startOfDay(firstDay), startOfDay(firstDay + DAYS_PER_WEEK));
+		} else {
+			for (int i = 0; i < DAYS_PER_WEEK; i++)
+				if ((days & (1 << i)) != 0) saturated.setRange(startOfDay(firstDay + i), startOfDay(firstDay + i + 1));
+		}
+		return true;
+	}
+
+	/**
+	 * Get the local day of the person on which a slot starts
+	 *
+	 * @param slot
+	 * @return epoch day
+	 */
+	private long dayOf(long slot) {
+		if (zone.equals(ZoneOffset.UTC)) return Math.floorDiv(slot, granularity.getSlotsPerDay());
+		return granularity.toZonedDateTime(slot, zone).toLocalDate().toEpochDay();
+	}
+
+	/**
+	 * Get the first slot starting on a local day of the person
+	 *
+	 * @param day epoch day
+	 * @return
+	 */
+	private long startOfDay(long day) {
+		if (zone.equals(ZoneOffset.UTC)) return day * granularity.getSlotsPerDay();
+		return granularity.ceilSlot(LocalDate.ofEpochDay(day).atStartOfDay(zone).toInstant());
+	}
+
+	private static long weekOfDay(long day) {
+		return Math.floorDiv(day + EPOCH_DAY_OF_WEEK, DAYS_PER_WEEK);
+	}
+
+	private static long firstDayOfWeek(long week) {
+		return week * DAYS_PER_WEEK - EPOCH_DAY_OF_WEEK;
+	}
+}
@@ -0,0 +1,71 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interview request asks for an interview of a candidate either with a fixed panel of interviewers
+ * or with a panel of a given size chosen from a pool of interviewers
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class InterviewRequest {
+	private final int candidateID;
+	private final List<Integer> interviewersIDs;
+	private final int panelSize;
+
+	private InterviewRequest(int candidateID, Collection<Integer> interviewersIDs, int panelSize) {
+		if (panelSize < 1 || panelSize > interviewersIDs.size())
+			throw new IllegalArgumentException("Invalid panel size " + panelSize);
+		this.candidateID = candidateID;
+		this.interviewersIDs = Collections.unmodifiableList(new ArrayList<>(interviewersIDs));
+		this.panelSize = panelSize;
+	}
+
+	/**
+	 * Request an interview with all of the given interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @return
+	 */
+	public static InterviewRequest withPanel(int candidateID, Collection<Integer> interviewersIDs) {
+		return new InterviewRequest(candidateID, interviewersIDs, interviewersIDs.size());
+	}
+
+	/**
+	 * Request an interview with any panel of the given size from a pool of interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs pool of interviewers
+	 * @param panelSize
+	 * @return
+	 */
+	public static InterviewRequest fromPool(int candidateID, Collection<Integer> interviewersIDs, int panelSize) {
+		return new InterviewRequest(candidateID, interviewersIDs, panelSize);
+	}
+
+	public int getCandidateID() {
+		return candidateID;
+	}
+
+	public List<Integer> getInterviewersIDs() {
+		return interviewersIDs;
+	}
+
+	public int getPanelSize() {
+		return panelSize;
+	}
+
+	/**
+	 * Check if every interviewer of the request has to attend
+	 *
+	 * @return
+	 */
+	public boolean isFixedPanel() {
+		return panelSize == interviewersIDs.size();
+	}
+}
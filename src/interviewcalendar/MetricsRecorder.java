@@ -0,0 +1,62 @@
+package interviewcalendar;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics recorder keeps a latency histogram of every operation, the distribution of intersection result sizes
+ * and the hits and misses of the intersection cache. All tables are allocated up front,
+ * so recording only updates counters
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class MetricsRecorder implements CalendarMetrics {
+	// Latencies in nanoseconds by operation ordinal
+	private final Histogram[] latencies = new Histogram[Operation.values().length];
+	private final Histogram intersectionSizes = new Histogram();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+
+	public MetricsRecorder() {
+		for (int i = 0; i < latencies.length; i++) latencies[i] = new Histogram();
+	}
+
+	@Override
+	public void operationCompleted(Operation operation, long nanos) {
+		latencies[operation.ordinal()].record(nanos);
+	}
+
+	@Override
+	public void intersectionCompleted(long timeslots, boolean cached) {
+		intersectionSizes.record(timeslots);
+		if (cached) cacheHits.increment();
+		else cacheMisses.increment();
+	}
+
+	/**
+	 * Get the latencies of an operation
+	 *
+	 * @param operation
+	 * @return histogram of durations in nanoseconds, its count is the number of completed operations
+	 */
+	public Histogram getLatencies(Operation operation) {
+		return latencies[operation.ordinal()];
+	}
+
+	/**
+	 * Get the distribution of the number of timeslots in intersection results
+	 *
+	 * @return
+	 */
+	public Histogram getIntersectionSizes() {
+		return intersectionSizes;
+	}
+
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+}
@@ -0,0 +1,70 @@
+package interviewcalendar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Panel match is a group of interviewers who share at least one available timeslot with a candidate
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class PanelMatch {
+	private final List<Integer> interviewersIDs;
+	private final AvailabilityBitmap timeslots;
+	private final int timeslotCount;
+	private final int load;
+
+	PanelMatch(List<Integer> interviewersIDs, AvailabilityBitmap timeslots, int load) {
+		this.interviewersIDs = Collections.unmodifiableList(interviewersIDs);
+		this.timeslots = timeslots;
+		this.timeslotCount = timeslots.cardinality();
+		this.load = load;
+	}
+
+	/**
+	 * Get the ids of the interviewers in ascending order
+	 *
+	 * @return
+	 */
+	public List<Integer> getInterviewersIDs() {
+		return interviewersIDs;
+	}
+
+	/**
+	 * Get the number of timeslots available for the candidate and all of the interviewers
+	 *
+	 * @return
+	 */
+	public int getTimeslotCount() {
+		return timeslotCount;
+	}
+
+	/**
+	 * Get the number of interviews the interviewers have booked on the days of the search window
+	 *
+	 * @return
+	 */
+	public int getLoad() {
+		return load;
+	}
+
+	/**
+	 * Get the timeslots available for the candidate and all of the interviewers
+	 *
+	 * @return a read-only set of timeslots sorted by time
+	 */
+	public Set<Timeslot> getTimeslots() {
+		return timeslots.asTimeslotSet();
+	}
+
+	AvailabilityBitmap getTimeslotBitmap() {
+		return timeslots;
+	}
+
+	@Override
+	public String toString() {
+		return interviewersIDs + ": " + timeslotCount;
+	}
+}
@@ -0,0 +1,160 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Panel search finds the panels of interviewers sharing the most timeslots with a candidate.
+ * Every interviewer is first intersected with the candidate alone, interviewers without common
+ * timeslots are dropped, and panels are then built by extending shared prefix intersections,
+ * so a branch is cut as soon as its prefix cannot beat the panels found so far
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class PanelSearch {
+	// Best panels first: more common timeslots, then fewer booked interviews, then lower interviewer ids.
+	// Panels tied on both with the worst kept one are cut, so among those the search keeps the ones it found first
+	static final Comparator<PanelMatch> RANKING = Comparator.comparingInt(PanelMatch::getTimeslotCount).reversed()
+			.thenComparingInt(PanelMatch::getLoad)
+			.thenComparing(PanelMatch::getInterviewersIDs, PanelSearch::compareIDs);
+
+	private final long fromSlot;
+	private final long toSlot;
+	private final int panelSize;
+	private final int maxResults;
+	// Interviewers left after pruning, with their intersection with the candidate
+	private final List<Person> interviewers = new ArrayList<>();
+	private final List<AvailabilityBitmap> withCandidate = new ArrayList<>();
+	private final List<Integer> loads = new ArrayList<>();
+	// Reusable prefix intersection for each depth of the search
+	private final AvailabilityBitmap[] prefixes;
+	private final int[] chosen;
+	// Worst of the best panels found so far on top
+	private final PriorityQueue<PanelMatch> best;
+	// Number of prefix intersections computed, to check the pruning
+	private int intersections;
+
+	PanelSearch(int panelSize, long fromSlot, long toSlot, int maxResults) {
+		if (panelSize < 1) throw new IllegalArgumentException("Panel size must be positive");
+		if (maxResults < 1) throw new IllegalArgumentException("Number of results must be positive");
+		this.panelSize = panelSize;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+		this.maxResults = maxResults;
+		prefixes = new AvailabilityBitmap[panelSize];
+		chosen = new int[panelSize];
+		best = new PriorityQueue<>(RANKING.reversed());
+	}
+
+	/**
+	 * Find the panels
+	 *
+	 * @param candidate
+	 * @param pool interviewers to choose from
+	 * @return at most maxResults panels, best first
+	 */
+	List<PanelMatch> search(Person candidate, List<Person> pool) {
+		AvailabilityBitmap candidateSlots = candidate.snapshot(fromSlot, toSlot);
+		for (int i = 0; i < panelSize; i++) prefixes[i] = candidateSlots.empty();
+		List<Person> sortedPool = new ArrayList<>(pool);
+		sortedPool.sort(Comparator.comparingInt(Person::getId));
+
+		// Prefixes of length one: drop interviewers who share nothing with the candidate
+		List<Option> options = new ArrayList<>();
+		for (Person interviewer : sortedPool) {
+			AvailabilityBitmap common = candidateSlots.empty();
+			List<AvailabilityBitmap> bitmaps = Arrays.asList(candidateSlots, interviewer.snapshot(fromSlot, toSlot));
+			if (IntersectionEngine.intersect(bitmaps, fromSlot, toSlot, common))
+				options.add(new Option(interviewer, common, interviewer.getLoad(fromSlot, toSlot)));
+		}
+
+		// Richest interviewers first, so good panels are found early and prune the rest
+		options.sort(Comparator.comparingInt((Option option) -> option.count).reversed());
+		for (Option option : options) {
+			interviewers.add(option.interviewer);
+			withCandidate.add(option.common);
+			loads.add(option.load);
+		}
+
+		extend(0, 0, null, 0);
+
+		List<PanelMatch> result = new ArrayList<>(best);
+		result.sort(RANKING);
+		return result;
+	}
+
+	/**
+	 * Add interviewers to the panel starting from the given index
+	 *
+	 * @param depth number of interviewers chosen so far
+	 * @param start index of the first interviewer which may be chosen
+	 * @param prefix intersection of the candidate and the chosen interviewers, null at depth 0
+	 * @param prefixLoad booked interviews of the chosen interviewers
+	 */
+	private void extend(int depth, int start, AvailabilityBitmap prefix, int prefixLoad) {
+		for (int i = start; i <= interviewers.size() - (panelSize - depth); i++) {
+			AvailabilityBitmap next = withCandidate.get(i);
+			if (prefix != null) {
+				next = prefixes[depth];
+				intersections++;
+				if (!IntersectionEngine.intersect(Arrays.asList(prefix, withCandidate.get(i)), fromSlot, toSlot, next)) continue;
+			}
+
+			// Intersections only shrink and loads only grow, so a prefix no better than the worst kept panel is a dead end
+			int count = next.cardinality();
+			int load = prefixLoad + loads.get(i);
+			if (best.size() == maxResults) {
+				PanelMatch worst = best.peek();
+				if (count < worst.getTimeslotCount() || count == worst.getTimeslotCount() && load >= worst.getLoad()) continue;
+			}
+
+			chosen[depth] = i;
+			if (depth + 1 < panelSize) {
+				extend(depth + 1, i + 1, next, load);
+			} else {
+				offer(next, load);
+			}
+		}
+	}
+
+	int getIntersections() {
+		return intersections;
+	}
+
+	private void offer(AvailabilityBitmap timeslots, int load) {
+		List<Integer> ids = new ArrayList<>(panelSize);
+		for (int index : chosen) ids.add(interviewers.get(index).getId());
+		Collections.sort(ids);
+
+		PanelMatch match = new PanelMatch(ids, timeslots.copy(), load);
+		best.add(match);
+		if (best.size() > maxResults) best.poll();
+	}
+
+	private static final class Option {
+		final Person interviewer;
+		final AvailabilityBitmap common;
+		final int count;
+		final int load;
+
+		Option(Person interviewer, AvailabilityBitmap common, int load) {
+			this.interviewer = interviewer;
+			this.common = common;
+			this.count = common.cardinality();
+			this.load = load;
+		}
+	}
+
+	private static int compareIDs(List<Integer> a, List<Integer> b) {
+		for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+			int compare = Integer.compare(a.get(i), b.get(i));
+			if (compare != 0) return compare;
+		}
+		return Integer.compare(a.size(), b.size());
+	}
+}
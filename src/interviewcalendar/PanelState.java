@@ -0,0 +1,103 @@
+package interviewcalendar;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panel state is what a {@link SlotScorer} reads about the candidate and the interviewers of a ranking query:
+ * their availability and their interviews around the slots being scored, copied under their read locks
+ * together with the common slots. Scorers read the copies without taking any lock,
+ * and all slots found together are scored against the same state
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class PanelState {
+	private final List<Person> people;
+	private final List<AvailabilityBitmap> availability;
+	private final List<InterviewLoad> loads;
+	// Slots of which the availability was copied
+	private final long fromSlot;
+	private final long toSlot;
+
+	private PanelState(List<Person> people, List<AvailabilityBitmap> availability, List<InterviewLoad> loads, long fromSlot, long toSlot) {
+		this.people = people;
+		this.availability = availability;
+		this.loads = loads;
+		this.fromSlot = fromSlot;
+		this.toSlot = toSlot;
+	}
+
+	/**
+	 * Copy the state of people for scoring the slots of a part of a query window.
+	 * The caller must hold the locks of the people
+	 *
+	 * @param people the candidate followed by the interviewers
+	 * @param fromSlot first slot of the part, inclusive
+	 * @param toSlot last slot of the part, exclusive
+	 * @param windowFromSlot first slot of the window, inclusive
+	 * @param windowToSlot last slot of the window, exclusive
+	 * @return
+	 */
+	static PanelState capture(List<Person> people, long fromSlot, long toSlot, long windowFromSlot, long windowToSlot) {
+		// Scorers look at the slots right before and after the scored ones as well
+		long copyFromSlot = fromSlot == IntersectionEngine.UNBOUNDED_FROM ? fromSlot : fromSlot - 1;
+		long copyToSlot = toSlot == IntersectionEngine.UNBOUNDED_TO ? toSlot : toSlot + 1;
+		List<AvailabilityBitmap> availability = new ArrayList<>(people.size());
+		List<InterviewLoad> loads = new ArrayList<>(people.size());
+		for (Person person : people) {
+			availability.add(person.copyAvailability(copyFromSlot, copyToSlot, windowFromSlot, windowToSlot));
+			loads.add(person.copyLoad(fromSlot, toSlot));
+		}
+		return new PanelState(people, availability, loads, copyFromSlot, copyToSlot);
+	}
+
+	/**
+	 * Get the number of people
+	 *
+	 * @return
+	 */
+	public int size() {
+		return people.size();
+	}
+
+	public int getId(int index) {
+		return people.get(index).getId();
+	}
+
+	public ZoneId getZone(int index) {
+		return people.get(index).getZone();
+	}
+
+	/**
+	 * Get the granularity of the slots
+	 *
+	 * @return
+	 */
+	public SlotGranularity getGranularity() {
+		return people.get(0).getGranularity();
+	}
+
+	/**
+	 * Check if a person was available at a slot when the state was copied
+	 *
+	 * @param index 0 for the candidate, 1 and above for the interviewers
+	 * @param slot a scored slot or a slot right before or after one
+	 * @return false for the slots of which the availability was not copied
+	 */
+	public boolean isAvailable(int index, long slot) {
+		return slot >= fromSlot && slot < toSlot && availability.get(index).get(slot);
+	}
+
+	/**
+	 * Get the number of interviews of a person on the day of a slot, in the person's zone
+	 *
+	 * @param index 0 for the candidate, 1 and above for the interviewers
+	 * @param slot a scored slot
+	 * @return
+	 */
+	public int getLoad(int index, long slot) {
+		return loads.get(index).getLoad(slot, slot + 1);
+	}
+}
@@ -0,0 +1,300 @@
+package interviewcalendar;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Partitioned calendar shards people across several partitions, each with its own registries and locks.
+ * The id of a person tells his partition: ids of the partition i of n are equal to i modulo n.
+ * People of one team are kept in the same partition, so their intersections stay local.
+ * An intersection asks every partition involved for the common availability of its people, in parallel,
+ * and intersects the summaries
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class PartitionedCalendar {
+	private final List<CalendarPartition> partitions;
+	private final SlotGranularity granularity;
+	// Runs the requests to the partitions of an intersection
+	private final Executor executor;
+	// Partition of the next person added without a team
+	private final AtomicInteger nextPartition = new AtomicInteger();
+
+	/**
+	 * Create an hourly calendar of in-process partitions
+	 *
+	 * @param partitionCount
+	 */
+	public PartitionedCalendar(int partitionCount) {
+		this(partitionCount, SlotGranularity.HOURLY);
+	}
+
+	/**
+	 * Create a calendar of in-process partitions
+	 *
+	 * @param partitionCount
+	 * @param granularity
+	 */
+	public PartitionedCalendar(int partitionCount, SlotGranularity granularity) {
+		this(createPartitions(partitionCount, granularity), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a calendar of the given partitions
+	 *
+	 * @param partitions partitions in the order of their indexes
+	 * @param executor runs the requests to the partitions
+	 * @throws IllegalArgumentException if there are no partitions or they have different granularities
+	 */
+	public PartitionedCalendar(List<? extends CalendarPartition> partitions, Executor executor) {
+		if (partitions.isEmpty()) throw new IllegalArgumentException("No partitions");
+		this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+		this.granularity = partitions.get(0).getGranularity();
+		for (CalendarPartition partition : partitions) {
+			if (!partition.getGranularity().equals(granularity))
+				throw new IllegalArgumentException("Partitions of " + granularity + " and " + partition.getGranularity());
+		}
+		this.executor = executor;
+	}
+
+	private static List<CalendarPartition> createPartitions(int partitionCount, SlotGranularity granularity) {
+		if (partitionCount <= 0) throw new IllegalArgumentException("Invalid number of partitions " + partitionCount);
+		List<CalendarPartition> partitions = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++)
+			partitions.add(new InterviewCalendar(granularity, InterviewCalendar.DEFAULT_CACHE_SIZE, i, partitionCount));
+		return partitions;
+	}
+
+	public SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	public int getPartitionCount() {
+		return partitions.size();
+	}
+
+	public CalendarPartition getPartition(int index) {
+		return partitions.get(index);
+	}
+
+	/**
+	 * Get the index of the partition keeping a person
+	 *
+	 * @param personID
+	 * @return
+	 */
+	public int partitionOf(int personID) {
+		return Math.floorMod(personID, partitions.size());
+	}
+
+	/**
+	 * Add an interviewer to the next partition in turn
+	 *
+	 * @param name
+	 * @return generated interviewer's unique id
+	 */
+	public int addInterviewer(String name) {
+		int index = nextPartition();
+		return checkID(index, partitions.get(index).addInterviewer(name));
+	}
+
+	/**
+	 * Add an interviewer to the partition of his team
+	 *
+	 * @param name
+	 * @param team
+	 * @return generated interviewer's unique id
+	 */
+	public int addInterviewer(String name, String team) {
+		int index = teamPartition(team);
+		return checkID(index, partitions.get(index).addInterviewer(name));
+	}
+
+	public void removeInterviewer(int id) {
+		partitions.get(partitionOf(id)).removeInterviewer(id);
+	}
+
+	/**
+	 * Add a candidate to the next partition in turn
+	 *
+	 * @param name
+	 * @return generated candidate's unique id
+	 */
+	public int addCandidate(String name) {
+		int index = nextPartition();
+		return checkID(index, partitions.get(index).addCandidate(name));
+	}
+
+	/**
+	 * Add a candidate to the partition of the team he applies to
+	 *
+	 * @param name
+	 * @param team
+	 * @return generated candidate's unique id
+	 */
+	public int addCandidate(String name, String team) {
+		int index = teamPartition(team);
+		return checkID(index, partitions.get(index).addCandidate(name));
+	}
+
+	public void removeCandidate(int id) {
+		partitions.get(partitionOf(id)).removeCandidate(id);
+	}
+
+	/**
+	 * Add the timeslots from startHour to endHour of a day to a person's calendar
+	 *
+	 * @param personID
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param timeslotStartHour
+	 * @param timeslotEndHour
+	 */
+	public void addAvailableTimeslots(int personID, int year, int month, int day, int timeslotStartHour, int timeslotEndHour) {
+		addAvailableSlots(personID, granularity.slotOf(year, month, day, timeslotStartHour, 0),
+				granularity.slotOf(year, month, day, timeslotEndHour, 0));
+	}
+
+	/**
+	 * Remove the timeslots from startHour to endHour of a day from a person's calendar
+	 *
+	 * @param personID
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param timeslotStartHour
+	 * @param timeslotEndHour
+	 */
+	public void removeUnavailableTimeslots(int personID, int year, int month, int day, int timeslotStartHour, int timeslotEndHour) {
+		removeUnavailableSlots(personID, granularity.slotOf(year, month, day, timeslotStartHour, 0),
+				granularity.slotOf(year, month, day, timeslotEndHour, 0));
+	}
+
+	public void addAvailableSlots(int personID, long fromSlot, long toSlot) {
+		partitions.get(partitionOf(personID)).addAvailableSlots(personID, fromSlot, toSlot);
+	}
+
+	public void removeUnavailableSlots(int personID, long fromSlot, long toSlot) {
+		partitions.get(partitionOf(personID)).removeUnavailableSlots(personID, fromSlot, toSlot);
+	}
+
+	/**
+	 * Get all timeslots which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @return a set of timeslots
+	 */
+	public Set<Timeslot> getTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs) {
+		return toTimeslots(getIntervalsIntersection(candidateID, interviewersIDs,
+				IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO));
+	}
+
+	/**
+	 * Get all timeslots between two dates which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param fromDate first day of the window
+	 * @param toDate last day of the window, inclusive
+	 * @return a set of timeslots
+	 */
+	public Set<Timeslot> getTimeslotsIntersection(int candidateID, Collection<Integer> interviewersIDs, LocalDate fromDate, LocalDate toDate) {
+		return toTimeslots(getIntervalsIntersection(candidateID, interviewersIDs,
+				granularity.slotOf(fromDate), granularity.slotOf(toDate.plusDays(1))));
+	}
+
+	/**
+	 * Get the intervals within a window which are available for the candidate and for all of the interviewers
+	 *
+	 * @param candidateID
+	 * @param interviewersIDs
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return the common intervals
+	 * @throws IllegalArgumentException if the candidate or an interviewer is unknown
+	 */
+	public IntervalSet getIntervalsIntersection(int candidateID, Collection<Integer> interviewersIDs, long fromSlot, long toSlot) {
+		// Scatter: the people are grouped by partition, the candidate's partition first
+		Map<Integer, List<Integer>> peopleByPartition = new TreeMap<>();
+		peopleByPartition.computeIfAbsent(partitionOf(candidateID), index -> new ArrayList<>()).add(candidateID);
+		for (int id : interviewersIDs)
+			peopleByPartition.computeIfAbsent(partitionOf(id), index -> new ArrayList<>()).add(id);
+
+		if (peopleByPartition.size() == 1) {
+			Map.Entry<Integer, List<Integer>> only = peopleByPartition.entrySet().iterator().next();
+			return partitions.get(only.getKey()).getCommonAvailability(only.getValue(), fromSlot, toSlot);
+		}
+
+		List<CompletableFuture<IntervalSet>> requests = new ArrayList<>(peopleByPartition.size());
+		for (Map.Entry<Integer, List<Integer>> entry : peopleByPartition.entrySet()) {
+			CalendarPartition partition = partitions.get(entry.getKey());
+			List<Integer> ids = entry.getValue();
+			requests.add(CompletableFuture.supplyAsync(() -> partition.getCommonAvailability(ids, fromSlot, toSlot), executor));
+		}
+
+		// Gather: the summaries with the fewest intervals are intersected first
+		List<IntervalSet> summaries = new ArrayList<>(requests.size());
+		for (CompletableFuture<IntervalSet> request : requests) summaries.add(join(request));
+		summaries.sort(Comparator.comparingInt(IntervalSet::size));
+		IntervalSet common = summaries.get(0);
+		for (int i = 1; i < summaries.size() && !common.isEmpty(); i++)
+			common = common.intersect(summaries.get(i));
+		return common;
+	}
+
+	private int nextPartition() {
+		return Math.floorMod(nextPartition.getAndIncrement(), partitions.size());
+	}
+
+	private int teamPartition(String team) {
+		return Math.floorMod(team.hashCode(), partitions.size());
+	}
+
+	private int checkID(int index, int id) {
+		if (partitionOf(id) != index) throw new IllegalStateException("Partition " + index + " generated id " + id);
+		return id;
+	}
+
+	private Set<Timeslot> toTimeslots(IntervalSet intervals) {
+		// Intervals reaching an end of an unbounded window would be expanded until the heap runs out
+		long count = 0;
+		for (int i = 0; i < intervals.size(); i++) {
+			long length = intervals.getEndSlot(i) - intervals.getStartSlot(i);
+			count += length;
+			if (length < 0 || count < 0 || count > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Too many timeslots, the intersection must be limited to a window");
+		}
+
+		Set<Timeslot> timeslots = new TreeSet<>();
+		for (int i = 0; i < intervals.size(); i++) {
+			for (long slot = intervals.getStartSlot(i); slot < intervals.getEndSlot(i); slot++)
+				timeslots.add(granularity.toTimeslot(slot));
+		}
+		return timeslots;
+	}
+
+	private static IntervalSet join(CompletableFuture<IntervalSet> request) {
+		try {
+			return request.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+}
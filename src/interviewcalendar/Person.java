@@ -1,24 +1,89 @@
 package interviewcalendar;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.PrimitiveIterator;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * Person corresponds to an individual who has a unique id, name and available timeslots in his calendar
+ * Availability is guarded by a per-person read/write lock, so many readers can intersect it at once.
+ * Availability is stored in UTC slots, the days, hours and timeslots given to and returned by the person,
+ * recurrence rules included, are local times of his zone
  * 
  * @author Lina Gafurova
  *
  */
 public class Person {
-	private int id;
-	private String name;
-	private Set<Timeslot> availableTimeslots = new TreeSet<Timeslot>(); 
+	private final int id;
+	private final String name;
+	private final SlotGranularity granularity;
+	// Zone of the local times given to the person
+	private final ZoneId zone;
+	// Guards the availability, rules and blocked timeslots
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private AvailabilityBitmap availability;
+	// Recurring availability, expanded only for the window of a query
+	private List<RecurrenceRule> rules = new ArrayList<>();
+	// Timeslots removed explicitly, which take precedence over the recurrence rules
+	private AvailabilityBitmap blocked;
+	// Timeslots claimed by reservations and not written since, hidden from the availability like the days at capacity
+	private final AvailabilityBitmap held;
+	private final List<AvailabilityListener> listeners = new CopyOnWriteArrayList<>();
+	// Incremented by every change of the availability, read without the lock
+	private volatile long version;
+	// Sequence number of the last journal record applied to the person
+	private long journalSequence;
+	private volatile CalendarMetrics metrics = CalendarMetrics.NONE;
+	private volatile RetentionPolicy retention = RetentionPolicy.KEEP_ALL;
+	// Tells today's date, from which open-ended rules are expanded
+	private volatile Clock clock = Clock.systemUTC();
+	// First slot of the retained history, everything before it was dropped
+	private long retainedFromSlot = IntersectionEngine.UNBOUNDED_FROM;
+	// Booked interviews and the capacity for them
+	private final InterviewLoad load;
 	
 	Person(int aID, String aName) {
+		this(aID, aName, SlotGranularity.HOURLY);
+	}
+
+	Person(int aID, String aName, SlotGranularity aGranularity) {
+		this(aID, aName, aGranularity, ZoneOffset.UTC);
+	}
+
+	Person(int aID, String aName, SlotGranularity aGranularity, ZoneId aZone) {
 		id = aID;
 		name = aName;
+		granularity = aGranularity;
+		zone = aZone;
+		load = new InterviewLoad(granularity, zone);
+		availability = new AvailabilityBitmap(granularity);
+		blocked = new AvailabilityBitmap(granularity);
+		held = new AvailabilityBitmap(granularity);
+	}
+
+	/**
+	 * Create a person restored from a snapshot
+	 */
+	Person(int aID, String aName, ZoneId aZone, AvailabilityBitmap anAvailability, List<RecurrenceRule> aRules, AvailabilityBitmap aBlocked) {
+		this(aID, aName, anAvailability.getGranularity(), aZone);
+		availability = anAvailability;
+		rules = aRules;
+		blocked = aBlocked;
 	}
 	
 	public int getId() {
@@ -28,57 +93,939 @@ public class Person {
 	public String getName() {
 		return name;
 	}
+
+	/**
+	 * Get the granularity of the person's timeslots, which is also the unit of the person's slots
+	 *
+	 * @return
+	 */
+	public SlotGranularity getGranularity() {
+		return granularity;
+	}
+
+	/**
+	 * Get the zone of the local times given to the person, UTC unless set when the person was added
+	 *
+	 * @return
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
 	
+	/**
+	 * Get a read-only snapshot of the available timeslots at local times of the person's zone, sorted by time.
+	 * Open-ended recurring availability is included up to {@link RecurrenceRule#OPEN_ENDED_EXPANSION_DAYS} days from today
+	 *
+	 * @return
+	 */
 	public Set<Timeslot> getAvailableTimeslots() {
-		return availableTimeslots;
+		return snapshot(IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).asTimeslotSet(zone);
+	}
+
+	/**
+	 * Get a private copy of the availability within a window
+	 *
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @return
+	 */
+	AvailabilityBitmap snapshot(long fromSlot, long toSlot) {
+		lock.readLock().lock();
+		try {
+			return copyAvailability(fromSlot, toSlot, fromSlot, toSlot);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a private copy of the availability within a part of a query window, see {@link #getAvailability(long, long, long, long)}.
+	 * The caller must hold the lock of the person
+	 */
+	AvailabilityBitmap copyAvailability(long fromSlot, long toSlot, long windowFromSlot, long windowToSlot) {
+		AvailabilityBitmap bitmap = getAvailability(fromSlot, toSlot, windowFromSlot, windowToSlot);
+		return bitmap == availability ? bitmap.copy(fromSlot, toSlot) : bitmap;
+	}
+
+	/**
+	 * Get the availability within a window, with the recurrence rules expanded for that window only
+	 * and without the held timeslots and the days and weeks at capacity. The caller must hold the lock of the person
+	 *
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @return the stored bitmap if there are neither rules nor held timeslots nor full days,
+	 * otherwise a new bitmap limited to the window
+	 */
+	AvailabilityBitmap getAvailability(long fromSlot, long toSlot) {
+		return getAvailability(fromSlot, toSlot, fromSlot, toSlot);
+	}
+
+	/**
+	 * Get the availability within a part [fromSlot, toSlot) of a query window, see {@link #getAvailability(long, long)}.
+	 * Open-ended rules are expanded only as far as for the whole window, so a window without an upper bound
+	 * which is read part by part ends where it ends when read at once
+	 *
+	 * @param fromSlot first timeslot of the part, inclusive
+	 * @param toSlot last timeslot of the part, exclusive
+	 * @param windowFromSlot first timeslot of the window, inclusive
+	 * @param windowToSlot last timeslot of the window, exclusive
+	 * @return
+	 */
+	AvailabilityBitmap getAvailability(long fromSlot, long toSlot, long windowFromSlot, long windowToSlot) {
+		if (load.isClosed()) return availability.empty();
+		AvailabilityBitmap saturated = load.getSaturated();
+		if (rules.isEmpty()) {
+			if (saturated.isEmpty() && held.isEmpty()) return availability;
+			AvailabilityBitmap effective = availability.copy(fromSlot, toSlot);
+			if (!held.isEmpty()) effective.andNot(held);
+			if (!saturated.isEmpty()) effective.andNot(saturated);
+			return effective;
+		}
+		// Rules are not expanded into the dropped history
+		fromSlot = Math.max(fromSlot, retainedFromSlot);
+
+		AvailabilityBitmap effective = availability.copy(fromSlot, toSlot);
+		for (RecurrenceRule rule : rules) {
+			long ruleToSlot = Math.min(toSlot, expansionEnd(rule, windowFromSlot, windowToSlot));
+			if (fromSlot < ruleToSlot) rule.expand(fromSlot, ruleToSlot, effective, zone);
+		}
+		effective.andNot(blocked);
+		if (!held.isEmpty()) effective.andNot(held);
+		if (!saturated.isEmpty()) effective.andNot(saturated);
+		return effective;
+	}
+
+	/**
+	 * Get the first slot from which the person may be available within a query window: the start of the next
+	 * stored week or the next slot of a rule, whichever is earlier. Removed and held timeslots and the capacity are not checked,
+	 * so the person may still be unavailable there. The caller must hold the lock of the person
+	 *
+	 * @param slot
+	 * @param windowFromSlot first timeslot of the window, inclusive
+	 * @param windowToSlot last timeslot of the window, exclusive
+	 * @return the slot or {@link IntersectionEngine#UNBOUNDED_TO} if the person is available at none of the later slots
+	 */
+	long nextAvailableSlot(long slot, long windowFromSlot, long windowToSlot) {
+		if (load.isClosed()) return IntersectionEngine.UNBOUNDED_TO;
+		NavigableMap<Long, long[]> weeks = availability.getWeeks(availability.weekOf(slot), Long.MAX_VALUE);
+		long next = weeks.isEmpty() ? IntersectionEngine.UNBOUNDED_TO : Math.max(slot, weeks.firstKey() * availability.getSlotsPerWeek());
+		long ruleFromSlot = Math.max(slot, retainedFromSlot);
+		for (RecurrenceRule rule : rules) {
+			long ruleToSlot = Math.min(next, expansionEnd(rule, windowFromSlot, windowToSlot));
+			if (ruleFromSlot < ruleToSlot) next = Math.min(next, rule.nextSlot(ruleFromSlot, ruleToSlot, granularity, zone));
+		}
+		return next;
+	}
+
+	/**
+	 * Get the end of the expansion of a rule for a query window, which is bounded for an open-ended rule
+	 * even if the window is not. The caller must hold the lock of the person
+	 */
+	private long expansionEnd(RecurrenceRule rule, long windowFromSlot, long windowToSlot) {
+		if (windowToSlot != IntersectionEngine.UNBOUNDED_TO) return windowToSlot;
+		return rule.expansionEnd(Math.max(windowFromSlot, retainedFromSlot), granularity, zone, clock);
+	}
+
+	/**
+	 * Add recurring availability, the rule is not expanded until a query needs it
+	 *
+	 * @param rule
+	 */
+	public void addRecurringAvailability(RecurrenceRule rule) {
+		lock.writeLock().lock();
+		try {
+			rules.add(rule);
+			version++;
+			// Timeslots removed earlier become available again if the new rule covers them
+			for (PrimitiveIterator.OfLong slots = blocked.copy().slots(); slots.hasNext(); ) {
+				long slot = slots.nextLong();
+				if (rule.covers(slot, granularity, zone)) blocked.clear(slot);
+			}
+			for (AvailabilityListener listener : listeners)
+				listener.rulesChanged(this, rule, true);
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	public void removeRecurringAvailability(RecurrenceRule rule) {
+		lock.writeLock().lock();
+		try {
+			if (!rules.remove(rule)) return;
+			version++;
+			if (rules.isEmpty()) blocked.clear();
+			for (AvailabilityListener listener : listeners)
+				listener.rulesChanged(this, rule, false);
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	public List<RecurrenceRule> getRecurringAvailability() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(rules);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Check if the person is available at a timeslot
+	 *
+	 * @param timeslot local time of the person's zone
+	 * @return false for a time skipped when the clocks go forward, true for a time repeated
+	 * when they go back if the person is available at either of them
+	 */
+	public boolean isAvailable(Timeslot timeslot) {
+		for (long slot : granularity.slotsOf(timeslot, zone))
+			if (isAvailable(slot)) return true;
+		return false;
+	}
+
+	/**
+	 * Check if the person is available at a slot
+	 *
+	 * @param slot slots since the epoch in the person's granularity
+	 * @return
+	 */
+	public boolean isAvailable(long slot) {
+		lock.readLock().lock();
+		try {
+			if (held.get(slot) || load.isSaturated(slot)) return false;
+			if (availability.get(slot)) return true;
+			if (rules.isEmpty() || blocked.get(slot) || slot < retainedFromSlot) return false;
+			for (RecurrenceRule rule : rules)
+				if (rule.covers(slot, granularity, zone)) return true;
+			return false;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	boolean hasRecurringAvailability() {
+		lock.readLock().lock();
+		try {
+			return !rules.isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the version of the availability, which changes whenever the availability changes
+	 *
+	 * @return
+	 */
+	long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the sequence number of the last journal record applied to the person.
+	 * The caller must hold the lock of the person
+	 *
+	 * @return
+	 */
+	long getJournalSequence() {
+		return journalSequence;
+	}
+
+	void setJournalSequence(long sequence) {
+		journalSequence = sequence;
+	}
+
+	void setMetrics(CalendarMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	void setRetention(RetentionPolicy retention) {
+		this.retention = retention;
+	}
+
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Drop the weeks of history which are entirely older than the retention horizon
+	 */
+	void pruneHistory() {
+		lock.writeLock().lock();
+		try {
+			pruneIfDue();
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Drop whole week chunks before the week of the retention cutoff, once per week.
+	 * Listeners see the dropped weeks as removed timeslots. The caller must hold the write lock
+	 */
+	private void pruneIfDue() {
+		long cutoff = retention.cutoffSlot(granularity);
+		if (cutoff == IntersectionEngine.UNBOUNDED_FROM) return;
+		long week = availability.weekOf(cutoff);
+		long weekStart = week * availability.getSlotsPerWeek();
+		if (weekStart <= retainedFromSlot) return;
+
+		retainedFromSlot = weekStart;
+		blocked.dropWeeksBefore(week);
+		held.dropWeeksBefore(week);
+		long firstDropped = availability.dropWeeksBefore(week);
+		// Expanded rules lose their history as well, so the version changes even if no chunk was dropped
+		version++;
+		if (firstDropped == weekStart) return;
+		for (AvailabilityListener listener : listeners)
+			listener.availabilityChanged(this, firstDropped, weekStart, false);
+	}
+
+	/**
+	 * Get the stored available timeslots, without the recurring availability, the holds and the capacity.
+	 * The caller must hold the lock of the person
+	 *
+	 * @return
+	 */
+	IntervalSet getStoredIntervals() {
+		return availability.toIntervals();
+	}
+
+	/**
+	 * Get the number of stored available timeslots, without the recurring availability and the holds
+	 *
+	 * @return
+	 */
+	public int getAvailableSlotCount() {
+		lock.readLock().lock();
+		try {
+			return availability.cardinality();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Estimate the heap used by the stored timeslots of the person
+	 *
+	 * @return bytes
+	 */
+	public long getEstimatedMemoryBytes() {
+		lock.readLock().lock();
+		try {
+			return availability.estimateBytes() + blocked.estimateBytes();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Limit the number of interviews of the person, days and weeks are local to the person's zone
+	 *
+	 * @param maxInterviewsPerDay
+	 * @param maxInterviewsPerWeek
+	 */
+	public void setCapacity(int maxInterviewsPerDay, int maxInterviewsPerWeek) {
+		lock.writeLock().lock();
+		try {
+			load.setCapacity(maxInterviewsPerDay, maxInterviewsPerWeek);
+			version++;
+			for (AvailabilityListener listener : listeners)
+				listener.bookingsChanged(this, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO);
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	public int getMaxInterviewsPerDay() {
+		lock.readLock().lock();
+		try {
+			return load.getMaxPerDay();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getMaxInterviewsPerWeek() {
+		lock.readLock().lock();
+		try {
+			return load.getMaxPerWeek();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of interviews booked on a day of the person's zone
+	 *
+	 * @param date
+	 * @return
+	 */
+	public int getDayLoad(LocalDate date) {
+		lock.readLock().lock();
+		try {
+			return load.getDayLoad(date);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of interviews booked in the week (Monday to Sunday) of a day of the person's zone
+	 *
+	 * @param date
+	 * @return
+	 */
+	public int getWeekLoad(LocalDate date) {
+		lock.readLock().lock();
+		try {
+			return load.getWeekLoad(date);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of interviews booked on the days of a window
+	 *
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return
+	 */
+	int getLoad(long fromSlot, long toSlot) {
+		lock.readLock().lock();
+		try {
+			return load.getLoad(fromSlot, toSlot);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a private copy of the interviews booked on the days of a window. The caller must hold the lock
+	 *
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return
+	 */
+	InterviewLoad copyLoad(long fromSlot, long toSlot) {
+		return load.copy(fromSlot, toSlot);
+	}
+
+	/**
+	 * Count an interview booked at a slot, or cancel one. The caller must hold the write lock
+	 *
+	 * @param slot
+	 * @param booked true for a booked interview, false for a cancelled one
+	 */
+	void countInterview(long slot, boolean booked) {
+		boolean saturationChanged = load.add(slot, booked ? 1 : -1);
+		// The load is part of the version even if no day reached or left its capacity, it ranks panels and timeslots
+		version++;
+		if (!saturationChanged) return;
+		long fromSlot = load.startOfWeek(slot);
+		long toSlot = load.endOfWeek(slot);
+		for (AvailabilityListener listener : listeners)
+			listener.bookingsChanged(this, fromSlot, toSlot);
+	}
+
+	/**
+	 * Check if some timeslots of the person are held or some days or weeks are at capacity
+	 *
+	 * @return
+	 */
+	boolean isPartlyBooked() {
+		lock.readLock().lock();
+		try {
+			return !held.isEmpty() || load.isClosed() || !load.getSaturated().isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Hide a slot for a reservation. The stored availability does not change, so the hold is neither
+	 * journaled nor saved in snapshots. The caller must hold the write lock
+	 *
+	 * @param slot
+	 */
+	void holdSlot(long slot) {
+		held.set(slot);
+		version++;
+		for (AvailabilityListener listener : listeners)
+			listener.bookingsChanged(this, slot, slot + 1);
 	}
 
+	/**
+	 * Show a slot hidden by {@link #holdSlot(long)} again, unless the slot was added or removed since,
+	 * which has already ended the hold. The caller must hold the write lock
+	 *
+	 * @param slot
+	 * @return true if the slot was shown again
+	 */
+	boolean releaseSlot(long slot) {
+		if (!held.get(slot)) return false;
+		held.clear(slot);
+		version++;
+		for (AvailabilityListener listener : listeners)
+			listener.bookingsChanged(this, slot, slot + 1);
+		return true;
+	}
+
+	void addListener(AvailabilityListener listener) {
+		listeners.add(listener);
+	}
+
+	void removeListener(AvailabilityListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Add the whole hour starting at the given hour, which is several timeslots for a sub-hour granularity
+	 */
 	public void addAvailableTimeslot(int year, int month, int day, int timeslotStartHour) {
-		addAvailableTimeslot(new Timeslot(year, month, day, timeslotStartHour));
+		addAvailableTimeslots(year, month, day, timeslotStartHour, timeslotStartHour + 1);
 	}
 
+	/**
+	 * Add the hours from startHour to endHour of a day in the person's zone
+	 */
 	public void addAvailableTimeslots(int year, int month, int day, int timeslotStartHour, int timeslotEndHour) {
-		for(int startHour = timeslotStartHour; startHour < timeslotEndHour; startHour++)
-			addAvailableTimeslot(year, month, day, startHour);
+		LocalDateTime midnight = LocalDate.of(year, month, day).atStartOfDay();
+		addAvailableRange(midnight.plusHours(timeslotStartHour), midnight.plusHours(timeslotEndHour));
 	}
 
+	/**
+	 * Add a timeslot at a local time of the person's zone, both timeslots of a time repeated when the clocks go back
+	 */
 	public void addAvailableTimeslot(Timeslot timeslot) {
-		if (!availableTimeslots.contains(timeslot)) availableTimeslots.add(timeslot);
+		addAvailableTimeslots(Collections.singleton(timeslot));
 	}
 
 	public void addAvailableTimeslots(Collection<Timeslot> timeslots) {
-		availableTimeslots.addAll(timeslots);
+		addAvailableIntervals(IntervalSet.of(timeslots, granularity, zone));
+	}
+
+	/**
+	 * Add the timeslots between two local times of the person's zone, both aligned to the person's granularity.
+	 * Only the timeslots entirely within the range are added
+	 *
+	 * @param from start of the first available timeslot
+	 * @param to end of the last available timeslot
+	 */
+	public void addAvailableRange(LocalDateTime from, LocalDateTime to) {
+		setAvailable(granularity.slotOf(from, zone, true), granularity.slotOf(to, zone, false));
 	}
 	
+	/**
+	 * Remove the whole hour starting at the given hour, which is several timeslots for a sub-hour granularity
+	 */
 	public void removeUnavailableTimeslot(int year, int month, int day, int timeslotStartHour) {
-		removeUnavailableTimeslot(new Timeslot(year, month, day, timeslotStartHour));
+		removeUnavailableTimeslots(year, month, day, timeslotStartHour, timeslotStartHour + 1);
 	}
 
+	/**
+	 * Remove the hours from startHour to endHour of a day in the person's zone
+	 */
 	public void removeUnavailableTimeslots(int year, int month, int day, int timeslotStartHour, int timeslotEndHour) {
-		for(int startHour = timeslotStartHour; startHour < timeslotEndHour; startHour++)
-			removeUnavailableTimeslot(year, month, day, startHour);
+		LocalDateTime midnight = LocalDate.of(year, month, day).atStartOfDay();
+		removeUnavailableRange(midnight.plusHours(timeslotStartHour), midnight.plusHours(timeslotEndHour));
 	}
 
+	/**
+	 * Remove a timeslot at a local time of the person's zone, both timeslots of a time repeated when the clocks go back
+	 */
 	public void removeUnavailableTimeslot(Timeslot timeslot) {
-		if (availableTimeslots.contains(timeslot)) availableTimeslots.remove(timeslot);
+		removeUnavailableTimeslots(Collections.singleton(timeslot));
 	}
 
 	public void removeUnavailableTimeslots(Collection<Timeslot> timeslots) {
-		availableTimeslots.removeAll(timeslots);
+		removeUnavailableIntervals(IntervalSet.of(timeslots, granularity, zone));
+	}
+
+	/**
+	 * Remove the timeslots between two local times of the person's zone, both aligned to the person's granularity.
+	 * Every timeslot overlapping the range is removed
+	 *
+	 * @param from start of the first unavailable timeslot
+	 * @param to end of the last unavailable timeslot
+	 */
+	public void removeUnavailableRange(LocalDateTime from, LocalDateTime to) {
+		setUnavailable(granularity.slotOf(from, zone, false), granularity.slotOf(to, zone, true));
+	}
+
+	public void addAvailableSlot(long slot) {
+		setAvailable(slot, slot + 1);
+	}
+
+	/**
+	 * Add the slots [fromSlot, toSlot)
+	 *
+	 * @param fromSlot
+	 * @param toSlot
+	 */
+	public void addAvailableSlots(long fromSlot, long toSlot) {
+		setAvailable(fromSlot, toSlot);
+	}
+
+	public void removeUnavailableSlot(long slot) {
+		setUnavailable(slot, slot + 1);
+	}
+
+	/**
+	 * Remove the slots [fromSlot, toSlot)
+	 *
+	 * @param fromSlot
+	 * @param toSlot
+	 */
+	public void removeUnavailableSlots(long fromSlot, long toSlot) {
+		setUnavailable(fromSlot, toSlot);
+	}
+
+	/**
+	 * Get the available slots in ascending order.
+	 * Open-ended recurring availability is included up to {@link RecurrenceRule#OPEN_ENDED_EXPANSION_DAYS} days from today
+	 *
+	 * @return
+	 */
+	public long[] getAvailableSlots() {
+		return snapshot(IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).toArray();
+	}
+
+	/**
+	 * Stream the available slots within a window in ascending order
+	 *
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return
+	 */
+	public LongStream streamAvailableSlots(long fromSlot, long toSlot) {
+		return streamSlotsIntersection(Collections.emptyList(), fromSlot, toSlot);
+	}
+
+	/**
+	 * Add all timeslots covered by the intervals
+	 *
+	 * @param intervals intervals of the person's granularity
+	 */
+	public void addAvailableIntervals(IntervalSet intervals) {
+		checkGranularity(intervals.getGranularity());
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < intervals.size(); i++)
+				setAvailable(intervals.getStartSlot(i), intervals.getEndSlot(i));
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Remove all timeslots covered by the intervals
+	 *
+	 * @param intervals intervals of the person's granularity
+	 */
+	public void removeUnavailableIntervals(IntervalSet intervals) {
+		checkGranularity(intervals.getGranularity());
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < intervals.size(); i++)
+				setUnavailable(intervals.getStartSlot(i), intervals.getEndSlot(i));
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Apply disjoint ranges of added and removed timeslots under a single write lock
+	 *
+	 * @param added
+	 * @param removed
+	 */
+	void applyChanges(IntervalSet added, IntervalSet removed) {
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < added.size(); i++)
+				setAvailable(added.getStartSlot(i), added.getEndSlot(i));
+			for (int i = 0; i < removed.size(); i++)
+				setUnavailable(removed.getStartSlot(i), removed.getEndSlot(i));
+		} finally {
+			unlockWrite();
+		}
+	}
+
+	/**
+	 * Get the available timeslots as ranges of consecutive timeslots
+	 *
+	 * @return
+	 */
+	public IntervalSet getAvailableIntervals() {
+		lock.readLock().lock();
+		try {
+			return getAvailability(IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).toIntervals();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the ranges of timeslots available for this person and all of the given people,
+	 * computed as a linear merge of their interval lists
+	 *
+	 * @param people
+	 * @return
+	 */
+	public IntervalSet getIntervalsIntersection(Collection<Person> people) {
+		IntervalSet possibleIntervals = getAvailableIntervals();
+		for(Person person : people) {
+			if (possibleIntervals.isEmpty()) break;
+			possibleIntervals = possibleIntervals.intersect(person.getAvailableIntervals());
+		}
+		return possibleIntervals;
 	}
 
 	public Set<Timeslot> getTimeslotsIntersection(Person person) {
 		return getTimeslotsIntersection(Collections.singleton(person));
 	}
 
+	/**
+	 * Get the timeslots available for this person and all of the given people
+	 *
+	 * @param people
+	 * @return a read-only set of timeslots at local times of this person's zone, sorted by time
+	 */
 	public Set<Timeslot> getTimeslotsIntersection(Collection<Person> people) {
-		Set<Timeslot> possibleSlots = new TreeSet<Timeslot>();
-		possibleSlots.addAll(availableTimeslots);
+		AvailabilityBitmap possibleSlots = new AvailabilityBitmap(granularity);
+		getTimeslotsIntersection(people, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, possibleSlots);
+		return possibleSlots.asTimeslotSet(zone);
+	}
 
-		for(Person person: people) {
-			possibleSlots.retainAll(person.getAvailableTimeslots());
+	/**
+	 * Compute the timeslots available for this person and all of the given people within a window
+	 *
+	 * @param people
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @param out reusable bitmap receiving the result
+	 * @return true if there is at least one common timeslot
+	 */
+	boolean getTimeslotsIntersection(Collection<Person> people, long fromSlot, long toSlot, AvailabilityBitmap out) {
+		List<Person> locked = lockAll(withPeople(people), false);
+		try {
+			List<AvailabilityBitmap> bitmaps = new ArrayList<>(people.size() + 1);
+			bitmaps.add(getAvailability(fromSlot, toSlot));
+			for(Person person : people)
+				bitmaps.add(person.getAvailability(fromSlot, toSlot));
+			return IntersectionEngine.intersect(bitmaps, fromSlot, toSlot, out);
+		} finally {
+			unlockAll(locked, false);
 		}
+	}
+
+	/**
+	 * Find the blocks of consecutive timeslots within a window which are available for this person and all of the given people
+	 *
+	 * @param people
+	 * @param fromSlot first timeslot of the window, inclusive
+	 * @param toSlot last timeslot of the window, exclusive
+	 * @param minLength minimum number of timeslots in a block
+	 * @param maxBlocks maximum number of blocks
+	 * @return the earliest blocks, each as long as the common availability allows
+	 */
+	IntervalSet findBlocks(Collection<Person> people, long fromSlot, long toSlot, int minLength, int maxBlocks) {
+		List<Person> locked = lockAll(withPeople(people), false);
+		try {
+			List<AvailabilityBitmap> bitmaps = new ArrayList<>(people.size() + 1);
+			bitmaps.add(getAvailability(fromSlot, toSlot));
+			for(Person person : people)
+				bitmaps.add(person.getAvailability(fromSlot, toSlot));
+			return IntersectionEngine.findRuns(bitmaps, fromSlot, toSlot, minLength, maxBlocks);
+		} finally {
+			unlockAll(locked, false);
+		}
+	}
+
+	/**
+	 * Get the slots available for this person and all of the given people
+	 *
+	 * @param people
+	 * @return slots in ascending order
+	 */
+	public long[] getSlotsIntersection(Collection<Person> people) {
+		AvailabilityBitmap possibleSlots = new AvailabilityBitmap(granularity);
+		getTimeslotsIntersection(people, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, possibleSlots);
+		return possibleSlots.toArray();
+	}
+
+	/**
+	 * Stream the slots within a window which are available for this person and all of the given people
+	 *
+	 * @param people
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return a lazy stream of slots in ascending order
+	 */
+	public LongStream streamSlotsIntersection(Collection<Person> people, long fromSlot, long toSlot) {
+		return Slots.stream(iterateTimeslotsIntersection(people, fromSlot, toSlot));
+	}
 
-		return possibleSlots;
+	/**
+	 * Stream the available timeslots within a window, sorted by time
+	 *
+	 * @param from first timeslot of the window, a local time of the person's zone
+	 * @param to first timeslot after the window, a local time of the person's zone
+	 * @return a lazy stream of timeslots at local times of the person's zone
+	 */
+	public Stream<Timeslot> streamAvailableTimeslots(Timeslot from, Timeslot to) {
+		return streamTimeslotsIntersection(Collections.emptyList(), from, to);
+	}
+
+	/**
+	 * Stream the timeslots within a window which are available for this person and all of the given people.
+	 * The timeslots are found week by week while the stream is consumed, each week under the locks taken
+	 * when the stream reaches it, so a limited stream does not pay for the rest of the window
+	 *
+	 * @param people
+	 * @param from first timeslot of the window, a local time of this person's zone
+	 * @param to first timeslot after the window, a local time of this person's zone
+	 * @return a lazy stream of timeslots at local times of this person's zone, sorted by time
+	 */
+	public Stream<Timeslot> streamTimeslotsIntersection(Collection<Person> people, Timeslot from, Timeslot to) {
+		long fromSlot = granularity.slotOf(from.toLocalDateTime(), zone, false);
+		long toSlot = granularity.slotOf(to.toLocalDateTime(), zone, false);
+		return Timeslot.stream(iterateTimeslotsIntersection(people, fromSlot, toSlot), granularity, zone);
+	}
+
+	/**
+	 * Iterate lazily over the slots within a window which are available for this person and all of the given people,
+	 * see {@link IntersectionCursor}
+	 *
+	 * @param people
+	 * @param fromSlot first slot of the window, inclusive
+	 * @param toSlot last slot of the window, exclusive
+	 * @return slots in ascending order
+	 */
+	PrimitiveIterator.OfLong iterateTimeslotsIntersection(Collection<Person> people, long fromSlot, long toSlot) {
+		return new IntersectionCursor(withPeople(people), fromSlot, toSlot).slots();
+	}
+
+	/**
+	 * Write the person to a snapshot under the read lock
+	 *
+	 * @param writer
+	 * @param kind
+	 * @throws IOException
+	 */
+	void saveTo(CalendarSnapshot.Writer writer, byte kind) throws IOException {
+		lock.readLock().lock();
+		try {
+			writer.putPerson(kind, id, name, zone, journalSequence, availability, rules, blocked);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void checkGranularity(SlotGranularity other) {
+		if (!granularity.equals(other))
+			throw new IllegalArgumentException("Person " + id + " has " + granularity + " timeslots, not " + other);
+	}
+
+	private List<Person> withPeople(Collection<Person> people) {
+		List<Person> all = new ArrayList<>(people.size() + 1);
+		all.add(this);
+		all.addAll(people);
+		return all;
+	}
+
+	/**
+	 * Lock several people in ascending order of their ids, so that threads locking
+	 * overlapping groups of people cannot deadlock
+	 *
+	 * @param people
+	 * @param write true to take the write locks, false for the read locks
+	 * @return the locked people in locking order
+	 */
+	static List<Person> lockAll(Collection<Person> people, boolean write) {
+		TreeMap<Integer, Person> ordered = new TreeMap<>();
+		for(Person person : people)
+			ordered.put(person.getId(), person);
+
+		List<Person> locked = new ArrayList<>(ordered.values());
+		for(Person person : locked) {
+			if (write) person.lock.writeLock().lock();
+			else person.lock.readLock().lock();
+		}
+		return locked;
+	}
+
+	/**
+	 * Release the locks taken by {@link #lockAll(Collection, boolean)}
+	 *
+	 * @param locked
+	 * @param write
+	 */
+	static void unlockAll(List<Person> locked, boolean write) {
+		for (int i = locked.size() - 1; i >= 0; i--) {
+			if (write) locked.get(i).lock.writeLock().unlock();
+			else locked.get(i).lock.readLock().unlock();
+		}
+		// Listeners are told only when none of the people is locked any more
+		if (write) {
+			for (Person person : locked) person.completeChanges();
+		}
+	}
+
+	private void unlockWrite() {
+		lock.writeLock().unlock();
+		completeChanges();
+	}
+
+	/**
+	 * Tell the listeners that the changes are complete, unless the write lock is still held by an outer call
+	 */
+	private void completeChanges() {
+		if (lock.isWriteLockedByCurrentThread()) return;
+		for (AvailabilityListener listener : listeners)
+			listener.changesCompleted(this);
+	}
+
+	private void setAvailable(long fromSlot, long toSlot) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		lock.writeLock().lock();
+		try {
+			// Timeslots older than the retained history are not kept
+			pruneIfDue();
+			fromSlot = Math.max(fromSlot, retainedFromSlot);
+			if (fromSlot >= toSlot) return;
+			availability.setRange(fromSlot, toSlot);
+			version++;
+			if (!blocked.isEmpty()) blocked.clearRange(fromSlot, toSlot);
+			if (!held.isEmpty()) held.clearRange(fromSlot, toSlot);
+			for (AvailabilityListener listener : listeners)
+				listener.availabilityChanged(this, fromSlot, toSlot, true);
+		} finally {
+			unlockWrite();
+		}
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.ADD_AVAILABILITY, start);
+	}
+
+	private void setUnavailable(long fromSlot, long toSlot) {
+		CalendarMetrics currentMetrics = metrics;
+		long start = CalendarMetrics.start(currentMetrics);
+		lock.writeLock().lock();
+		try {
+			pruneIfDue();
+			fromSlot = Math.max(fromSlot, retainedFromSlot);
+			if (fromSlot >= toSlot) return;
+			availability.clearRange(fromSlot, toSlot);
+			version++;
+			if (!rules.isEmpty()) blocked.setRange(fromSlot, toSlot);
+			if (!held.isEmpty()) held.clearRange(fromSlot, toSlot);
+			for (AvailabilityListener listener : listeners)
+				listener.availabilityChanged(this, fromSlot, toSlot, false);
+		} finally {
+			unlockWrite();
+		}
+		CalendarMetrics.complete(currentMetrics, CalendarMetrics.Operation.REMOVE_AVAILABILITY, start);
 	}
 }
@@ -0,0 +1,41 @@
+package interviewcalendar;
+
+/**
+ * Ranked timeslot is a common timeslot of a candidate and a panel with its score
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class RankedTimeslot {
+	private final long slot;
+	private final Timeslot timeslot;
+	private final double score;
+
+	RankedTimeslot(long slot, Timeslot timeslot, double score) {
+		this.slot = slot;
+		this.timeslot = timeslot;
+		this.score = score;
+	}
+
+	/**
+	 * Get the slot in the calendar's granularity
+	 *
+	 * @return
+	 */
+	public long getSlot() {
+		return slot;
+	}
+
+	public Timeslot getTimeslot() {
+		return timeslot;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		return timeslot + ": " + score;
+	}
+}
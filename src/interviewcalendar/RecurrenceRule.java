@@ -0,0 +1,297 @@
+package interviewcalendar;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Recurrence rule describes availability which repeats every day or on some days of every week,
+ * e.g. from 9am to 12pm on Tuesdays and Thursdays. Days and hours are local times of the person's zone.
+ * Rules are kept as they are and expanded into UTC timeslots only for the window a query asks about,
+ * each day on its own, so a rule follows the daylight saving time of its zone
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class RecurrenceRule {
+	/**
+	 * Number of days an open-ended rule is expanded to when a query has no upper bound,
+	 * counted from today or from the start of the query, whichever is later
+	 */
+	public static final int OPEN_ENDED_EXPANSION_DAYS = 366;
+
+	private final int daysOfWeek;
+	private final int startHour;
+	private final int endHour;
+	private final LocalDate startDate;
+	private final LocalDate untilDate;
+	private final Set<LocalDate> exceptions;
+
+	private RecurrenceRule(int daysOfWeek, int startHour, int endHour, LocalDate startDate, LocalDate untilDate, Set<LocalDate> exceptions) {
+		if (daysOfWeek == 0) throw new IllegalArgumentException("No days of week");
+		if (startHour < 0 || endHour > 24 || startHour >= endHour)
+			throw new IllegalArgumentException("Invalid hours " + startHour + "-" + endHour);
+		if (untilDate != null && untilDate.isBefore(startDate))
+			throw new IllegalArgumentException("Rule ends before it starts");
+		this.daysOfWeek = daysOfWeek;
+		this.startHour = startHour;
+		this.endHour = endHour;
+		this.startDate = startDate;
+		this.untilDate = untilDate;
+		this.exceptions = exceptions;
+	}
+
+	/**
+	 * Create a rule repeating on the given days of every week, until further notice
+	 *
+	 * @param startDate first day the rule applies to
+	 * @param startHour starting hour of the first available timeslot in 24-hour format
+	 * @param endHour ending hour of the last available timeslot in 24-hour format
+	 * @param days days of week
+	 * @return
+	 */
+	public static RecurrenceRule weekly(LocalDate startDate, int startHour, int endHour, DayOfWeek... days) {
+		int mask = 0;
+		for (DayOfWeek day : days) mask |= 1 << day.ordinal();
+		return new RecurrenceRule(mask, startHour, endHour, startDate, null, Collections.emptySet());
+	}
+
+	/**
+	 * Create a rule repeating every day, until further notice
+	 *
+	 * @param startDate first day the rule applies to
+	 * @param startHour starting hour of the first available timeslot in 24-hour format
+	 * @param endHour ending hour of the last available timeslot in 24-hour format
+	 * @return
+	 */
+	public static RecurrenceRule daily(LocalDate startDate, int startHour, int endHour) {
+		return weekly(startDate, startHour, endHour, DayOfWeek.values());
+	}
+
+	/**
+	 * Create a rule from its stored fields
+	 *
+	 * @param daysOfWeek bit mask of days of week, Monday is the lowest bit
+	 * @param startHour
+	 * @param endHour
+	 * @param startDate
+	 * @param untilDate last day or null
+	 * @param exceptions
+	 * @return
+	 */
+	static RecurrenceRule of(int daysOfWeek, int startHour, int endHour, LocalDate startDate, LocalDate untilDate, Set<LocalDate> exceptions) {
+		Set<LocalDate> copy = exceptions.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(exceptions));
+		return new RecurrenceRule(daysOfWeek, startHour, endHour, startDate, untilDate, copy);
+	}
+
+	/**
+	 * Get a copy of the rule which ends on the given day
+	 *
+	 * @param untilDate last day the rule applies to, inclusive
+	 * @return
+	 */
+	public RecurrenceRule until(LocalDate untilDate) {
+		return new RecurrenceRule(daysOfWeek, startHour, endHour, startDate, untilDate, exceptions);
+	}
+
+	/**
+	 * Get a copy of the rule which skips the given day
+	 *
+	 * @param date
+	 * @return
+	 */
+	public RecurrenceRule except(LocalDate date) {
+		Set<LocalDate> newExceptions = new HashSet<>(exceptions);
+		newExceptions.add(date);
+		return new RecurrenceRule(daysOfWeek, startHour, endHour, startDate, untilDate, Collections.unmodifiableSet(newExceptions));
+	}
+
+	int getDaysOfWeek() {
+		return daysOfWeek;
+	}
+
+	public int getStartHour() {
+		return startHour;
+	}
+
+	public int getEndHour() {
+		return endHour;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	/**
+	 * Get the last day the rule applies to
+	 *
+	 * @return the day or null if the rule repeats until further notice
+	 */
+	public LocalDate getUntilDate() {
+		return untilDate;
+	}
+
+	public Set<LocalDate> getExceptions() {
+		return exceptions;
+	}
+
+	/**
+	 * Check if the rule applies to a day
+	 *
+	 * @param epochDay
+	 * @return
+	 */
+	boolean appliesTo(long epochDay) {
+		if (epochDay < startDate.toEpochDay()) return false;
+		if (untilDate != null && epochDay > untilDate.toEpochDay()) return false;
+		// The epoch day 0 was a Thursday
+		int dayOfWeek = Math.floorMod(epochDay + 3, 7);
+		if ((daysOfWeek & (1 << dayOfWeek)) == 0) return false;
+		return exceptions.isEmpty() || !exceptions.contains(LocalDate.ofEpochDay(epochDay));
+	}
+
+	/**
+	 * Check if the rule makes a timeslot available
+	 *
+	 * @param slot
+	 * @param granularity granularity of the slot
+	 * @param zone zone of the days and hours of the rule
+	 * @return
+	 */
+	boolean covers(long slot, SlotGranularity granularity, ZoneId zone) {
+		long day = localDay(slot, granularity, zone);
+		return appliesTo(day) && slot >= startSlot(day, granularity, zone) && slot < endSlot(day, granularity, zone);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof RecurrenceRule)) return false;
+		RecurrenceRule other = (RecurrenceRule) o;
+		return daysOfWeek == other.daysOfWeek && startHour == other.startHour && endHour == other.endHour
+				&& startDate.equals(other.startDate) && Objects.equals(untilDate, other.untilDate)
+				&& exceptions.equals(other.exceptions);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(daysOfWeek, startHour, endHour, startDate, untilDate, exceptions);
+	}
+
+	/**
+	 * Get the end of the expansion of the rule for a query without an upper bound: the rule's last day,
+	 * or {@link #OPEN_ENDED_EXPANSION_DAYS} days from today or from the start of the query, whichever is later
+	 *
+	 * @param fromSlot first slot of the query, inclusive
+	 * @param granularity
+	 * @param zone zone of the days and hours of the rule
+	 * @param clock clock telling today's date in the zone
+	 * @return first slot after the expansion, {@link IntersectionEngine#UNBOUNDED_TO} for a rule which ends
+	 */
+	long expansionEnd(long fromSlot, SlotGranularity granularity, ZoneId zone, Clock clock) {
+		if (untilDate != null) return IntersectionEngine.UNBOUNDED_TO;
+		// Anchored at today, so a rule which started long ago still reaches into the future
+		long today = clock.instant().atZone(zone).toLocalDate().toEpochDay();
+		long anchor = Math.max(firstDay(fromSlot, granularity, zone), today);
+		return startOfDay(anchor + OPEN_ENDED_EXPANSION_DAYS, granularity, zone);
+	}
+
+	/**
+	 * Set the timeslots of the rule which fall into the window [fromSlot, toSlot).
+	 * The hours of every local day are converted to UTC slots straight into the output
+	 *
+	 * @param fromSlot
+	 * @param toSlot {@link IntersectionEngine#UNBOUNDED_TO} only for a rule which ends, see {@link #expansionEnd}
+	 * @param out receives the timeslots in its granularity
+	 * @param zone zone of the days and hours of the rule
+	 */
+	void expand(long fromSlot, long toSlot, AvailabilityBitmap out, ZoneId zone) {
+		if (untilDate == null && toSlot == IntersectionEngine.UNBOUNDED_TO)
+			throw new IllegalArgumentException("Open-ended rule expanded without an upper bound");
+		SlotGranularity granularity = out.getGranularity();
+		long firstDay = firstDay(fromSlot, granularity, zone);
+		long lastDay = untilDate == null ? Long.MAX_VALUE : untilDate.toEpochDay();
+		if (toSlot != IntersectionEngine.UNBOUNDED_TO) lastDay = Math.min(lastDay, localDay(toSlot - 1, granularity, zone));
+
+		for (long day = firstDay; day <= lastDay; day++) {
+			if (!appliesTo(day)) continue;
+			out.setRange(Math.max(fromSlot, startSlot(day, granularity, zone)), Math.min(toSlot, endSlot(day, granularity, zone)));
+		}
+	}
+
+	/**
+	 * Get the first slot of the rule within the window [fromSlot, toSlot), days are checked one by one
+	 * from the later of the rule's first day and the day of fromSlot
+	 *
+	 * @param fromSlot
+	 * @param toSlot {@link IntersectionEngine#UNBOUNDED_TO} only for a rule which ends, as for {@link #expand}
+	 * @param granularity
+	 * @param zone zone of the days and hours of the rule
+	 * @return the slot or {@link IntersectionEngine#UNBOUNDED_TO} if the rule has none within the window
+	 */
+	long nextSlot(long fromSlot, long toSlot, SlotGranularity granularity, ZoneId zone) {
+		if (untilDate == null && toSlot == IntersectionEngine.UNBOUNDED_TO)
+			throw new IllegalArgumentException("Open-ended rule searched without an upper bound");
+		long lastDay = untilDate == null ? Long.MAX_VALUE : untilDate.toEpochDay();
+		if (toSlot != IntersectionEngine.UNBOUNDED_TO) lastDay = Math.min(lastDay, localDay(toSlot - 1, granularity, zone));
+
+		for (long day = firstDay(fromSlot, granularity, zone); day <= lastDay; day++) {
+			if (!appliesTo(day)) continue;
+			long start = Math.max(fromSlot, startSlot(day, granularity, zone));
+			if (start < Math.min(toSlot, endSlot(day, granularity, zone))) return start;
+		}
+		return IntersectionEngine.UNBOUNDED_TO;
+	}
+
+	/**
+	 * Get the first local day of the rule within a window starting at a slot
+	 */
+	private long firstDay(long fromSlot, SlotGranularity granularity, ZoneId zone) {
+		long firstDay = startDate.toEpochDay();
+		if (fromSlot == IntersectionEngine.UNBOUNDED_FROM) return firstDay;
+		return Math.max(firstDay, localDay(fromSlot, granularity, zone));
+	}
+
+	/**
+	 * Get the local day of a zone on which a slot starts
+	 *
+	 * @param slot
+	 * @param granularity
+	 * @param zone
+	 * @return epoch day
+	 */
+	private static long localDay(long slot, SlotGranularity granularity, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return Math.floorDiv(slot, granularity.getSlotsPerDay());
+		return granularity.toZonedDateTime(slot, zone).toLocalDate().toEpochDay();
+	}
+
+	/**
+	 * Get the first slot of a local day
+	 */
+	private static long startOfDay(long day, SlotGranularity granularity, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return day * granularity.getSlotsPerDay();
+		return granularity.slotOf(LocalDate.ofEpochDay(day).atStartOfDay(), zone, true);
+	}
+
+	/**
+	 * Get the first slot of the rule on a local day, only whole timeslots within the hours of the rule count
+	 */
+	private long startSlot(long day, SlotGranularity granularity, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return day * granularity.getSlotsPerDay() + startHour * granularity.getSlotsPerHour();
+		return granularity.slotOf(LocalDate.ofEpochDay(day).atTime(startHour, 0), zone, true);
+	}
+
+	/**
+	 * Get the first slot after the rule on a local day
+	 */
+	private long endSlot(long day, SlotGranularity granularity, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return day * granularity.getSlotsPerDay() + endHour * granularity.getSlotsPerHour();
+		return granularity.slotOf(LocalDate.ofEpochDay(day).atStartOfDay().plusHours(endHour), zone, false);
+	}
+}
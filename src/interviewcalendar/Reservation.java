@@ -0,0 +1,93 @@
+package interviewcalendar;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reservation is a timeslot claimed for a candidate and a panel of interviewers. The timeslot is hidden
+ * from everybody's availability while the reservation is held or confirmed, and shown again when it is
+ * released or when a hold expires without being confirmed, except to the participants who changed it meanwhile
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class Reservation {
+	public enum State {
+		HELD,
+		CONFIRMED,
+		RELEASED,
+		EXPIRED
+	}
+
+	private final long id;
+	private final int candidateID;
+	private final List<Integer> interviewersIDs;
+	private final Timeslot timeslot;
+	private final long slot;
+	private final Instant expiresAt;
+	// The candidate followed by the interviewers
+	private final List<Person> participants;
+	private final AtomicReference<State> state;
+
+	Reservation(long id, int candidateID, List<Integer> interviewersIDs, Timeslot timeslot, long slot, Instant expiresAt,
+			List<Person> participants, State state) {
+		this.id = id;
+		this.candidateID = candidateID;
+		this.interviewersIDs = Collections.unmodifiableList(interviewersIDs);
+		this.timeslot = timeslot;
+		this.slot = slot;
+		this.expiresAt = expiresAt;
+		this.participants = participants;
+		this.state = new AtomicReference<>(state);
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public int getCandidateID() {
+		return candidateID;
+	}
+
+	public List<Integer> getInterviewersIDs() {
+		return interviewersIDs;
+	}
+
+	public Timeslot getTimeslot() {
+		return timeslot;
+	}
+
+	/**
+	 * Get the time at which an unconfirmed hold expires
+	 *
+	 * @return
+	 */
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public State getState() {
+		return state.get();
+	}
+
+	long getSlot() {
+		return slot;
+	}
+
+	List<Person> getParticipants() {
+		return participants;
+	}
+
+	/**
+	 * Move the reservation from one state to another, only one of concurrent transitions succeeds
+	 *
+	 * @param from
+	 * @param to
+	 * @return true if the reservation was in the expected state
+	 */
+	boolean transition(State from, State to) {
+		return state.compareAndSet(from, to);
+	}
+}
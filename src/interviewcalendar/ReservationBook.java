@@ -0,0 +1,153 @@
+package interviewcalendar;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reservation book claims timeslots for several people at once. A claim takes the write locks
+ * of all participants in ascending order of their ids, the same order every multi-person operation
+ * locks in, so concurrent claims of overlapping panels cannot deadlock, and claims of disjoint panels
+ * do not wait for each other. Holds which are not confirmed in time are expired lazily by the next claim.
+ * Held and confirmed reservations count against the capacity of the participants.
+ *
+ * A reservation hides its slot from the participants without changing their stored availability,
+ * so neither the journal nor a snapshot sees it. The book lives in memory only: reservations and the interviews
+ * they counted are gone after a restart, and their slots are available again
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class ReservationBook {
+	private final Clock clock;
+	private final AtomicLong nextID = new AtomicLong(1);
+	private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+	// Unconfirmed holds by expiry, confirmed and released ones are skipped when they come up
+	private final PriorityQueue<Reservation> holds = new PriorityQueue<>(Comparator.comparing(Reservation::getExpiresAt));
+
+	ReservationBook(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Claim a slot for all participants, all or nothing
+	 *
+	 * @param candidate
+	 * @param interviewers
+	 * @param slot
+	 * @param holdFor time to confirm the hold, null for a reservation which is confirmed at once
+	 * @return the reservation or null if a participant is not available at the slot
+	 */
+	Reservation claim(Person candidate, List<Person> interviewers, long slot, Duration holdFor) {
+		expireHolds();
+		List<Person> participants = new ArrayList<>(interviewers.size() + 1);
+		participants.add(candidate);
+		participants.addAll(interviewers);
+
+		List<Person> locked = Person.lockAll(participants, true);
+		try {
+			for (Person person : locked)
+				if (!person.isAvailable(slot)) return null;
+			for (Person person : locked) {
+				person.holdSlot(slot);
+				person.countInterview(slot, true);
+			}
+		} finally {
+			Person.unlockAll(locked, true);
+		}
+
+		List<Integer> interviewersIDs = new ArrayList<>(interviewers.size());
+		for (Person interviewer : interviewers) interviewersIDs.add(interviewer.getId());
+		Instant expiresAt = holdFor == null ? Instant.MAX : clock.instant().plus(holdFor);
+		Reservation reservation = new Reservation(nextID.getAndIncrement(), candidate.getId(), interviewersIDs,
+				candidate.getGranularity().toTimeslot(slot), slot, expiresAt, participants,
+				holdFor == null ? Reservation.State.CONFIRMED : Reservation.State.HELD);
+		reservations.put(reservation.getId(), reservation);
+		if (holdFor != null) {
+			synchronized (holds) {
+				holds.add(reservation);
+			}
+		}
+		return reservation;
+	}
+
+	Reservation get(long id) {
+		return reservations.get(id);
+	}
+
+	/**
+	 * Confirm a hold which has not expired yet
+	 *
+	 * @param id
+	 * @return true if the hold is confirmed
+	 */
+	boolean confirm(long id) {
+		Reservation reservation = reservations.get(id);
+		if (reservation == null) return false;
+		if (!clock.instant().isBefore(reservation.getExpiresAt())) {
+			expire(reservation);
+			return false;
+		}
+		return reservation.transition(Reservation.State.HELD, Reservation.State.CONFIRMED);
+	}
+
+	/**
+	 * Release a held or confirmed reservation, giving the timeslot back to the participants
+	 *
+	 * @param id
+	 * @return true if the reservation was released by this call
+	 */
+	boolean release(long id) {
+		Reservation reservation = reservations.get(id);
+		if (reservation == null) return false;
+		if (!reservation.transition(Reservation.State.HELD, Reservation.State.RELEASED)
+				&& !reservation.transition(Reservation.State.CONFIRMED, Reservation.State.RELEASED)) return false;
+		giveBack(reservation);
+		return true;
+	}
+
+	/**
+	 * Expire the holds which were not confirmed in time
+	 *
+	 * @return number of expired holds
+	 */
+	int expireHolds() {
+		Instant now = clock.instant();
+		int expired = 0;
+		while (true) {
+			Reservation reservation;
+			synchronized (holds) {
+				if (holds.isEmpty() || now.isBefore(holds.peek().getExpiresAt())) return expired;
+				reservation = holds.poll();
+			}
+			if (expire(reservation)) expired++;
+		}
+	}
+
+	private boolean expire(Reservation reservation) {
+		if (!reservation.transition(Reservation.State.HELD, Reservation.State.EXPIRED)) return false;
+		giveBack(reservation);
+		return true;
+	}
+
+	private void giveBack(Reservation reservation) {
+		reservations.remove(reservation.getId());
+		List<Person> locked = Person.lockAll(reservation.getParticipants(), true);
+		try {
+			for (Person person : locked) {
+				person.countInterview(reservation.getSlot(), false);
+				// A participant who changed the slot during the reservation keeps the change
+				person.releaseSlot(reservation.getSlot());
+			}
+		} finally {
+			Person.unlockAll(locked, true);
+		}
+	}
+}
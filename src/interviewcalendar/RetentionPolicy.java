@@ -0,0 +1,51 @@
+package interviewcalendar;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Retention policy tells how much history a calendar keeps: timeslots older than the horizon
+ * are dropped a whole week chunk at a time. Slots are read as UTC times of the clock
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class RetentionPolicy {
+	/**
+	 * Policy which keeps the whole history
+	 */
+	static final RetentionPolicy KEEP_ALL = new RetentionPolicy(null, Clock.systemUTC());
+
+	private static final long MILLIS_PER_MINUTE = 60_000;
+
+	private final Duration horizon;
+	private final long horizonMillis;
+	private final Clock clock;
+
+	RetentionPolicy(Duration horizon, Clock clock) {
+		if (horizon != null && horizon.isNegative()) throw new IllegalArgumentException("Negative retention " + horizon);
+		this.horizon = horizon;
+		this.horizonMillis = horizon == null ? 0 : horizon.toMillis();
+		this.clock = clock;
+	}
+
+	/**
+	 * Get the horizon
+	 *
+	 * @return the horizon or null if the whole history is kept
+	 */
+	Duration getHorizon() {
+		return horizon;
+	}
+
+	/**
+	 * Get the first slot which must be kept
+	 *
+	 * @param granularity
+	 * @return the slot or {@link IntersectionEngine#UNBOUNDED_FROM} if the whole history is kept
+	 */
+	long cutoffSlot(SlotGranularity granularity) {
+		if (horizon == null) return IntersectionEngine.UNBOUNDED_FROM;
+		return Math.floorDiv(clock.millis() - horizonMillis, granularity.getMinutesPerSlot() * MILLIS_PER_MINUTE);
+	}
+}
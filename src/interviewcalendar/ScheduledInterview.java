@@ -0,0 +1,43 @@
+package interviewcalendar;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scheduled interview is an interview request with the panel and the timeslot assigned to it
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class ScheduledInterview {
+	private final InterviewRequest request;
+	private final List<Integer> interviewersIDs;
+	private final Timeslot timeslot;
+
+	ScheduledInterview(InterviewRequest request, List<Integer> interviewersIDs, Timeslot timeslot) {
+		this.request = request;
+		this.interviewersIDs = Collections.unmodifiableList(interviewersIDs);
+		this.timeslot = timeslot;
+	}
+
+	public InterviewRequest getRequest() {
+		return request;
+	}
+
+	public int getCandidateID() {
+		return request.getCandidateID();
+	}
+
+	public List<Integer> getInterviewersIDs() {
+		return interviewersIDs;
+	}
+
+	public Timeslot getTimeslot() {
+		return timeslot;
+	}
+
+	@Override
+	public String toString() {
+		return getCandidateID() + " with " + interviewersIDs + " at " + timeslot.getID();
+	}
+}
@@ -0,0 +1,240 @@
+package interviewcalendar;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Slot granularity is the length of the timeslots of a calendar, a number of minutes which divides an hour.
+ * A slot is the number of such timeslots since the epoch (1970/01/01 00:00), so hourly slots are the ones
+ * of {@link Slots}. Bitmaps keep a week of slots per chunk whatever the granularity, so a finer granularity
+ * only widens the chunks of the weeks which have timeslots. Slots count UTC time, local times of other zones
+ * are converted when they enter or leave a calendar
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class SlotGranularity {
+	public static final SlotGranularity HOURLY = new SlotGranularity(60);
+
+	private static final int MINUTES_PER_HOUR = 60;
+	private static final int SECONDS_PER_MINUTE = 60;
+
+	private final int minutesPerSlot;
+	private final int slotsPerHour;
+	private final long secondsPerSlot;
+
+	private SlotGranularity(int minutesPerSlot) {
+		this.minutesPerSlot = minutesPerSlot;
+		this.slotsPerHour = MINUTES_PER_HOUR / minutesPerSlot;
+		this.secondsPerSlot = (long) minutesPerSlot * SECONDS_PER_MINUTE;
+	}
+
+	/**
+	 * Get the granularity of timeslots of the given length
+	 *
+	 * @param minutes length of a timeslot, must divide an hour, e.g. 15 or 30
+	 * @return
+	 */
+	public static SlotGranularity ofMinutes(int minutes) {
+		if (minutes <= 0 || MINUTES_PER_HOUR % minutes != 0)
+			throw new IllegalArgumentException("Timeslot length must divide an hour: " + minutes);
+		return minutes == MINUTES_PER_HOUR ? HOURLY : new SlotGranularity(minutes);
+	}
+
+	public int getMinutesPerSlot() {
+		return minutesPerSlot;
+	}
+
+	public int getSlotsPerHour() {
+		return slotsPerHour;
+	}
+
+	int getSlotsPerDay() {
+		return slotsPerHour * Slots.HOURS_PER_DAY;
+	}
+
+	/**
+	 * Get the slot of a date and time
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param hour hour in 24-hour format
+	 * @param minute minute of the hour, a multiple of the timeslot length
+	 * @return slots since the epoch
+	 */
+	public long slotOf(int year, int month, int day, int hour, int minute) {
+		return ofHours(Slots.of(year, month, day, hour)) + slotOfMinute(minute);
+	}
+
+	/**
+	 * Get the slot of a date and time
+	 *
+	 * @param dateTime date and time, a multiple of the timeslot length after the hour
+	 * @return slots since the epoch
+	 */
+	public long slotOf(LocalDateTime dateTime) {
+		if (dateTime.getSecond() != 0 || dateTime.getNano() != 0)
+			throw new IllegalArgumentException("Time is not aligned to " + minutesPerSlot + " minutes: " + dateTime);
+		return slotOf(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute());
+	}
+
+	/**
+	 * Get the slot of a time in any zone
+	 *
+	 * @param dateTime time at a multiple of the timeslot length since the epoch
+	 * @return slots since the epoch
+	 */
+	public long slotOf(ZonedDateTime dateTime) {
+		Instant instant = dateTime.toInstant();
+		if (floorSlot(instant) != ceilSlot(instant))
+			throw new IllegalArgumentException("Time is not aligned to " + minutesPerSlot + " minutes: " + dateTime);
+		return floorSlot(instant);
+	}
+
+	/**
+	 * Get the start of a slot in a zone
+	 *
+	 * @param slot slots since the epoch
+	 * @param zone
+	 * @return
+	 */
+	public ZonedDateTime toZonedDateTime(long slot, ZoneId zone) {
+		return Instant.ofEpochSecond(slot * secondsPerSlot).atZone(zone);
+	}
+
+	/**
+	 * Get the slot of the timeslot containing an instant
+	 *
+	 * @param instant
+	 * @return slots since the epoch
+	 */
+	long floorSlot(Instant instant) {
+		return Math.floorDiv(instant.getEpochSecond(), secondsPerSlot);
+	}
+
+	/**
+	 * Get the slot of the first timeslot starting at or after an instant
+	 *
+	 * @param instant
+	 * @return slots since the epoch
+	 */
+	long ceilSlot(Instant instant) {
+		long slot = floorSlot(instant);
+		return slot * secondsPerSlot == instant.getEpochSecond() && instant.getNano() == 0 ? slot : slot + 1;
+	}
+
+	/**
+	 * Get the slot of a local time of a zone, the daylight saving time of the zone is applied here once.
+	 * In zones whose offset is not a multiple of the timeslot length the time falls inside a timeslot
+	 *
+	 * @param dateTime local time, a multiple of the timeslot length after the hour
+	 * @param zone
+	 * @param roundUp true for the next timeslot, false for the timeslot containing the time
+	 * @return slots since the epoch
+	 */
+	long slotOf(LocalDateTime dateTime, ZoneId zone, boolean roundUp) {
+		long localSlot = slotOf(dateTime);
+		if (zone.equals(ZoneOffset.UTC)) return localSlot;
+		Instant instant = dateTime.atZone(zone).toInstant();
+		return roundUp ? ceilSlot(instant) : floorSlot(instant);
+	}
+
+	/**
+	 * Get the slot of the first timeslot of a date
+	 *
+	 * @param date
+	 * @return slots since the epoch
+	 */
+	public long slotOf(LocalDate date) {
+		return ofHours(Slots.of(date));
+	}
+
+	/**
+	 * Get the slot of a timeslot
+	 *
+	 * @param timeslot timeslot starting at a multiple of the timeslot length after the hour
+	 * @return slots since the epoch
+	 */
+	public long slotOf(Timeslot timeslot) {
+		return ofHours(Slots.of(timeslot.getYear(), timeslot.getMonth(), timeslot.getDay(), timeslot.getStartHour()))
+				+ slotOfMinute(timeslot.getStartMinute());
+	}
+
+	/**
+	 * Get the slots starting at a local time of a zone: none if the clocks skipped the time,
+	 * two if they went back over it
+	 *
+	 * @param timeslot local time of the zone, starting at a multiple of the timeslot length since the epoch
+	 * @param zone
+	 * @return slots since the epoch in ascending order
+	 */
+	long[] slotsOf(Timeslot timeslot, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return new long[] {slotOf(timeslot)};
+		LocalDateTime time = timeslot.toLocalDateTime();
+		ZonedDateTime earlier = time.atZone(zone);
+		if (!earlier.toLocalDateTime().equals(time)) return new long[0];
+		ZonedDateTime later = earlier.withLaterOffsetAtOverlap();
+		if (later.equals(earlier)) return new long[] {slotOf(earlier)};
+		return new long[] {slotOf(earlier), slotOf(later)};
+	}
+
+	/**
+	 * Get the timeslot of a slot
+	 *
+	 * @param slot slots since the epoch
+	 * @return
+	 */
+	public Timeslot toTimeslot(long slot) {
+		long hourSlot = Math.floorDiv(slot, slotsPerHour);
+		return new Timeslot(hourSlot, Math.floorMod(slot, slotsPerHour) * minutesPerSlot);
+	}
+
+	/**
+	 * Get the timeslot of a slot at the local time of a zone
+	 *
+	 * @param slot slots since the epoch
+	 * @param zone
+	 * @return
+	 */
+	Timeslot toTimeslot(long slot, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return toTimeslot(slot);
+		LocalDateTime time = toZonedDateTime(slot, zone).toLocalDateTime();
+		return new Timeslot(time.getYear(), time.getMonthValue(), time.getDayOfMonth(), time.getHour(), time.getMinute());
+	}
+
+	/**
+	 * Convert an hourly slot to the slot of its first timeslot
+	 *
+	 * @param hourSlot hours since the epoch, see {@link Slots}
+	 * @return slots since the epoch
+	 */
+	long ofHours(long hourSlot) {
+		return hourSlot * slotsPerHour;
+	}
+
+	private int slotOfMinute(int minute) {
+		if (minute < 0 || minute >= MINUTES_PER_HOUR || minute % minutesPerSlot != 0)
+			throw new IllegalArgumentException("Minute is not aligned to " + minutesPerSlot + " minutes: " + minute);
+		return minute / minutesPerSlot;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof SlotGranularity && ((SlotGranularity) o).minutesPerSlot == minutesPerSlot;
+	}
+
+	@Override
+	public int hashCode() {
+		return minutesPerSlot;
+	}
+
+	@Override
+	public String toString() {
+		return minutesPerSlot + " min";
+	}
+}
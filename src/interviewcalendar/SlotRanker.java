@@ -0,0 +1,74 @@
+package interviewcalendar;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+
+/**
+ * Slot ranker selects the best scored slots of a stream of common slots. Only the best slots found
+ * so far are kept, in a heap with the worst of them on top, so a window with many common slots
+ * costs one score and at most one heap update per slot, and only the selected slots are sorted.
+ * Slots are scored week by week against the state of the people copied with them
+ *
+ * @author Lina Gafurova
+ *
+ */
+final class SlotRanker {
+	// Best slots first: higher score, then earlier slot
+	static final Comparator<RankedTimeslot> RANKING = Comparator.comparingDouble(RankedTimeslot::getScore).reversed()
+			.thenComparingLong(RankedTimeslot::getSlot);
+
+	private final SlotScorer scorer;
+	private final int maxResults;
+	// Worst of the best slots found so far on top
+	private final PriorityQueue<RankedTimeslot> best;
+
+	SlotRanker(SlotScorer scorer, int maxResults) {
+		if (maxResults < 1) throw new IllegalArgumentException("Number of results must be positive");
+		this.scorer = scorer;
+		this.maxResults = maxResults;
+		this.best = new PriorityQueue<>(maxResults + 1, RANKING.reversed());
+	}
+
+	/**
+	 * Rank the common slots of a cursor which copies the state of the people
+	 *
+	 * @param cursor
+	 * @return at most maxResults slots, best first
+	 */
+	List<RankedTimeslot> rank(IntersectionCursor cursor) {
+		while (cursor.next()) add(cursor.getSlots().slots(), cursor.getState());
+		return getRanked();
+	}
+
+	/**
+	 * Score slots which come after all slots added before
+	 *
+	 * @param slots common slots in ascending order
+	 * @param panel state of the people copied with the slots
+	 */
+	void add(PrimitiveIterator.OfLong slots, PanelState panel) {
+		SlotGranularity granularity = panel.getGranularity();
+		while (slots.hasNext()) {
+			long slot = slots.nextLong();
+			double score = scorer.score(slot, panel);
+			// Slots come in ascending order, so a later slot must score strictly higher to replace one
+			if (best.size() == maxResults && score <= best.peek().getScore()) continue;
+			best.add(new RankedTimeslot(slot, granularity.toTimeslot(slot), score));
+			if (best.size() > maxResults) best.poll();
+		}
+	}
+
+	/**
+	 * Get the best slots added so far
+	 *
+	 * @return at most maxResults slots, best first
+	 */
+	List<RankedTimeslot> getRanked() {
+		List<RankedTimeslot> ranked = new ArrayList<>(best);
+		ranked.sort(RANKING);
+		return ranked;
+	}
+}
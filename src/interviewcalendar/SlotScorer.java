@@ -0,0 +1,90 @@
+package interviewcalendar;
+
+import java.time.ZoneId;
+
+/**
+ * Slot scorer tells how good a common slot is for an interview, higher scores are better.
+ * Scorers are called for every common slot of a ranking query, so they should be cheap, and they read
+ * the people's state copied together with the slots rather than the people themselves
+ *
+ * @author Lina Gafurova
+ *
+ */
+@FunctionalInterface
+public interface SlotScorer {
+	/**
+	 * Score a slot
+	 *
+	 * @param slot a slot available for all of the people, in their granularity
+	 * @param panel state of the candidate and the interviewers
+	 * @return the score, higher is better
+	 */
+	double score(long slot, PanelState panel);
+
+	/**
+	 * Get a scorer adding the weighted score of another scorer to this one
+	 *
+	 * @param other
+	 * @param weight
+	 * @return
+	 */
+	default SlotScorer plus(SlotScorer other, double weight) {
+		return (slot, panel) -> score(slot, panel) + weight * other.score(slot, panel);
+	}
+
+	/**
+	 * Get a scorer which gives every slot the same score, so the earliest slots rank first
+	 *
+	 * @return
+	 */
+	static SlotScorer earliest() {
+		return (slot, panel) -> 0;
+	}
+
+	/**
+	 * Get a scorer preferring the slots which leave the free time of the people least fragmented:
+	 * a slot scores a point for every person and side on which it touches an unavailable slot
+	 *
+	 * @return a score between 0 and twice the number of people
+	 */
+	static SlotScorer leastFragmenting() {
+		return (slot, panel) -> {
+			int score = 0;
+			for (int i = 0; i < panel.size(); i++) {
+				if (!panel.isAvailable(i, slot - 1)) score++;
+				if (!panel.isAvailable(i, slot + 1)) score++;
+			}
+			return score;
+		};
+	}
+
+	/**
+	 * Get a scorer preferring the slots on the days on which the interviewers have the fewest interviews
+	 *
+	 * @return minus the number of interviews of the interviewers on the day of the slot
+	 */
+	static SlotScorer leastLoaded() {
+		return (slot, panel) -> {
+			int load = 0;
+			for (int i = 1; i < panel.size(); i++) load += panel.getLoad(i, slot);
+			return -load;
+		};
+	}
+
+	/**
+	 * Get a scorer preferring the slots starting within the given hours of a zone
+	 *
+	 * @param startHour first preferred hour, inclusive
+	 * @param endHour last preferred hour, exclusive
+	 * @param zone
+	 * @return 1 for the preferred slots, 0 for the others
+	 */
+	static SlotScorer preferredHours(int startHour, int endHour, ZoneId zone) {
+		if (startHour < 0 || endHour > Slots.HOURS_PER_DAY || startHour >= endHour)
+			throw new IllegalArgumentException("Invalid hours " + startHour + "-" + endHour);
+		return (slot, panel) -> {
+			int hour = panel.getGranularity().toZonedDateTime(slot, zone).getHour();
+			return hour >= startHour && hour < endHour ? 1 : 0;
+		};
+	}
+}
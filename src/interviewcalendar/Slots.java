@@ -0,0 +1,132 @@
+package interviewcalendar;
+
+import java.time.LocalDate;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Slots encode 1-hour timeslots as contiguous primitive numbers: the number of hours since the epoch
+ * (1970/01/01 00:00), so the last hour of a day and the first hour of the next day are adjacent.
+ * Conversions use integer arithmetic only and allocate nothing
+ *
+ * @author Lina Gafurova
+ *
+ */
+public final class Slots {
+	public static final int HOURS_PER_DAY = 24;
+
+	private Slots() {
+	}
+
+	/**
+	 * Get the slot of a date and hour
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param hour hour in 24-hour format
+	 * @return hours since the epoch
+	 */
+	public static long of(int year, int month, int day, int hour) {
+		return epochDay(year, month, day) * HOURS_PER_DAY + hour;
+	}
+
+	/**
+	 * Get the slot of the first hour of a date
+	 *
+	 * @param date
+	 * @return hours since the epoch
+	 */
+	public static long of(LocalDate date) {
+		return date.toEpochDay() * HOURS_PER_DAY;
+	}
+
+	public static int getYear(long slot) {
+		return getDate(slot) / 10000;
+	}
+
+	public static int getMonth(long slot) {
+		return getDate(slot) / 100 % 100;
+	}
+
+	public static int getDay(long slot) {
+		return getDate(slot) % 100;
+	}
+
+	public static int getHour(long slot) {
+		return Math.floorMod(slot, HOURS_PER_DAY);
+	}
+
+	public static long getEpochDay(long slot) {
+		return Math.floorDiv(slot, HOURS_PER_DAY);
+	}
+
+	/**
+	 * Get the date of a slot
+	 *
+	 * @param slot
+	 * @return the date in the format yyyymmdd
+	 */
+	public static int getDate(long slot) {
+		// Days since 0000/03/01, so that the leap day is the last day of a year
+		long days = getEpochDay(slot) + 719468;
+		long era = Math.floorDiv(days, 146097);
+		int dayOfEra = (int) (days - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+		return year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * Wrap ascending slots into a lazy stream
+	 *
+	 * @param slots
+	 * @return
+	 */
+	static LongStream stream(PrimitiveIterator.OfLong slots) {
+		int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+		return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(slots, characteristics), false);
+	}
+
+	/**
+	 * Get the number of days between the epoch and a date
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @return
+	 */
+	static long epochDay(int year, int month, int day) {
+		if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month))
+			throw new IllegalArgumentException("Invalid date " + year + "/" + month + "/" + day);
+
+		// Count years from March, so that the leap day is the last day of a year
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		int yearOfEra = (int) (y - era * 400);
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+}
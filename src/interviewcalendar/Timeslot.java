@@ -1,17 +1,74 @@
 package interviewcalendar;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
- * Timeslot is a 1-hour period defined by date and start hour, 
- * which together comprise its unique id
+ * Timeslot is a period defined by date and start hour, which together comprise its id,
+ * and the start minute for timeslots shorter than an hour, see {@link SlotGranularity}
  * 
  * @author Lina Gafurova
  *
  */
 public class Timeslot implements Comparable<Timeslot> {
 	private int id;
+	private int minute;
 	
 	Timeslot(int year, int month, int day, int startHour) {
-		id = (int) (year * 1e6 + month * 1e4 + day * 1e2 + startHour);
+		id = year * 1000000 + month * 10000 + day * 100 + startHour;
+	}
+
+	/**
+	 * Create timeslot starting after the hour
+	 *
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @param startHour
+	 * @param startMinute
+	 */
+	public Timeslot(int year, int month, int day, int startHour, int startMinute) {
+		this(year, month, day, startHour);
+		if (startMinute < 0 || startMinute >= 60) throw new IllegalArgumentException("Invalid minute " + startMinute);
+		minute = startMinute;
+	}
+
+	/**
+	 * Create timeslot from its slot
+	 *
+	 * @param slot hours since the epoch, see {@link Slots}
+	 */
+	Timeslot(long slot) {
+		id = Slots.getDate(slot) * 100 + Slots.getHour(slot);
+	}
+
+	/**
+	 * Create timeslot from its hour and start minute
+	 *
+	 * @param hourSlot hours since the epoch, see {@link Slots}
+	 * @param startMinute
+	 */
+	Timeslot(long hourSlot, int startMinute) {
+		this(hourSlot);
+		minute = startMinute;
+	}
+
+	/**
+	 * Get the timeslot of a slot
+	 *
+	 * @param slot hours since the epoch, see {@link Slots}
+	 * @return
+	 */
+	public static Timeslot ofSlot(long slot) {
+		return new Timeslot(slot);
 	}
 	
 	/**
@@ -24,27 +81,118 @@ public class Timeslot implements Comparable<Timeslot> {
 	}
 	
 	public int getYear() {
-		return (int) (id / 1e6);
+		return id / 1000000;
 	}
 	
 	public int getMonth() {
-		return (int) ((id % 1e6) / 1e4);
+		return id / 10000 % 100;
 	}
 	
 	public int getDay() {
-		return (int) ((id % 1e4) / 1e2);
+		return id / 100 % 100;
 	}
 	
 	public int getStartHour() {
-		return (int) (id % 1e2);
+		return id % 100;
+	}
+
+	public int getStartMinute() {
+		return minute;
 	}
 	
+	/**
+	 * Get the slot of the hour the timeslot starts in, its contiguous primitive encoding.
+	 * Slots of other granularities are given by {@link SlotGranularity#slotOf(Timeslot)}
+	 *
+	 * @return hours since the epoch, see {@link Slots}
+	 */
+	public long getSlot() {
+		return Slots.of(getYear(), getMonth(), getDay(), getStartHour());
+	}
+
+	LocalDateTime toLocalDateTime() {
+		return LocalDateTime.of(getYear(), getMonth(), getDay(), getStartHour(), minute);
+	}
+
+	/**
+	 * Wrap ascending timeslot indexes into a lazy stream of timeslots
+	 *
+	 * @param slots
+	 * @param granularity granularity of the slots
+	 * @return
+	 */
+	static Stream<Timeslot> stream(PrimitiveIterator.OfLong slots, SlotGranularity granularity) {
+		Iterator<Timeslot> timeslots = new Iterator<Timeslot>() {
+			@Override
+			public boolean hasNext() {
+				return slots.hasNext();
+			}
+
+			@Override
+			public Timeslot next() {
+				return granularity.toTimeslot(slots.nextLong());
+			}
+		};
+		return stream(timeslots);
+	}
+
+	/**
+	 * Wrap ascending timeslot indexes into a lazy stream of timeslots at local times of a zone.
+	 * A local time repeated when the clocks go back is given once
+	 *
+	 * @param slots
+	 * @param granularity granularity of the slots
+	 * @param zone
+	 * @return
+	 */
+	static Stream<Timeslot> stream(PrimitiveIterator.OfLong slots, SlotGranularity granularity, ZoneId zone) {
+		if (zone.equals(ZoneOffset.UTC)) return stream(slots, granularity);
+		Iterator<Timeslot> timeslots = new Iterator<Timeslot>() {
+			private Timeslot last;
+			private Timeslot next;
+
+			@Override
+			public boolean hasNext() {
+				// Local times go back when the clocks do, the timeslots which are not after the last one were given already
+				while (next == null && slots.hasNext()) {
+					Timeslot timeslot = granularity.toTimeslot(slots.nextLong(), zone);
+					if (last == null || timeslot.compareTo(last) > 0) next = timeslot;
+				}
+				return next != null;
+			}
+
+			@Override
+			public Timeslot next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				last = next;
+				next = null;
+				return last;
+			}
+		};
+		return stream(timeslots);
+	}
+
+	private static Stream<Timeslot> stream(Iterator<Timeslot> timeslots) {
+		int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(timeslots, characteristics), false);
+	}
+
 	@Override
 	public int compareTo(Timeslot timeslot) {
 		if (this.id < timeslot.getID()) return -1;
 		else if (this.id > timeslot.getID()) return 1;
 		
-		return 0;
+		return Integer.compare(minute, timeslot.getStartMinute());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Timeslot && ((Timeslot) o).getID() == id && ((Timeslot) o).getStartMinute() == minute;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * id + minute;
 	}
 
 }
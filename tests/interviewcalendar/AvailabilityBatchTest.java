@@ -0,0 +1,83 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityBatchTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int candidate = interviewCalendar.addCandidate("Blair");
+
+    private static IntervalSet intervals(long... bounds) {
+        IntervalSet intervals = new IntervalSet();
+        for (int i = 0; i < bounds.length; i += 2) intervals.add(bounds[i], bounds[i + 1]);
+        return intervals;
+    }
+
+    @Test
+    void coalesce() {
+        AvailabilityBatch batch = new AvailabilityBatch()
+                .add(susan, 10, 20)
+                .remove(susan, 15, 30)
+                .add(susan, 25, 26)
+                .add(susan, 20, 22)
+                .add(susan, 40, 40);
+        assertEquals(4, batch.size());
+
+        IntervalSet added = new IntervalSet();
+        IntervalSet removed = new IntervalSet();
+        batch.coalesce(batch.groupByPerson().get(0), added, removed);
+        assertEquals(intervals(10, 15, 20, 22, 25, 26), added);
+        assertEquals(intervals(15, 20, 22, 25, 26, 30), removed);
+    }
+
+    @Test
+    void applyBatch() {
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 22, 9, 17);
+        interviewCalendar.applyBatch(new AvailabilityBatch()
+                .add(candidate, 2018, 10, 22, 12, 18)
+                .remove(susan, 2018, 10, 22, 9, 13)
+                .add(susan, 2018, 10, 23, 9, 10)
+                .remove(candidate, 2018, 10, 22, 16, 17));
+
+        assertEquals(5, interviewCalendar.getInterviewer(susan).getAvailableTimeslots().size());
+        assertEquals(5, interviewCalendar.getCandidate(candidate).getAvailableTimeslots().size());
+        assertEquals(3, interviewCalendar.getTimeslotsIntersection(candidate, susan).size());
+        assertEquals(0, interviewCalendar.getAvailableInterviewers(2018, 10, 22, 10).size());
+    }
+
+    @Test
+    void unknownPerson() {
+        AvailabilityBatch batch = new AvailabilityBatch().add(susan, 0, 10).add(7, 0, 10);
+        assertThrows(IllegalArgumentException.class, () -> interviewCalendar.applyBatch(batch));
+        assertTrue(interviewCalendar.getInterviewer(susan).getAvailableTimeslots().isEmpty());
+    }
+
+    @Test
+    void sameAsSequentialChanges() {
+        Random random = new Random(42);
+        InterviewCalendar sequential = new InterviewCalendar();
+        sequential.addInterviewer("Susan");
+        sequential.addCandidate("Blair");
+        AvailabilityBatch batch = new AvailabilityBatch();
+        for (int i = 0; i < 2000; i++) {
+            int person = random.nextInt(2);
+            long from = random.nextInt(2000);
+            long to = from + random.nextInt(100);
+            if (random.nextBoolean()) {
+                batch.add(person, from, to);
+                sequential.addAvailableSlots(person, from, to);
+            } else {
+                batch.remove(person, from, to);
+                sequential.removeUnavailableSlots(person, from, to);
+            }
+        }
+        interviewCalendar.applyBatch(batch);
+
+        for (int person = 0; person < 2; person++)
+            assertArrayEquals(sequential.getPerson(person).getAvailableSlots(), interviewCalendar.getPerson(person).getAvailableSlots());
+    }
+}
@@ -0,0 +1,115 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityBitmapTest {
+    private long monday9 = new Timeslot(2018, 10, 22, 9).getSlot();
+    private AvailabilityBitmap bitmap = new AvailabilityBitmap();
+
+    @Test
+    void setAndClear() {
+        bitmap.set(monday9);
+        assertTrue(bitmap.get(monday9));
+        assertFalse(bitmap.get(monday9 + 1));
+        bitmap.clear(monday9);
+        assertFalse(bitmap.get(monday9));
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void slotsBeforeEpoch() {
+        long slot = new Timeslot(1969, 12, 31, 23).getSlot();
+        assertEquals(-1, slot);
+        bitmap.set(slot);
+        assertTrue(bitmap.get(slot));
+        assertFalse(bitmap.get(0));
+    }
+
+    @Test
+    void cardinality() {
+        for (long slot = monday9; slot < monday9 + 200; slot += 2) bitmap.set(slot);
+        assertEquals(100, bitmap.cardinality());
+    }
+
+    @Test
+    void and() {
+        AvailabilityBitmap other = new AvailabilityBitmap();
+        bitmap.set(monday9);
+        bitmap.set(monday9 + 1);
+        bitmap.set(monday9 + 1000);
+        other.set(monday9 + 1);
+        other.set(monday9 + 2);
+        bitmap.and(other);
+        assertEquals(1, bitmap.cardinality());
+        assertTrue(bitmap.get(monday9 + 1));
+    }
+
+    @Test
+    void andNot() {
+        AvailabilityBitmap other = new AvailabilityBitmap();
+        bitmap.set(monday9);
+        bitmap.set(monday9 + 1);
+        other.set(monday9 + 1);
+        bitmap.andNot(other);
+        assertTrue(bitmap.get(monday9));
+        assertFalse(bitmap.get(monday9 + 1));
+    }
+
+    @Test
+    void slots() {
+        bitmap.set(monday9 + 500);
+        bitmap.set(monday9 + 63);
+        bitmap.set(monday9);
+        PrimitiveIterator.OfLong slots = bitmap.slots();
+        assertEquals(monday9, slots.nextLong());
+        assertEquals(monday9 + 63, slots.nextLong());
+        assertEquals(monday9 + 500, slots.nextLong());
+        assertFalse(slots.hasNext());
+    }
+
+    @Test
+    void asTimeslotSet() {
+        bitmap.set(monday9);
+        assertTrue(bitmap.asTimeslotSet().contains(new Timeslot(2018, 10, 22, 9)));
+        assertEquals(1, bitmap.asTimeslotSet().size());
+        assertEquals(2018102209, bitmap.asTimeslotSet().iterator().next().getID());
+    }
+
+    @Test
+    void setRangeAndClearRange() {
+        bitmap.setRange(monday9, monday9 + 1000);
+        assertEquals(1000, bitmap.cardinality());
+        bitmap.clearRange(monday9 + 100, monday9 + 900);
+        assertEquals(200, bitmap.cardinality());
+        assertTrue(bitmap.get(monday9 + 99));
+        assertFalse(bitmap.get(monday9 + 100));
+        assertTrue(bitmap.get(monday9 + 900));
+    }
+
+    @Test
+    void toIntervals() {
+        bitmap.setRange(monday9, monday9 + 500);
+        bitmap.setRange(monday9 + 600, monday9 + 601);
+        IntervalSet intervals = bitmap.toIntervals();
+        assertEquals(2, intervals.size());
+        assertEquals(monday9, intervals.getStartSlot(0));
+        assertEquals(monday9 + 500, intervals.getEndSlot(0));
+        assertEquals(monday9 + 600, intervals.getStartSlot(1));
+    }
+
+    @Test
+    void dropWeeksBefore() {
+        long week = bitmap.weekOf(monday9);
+        bitmap.set(monday9 - 3 * bitmap.getSlotsPerWeek());
+        bitmap.set(monday9 - bitmap.getSlotsPerWeek());
+        bitmap.set(monday9);
+        assertEquals((week - 3) * bitmap.getSlotsPerWeek(), bitmap.dropWeeksBefore(week));
+        assertEquals(1, bitmap.cardinality());
+        assertEquals(week * bitmap.getSlotsPerWeek(), bitmap.dropWeeksBefore(week));
+        assertTrue(bitmap.get(monday9));
+    }
+}
@@ -0,0 +1,98 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int john = interviewCalendar.addInterviewer("John");
+    private int ursula = interviewCalendar.addInterviewer("Ursula");
+    private int candidate = interviewCalendar.addCandidate("Blair");
+
+    AvailabilityIndexTest() {
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 23, 9, 12);
+        interviewCalendar.addAvailableTimeslots(john, 2018, 10, 23, 10, 17);
+        interviewCalendar.addAvailableTimeslots(candidate, 2018, 10, 23, 10, 17);
+    }
+
+    @Test
+    void getAvailableInterviewers() {
+        assertEquals(new HashSet<>(Arrays.asList(susan, john)), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 10));
+        assertEquals(Collections.singleton(susan), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 9));
+        assertTrue(interviewCalendar.getAvailableInterviewers(2018, 10, 23, 17).isEmpty());
+    }
+
+    @Test
+    void indexFollowsUpdates() {
+        interviewCalendar.removeUnavailableTimeslots(john, 2018, 10, 23, 10, 11);
+        assertEquals(Collections.singleton(susan), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 10));
+        interviewCalendar.getInterviewer(ursula).addAvailableTimeslot(2018, 10, 23, 10);
+        assertEquals(new HashSet<>(Arrays.asList(susan, ursula)), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 10));
+        interviewCalendar.removeInterviewer(susan);
+        assertEquals(Collections.singleton(ursula), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 10));
+    }
+
+    @Test
+    void recurringAvailability() {
+        interviewCalendar.addRecurringAvailability(ursula, RecurrenceRule.weekly(LocalDate.of(2018, 1, 1), 9, 12, DayOfWeek.TUESDAY));
+        assertEquals(new HashSet<>(Arrays.asList(susan, ursula)), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 9));
+        interviewCalendar.removeUnavailableTimeslot(ursula, 2018, 10, 23, 9);
+        assertEquals(Collections.singleton(susan), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 9));
+    }
+
+    @Test
+    void interviewersAtCapacity() {
+        interviewCalendar.setCapacity(john, 1, InterviewLoad.UNLIMITED);
+        LocalDate day = LocalDate.of(2018, 10, 23);
+        assertEquals(8, interviewCalendar.getTimeslotsWithAvailableInterviewers(1, day, day).size());
+
+        Reservation reservation = interviewCalendar.bookTimeslot(candidate, Collections.singleton(john), new Timeslot(2018, 10, 23, 10));
+        assertEquals(Collections.singleton(susan), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 11));
+        assertTrue(interviewCalendar.getAvailableInterviewers(2018, 10, 23, 14).isEmpty());
+        assertEquals(3, interviewCalendar.getTimeslotsWithAvailableInterviewers(1, day, day).size());
+
+        interviewCalendar.releaseReservation(reservation.getId());
+        assertEquals(new HashSet<>(Arrays.asList(susan, john)), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 11));
+        assertEquals(Collections.singleton(john), interviewCalendar.getAvailableInterviewers(2018, 10, 23, 14));
+        assertEquals(8, interviewCalendar.getTimeslotsWithAvailableInterviewers(1, day, day).size());
+    }
+
+    @Test
+    void getTimeslotsWithAvailableInterviewers() {
+        interviewCalendar.addRecurringAvailability(ursula, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 11, 13));
+        Set<Timeslot> timeslots = interviewCalendar.getTimeslotsWithAvailableInterviewers(2, LocalDate.of(2018, 10, 23), LocalDate.of(2018, 10, 23));
+        assertEquals(3, timeslots.size());
+        assertTrue(timeslots.contains(new Timeslot(2018, 10, 23, 10)));
+        assertTrue(timeslots.contains(new Timeslot(2018, 10, 23, 12)));
+        assertEquals(1, interviewCalendar.getTimeslotsWithAvailableInterviewers(3, LocalDate.of(2018, 10, 23), LocalDate.of(2018, 10, 23)).size());
+        assertEquals(2, interviewCalendar.getTimeslotsWithAvailableInterviewers(1, LocalDate.of(2018, 10, 24), LocalDate.of(2018, 10, 24)).size());
+    }
+
+    @Test
+    void indexOnlyStoredTimeslots() {
+        Person restored = new Person(10, "Dan");
+        RecurrenceRule rule = RecurrenceRule.weekly(LocalDate.of(2018, 1, 1), 9, 12, DayOfWeek.TUESDAY);
+        restored.addRecurringAvailability(rule);
+        restored.addAvailableTimeslot(2018, 10, 24, 9);
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.add(restored);
+        long tuesday = new Timeslot(2018, 10, 23, 9).getSlot();
+        long wednesday = new Timeslot(2018, 10, 24, 9).getSlot();
+        assertTrue(index.getAvailable(tuesday).get(10));
+
+        restored.removeRecurringAvailability(rule);
+        assertFalse(index.getAvailable(tuesday).get(10));
+        assertTrue(index.getAvailable(wednesday).get(10));
+        index.remove(restored);
+        assertTrue(index.getAvailable(wednesday).isEmpty());
+    }
+}
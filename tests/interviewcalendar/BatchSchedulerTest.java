@@ -0,0 +1,80 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSchedulerTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int john = interviewCalendar.addInterviewer("John");
+    private int ursula = interviewCalendar.addInterviewer("Ursula");
+    private LocalDate day = LocalDate.of(2018, 10, 22);
+
+    BatchSchedulerTest() {
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 22, 9, 12);
+        interviewCalendar.addAvailableTimeslots(john, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(ursula, 2018, 10, 22, 14, 17);
+    }
+
+    private int addCandidate(int startHour, int endHour) {
+        int id = interviewCalendar.addCandidate("Candidate");
+        interviewCalendar.addAvailableTimeslots(id, 2018, 10, 22, startHour, endHour);
+        return id;
+    }
+
+    @Test
+    void scheduleWithoutConflicts() {
+        int blair = addCandidate(9, 17);
+        int chuck = addCandidate(10, 11);
+        BatchSchedule schedule = interviewCalendar.scheduleInterviews(Arrays.asList(
+                InterviewRequest.withPanel(blair, Arrays.asList(susan, john)),
+                InterviewRequest.withPanel(chuck, Arrays.asList(susan, john))), day, day);
+        assertEquals(2, schedule.getScheduled().size());
+        // Chuck has a single possible timeslot, so he is scheduled first
+        assertEquals(new Timeslot(2018, 10, 22, 9), schedule.getScheduled().get(0).getTimeslot());
+        assertEquals(new Timeslot(2018, 10, 22, 10), schedule.getScheduled().get(1).getTimeslot());
+    }
+
+    @Test
+    void scheduleFromPool() {
+        int blair = addCandidate(14, 15);
+        int chuck = addCandidate(14, 15);
+        BatchSchedule schedule = interviewCalendar.scheduleInterviews(Arrays.asList(
+                InterviewRequest.fromPool(blair, Arrays.asList(susan, john, ursula), 1),
+                InterviewRequest.fromPool(chuck, Arrays.asList(susan, john, ursula), 1)), day, day);
+        assertEquals(2, schedule.getScheduled().size());
+        Set<Integer> interviewers = new HashSet<>();
+        for (ScheduledInterview interview : schedule.getScheduled()) interviewers.addAll(interview.getInterviewersIDs());
+        assertEquals(new HashSet<>(Arrays.asList(john, ursula)), interviewers);
+    }
+
+    @Test
+    void unscheduledRequests() {
+        int blair = addCandidate(9, 10);
+        int chuck = addCandidate(9, 10);
+        BatchSchedule schedule = interviewCalendar.scheduleInterviews(Arrays.asList(
+                InterviewRequest.withPanel(blair, Arrays.asList(susan)),
+                InterviewRequest.withPanel(chuck, Arrays.asList(susan))), day, day);
+        assertEquals(1, schedule.getScheduled().size());
+        assertEquals(blair, schedule.getScheduled().get(0).getCandidateID());
+        assertEquals(chuck, schedule.getUnscheduled().get(0).getCandidateID());
+    }
+
+    @Test
+    void scheduleIsReproducible() {
+        List<InterviewRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            requests.add(InterviewRequest.fromPool(addCandidate(9, 17), Arrays.asList(susan, john, ursula), 1));
+        String first = interviewCalendar.scheduleInterviews(requests, day, day).getScheduled().toString();
+        for (int i = 0; i < 5; i++)
+            assertEquals(first, interviewCalendar.scheduleInterviews(requests, day, day).getScheduled().toString());
+    }
+}
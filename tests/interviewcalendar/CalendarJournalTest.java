@@ -0,0 +1,211 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarJournalTest {
+    @TempDir
+    Path directory;
+
+    private List<InterviewCalendar> opened = new ArrayList<>();
+    private RecurrenceRule rule = RecurrenceRule.weekly(LocalDate.of(2018, 10, 22), 9, 12, DayOfWeek.TUESDAY)
+            .except(LocalDate.of(2018, 10, 30));
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (InterviewCalendar calendar : opened) calendar.closeJournal();
+    }
+
+    private InterviewCalendar open(Path path) throws IOException {
+        InterviewCalendar calendar = InterviewCalendar.open(path, 1, 1 << 20);
+        opened.add(calendar);
+        return calendar;
+    }
+
+    private void mutate(InterviewCalendar calendar) {
+        calendar.addInterviewer("Susan");
+        calendar.addCandidate("Blair");
+        calendar.addInterviewer("John");
+        calendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        calendar.addAvailableTimeslots(1, 2018, 10, 22, 12, 20);
+        calendar.removeUnavailableTimeslot(1, 2018, 10, 22, 13);
+        calendar.addRecurringAvailability(2, rule);
+        calendar.removeUnavailableTimeslot(2, 2018, 10, 23, 10);
+        calendar.getPerson(0).addAvailableTimeslot(2018, 10, 23, 9);
+        calendar.removeInterviewer(2);
+    }
+
+    private void assertRecovered(InterviewCalendar calendar) {
+        assertEquals(Collections.singleton(0), calendar.getInterviewers().keySet());
+        assertEquals(Collections.singleton(1), calendar.getCandidates().keySet());
+        assertEquals(9, calendar.getInterviewer(0).getAvailableTimeslots().size());
+        assertEquals(4, calendar.getTimeslotsIntersection(1, 0).size());
+        assertEquals(Collections.singleton(0), calendar.getAvailableInterviewers(2018, 10, 23, 9));
+        assertEquals(3, calendar.addInterviewer("Dan"));
+    }
+
+    @Test
+    void reopen() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        calendar.closeJournal();
+
+        assertRecovered(open(directory));
+    }
+
+    @Test
+    void recoverAfterCrash() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        calendar.syncJournal();
+
+        Path copy = copyDirectory(directory, "crashed");
+        assertRecovered(open(copy));
+    }
+
+    @Test
+    void recoverRules() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        calendar.addInterviewer("Susan");
+        calendar.addRecurringAvailability(0, rule);
+        calendar.addRecurringAvailability(0, RecurrenceRule.daily(LocalDate.of(2018, 10, 22), 18, 19));
+        calendar.removeRecurringAvailability(0, rule);
+        calendar.closeJournal();
+
+        Person recovered = open(directory).getInterviewer(0);
+        assertEquals(1, recovered.getRecurringAvailability().size());
+        assertFalse(recovered.isAvailable(new Timeslot(2018, 10, 23, 9)));
+        assertTrue(recovered.isAvailable(new Timeslot(2018, 10, 23, 18)));
+    }
+
+    @Test
+    void ignoreTornRecord() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        calendar.syncJournal();
+
+        Path copy = copyDirectory(directory, "torn");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(copy, CalendarJournal.JOURNAL_PREFIX + "*")) {
+            for (Path file : files) Files.write(file, new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+        }
+        assertRecovered(open(copy));
+    }
+
+    @Test
+    void reservationsAreNotDurable() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        assertNotNull(calendar.holdTimeslot(1, Collections.singleton(0), new Timeslot(2018, 10, 22, 14), Duration.ofHours(1)));
+        assertNotNull(calendar.bookTimeslot(1, Collections.singleton(0), new Timeslot(2018, 10, 22, 15)));
+        assertEquals(2, calendar.getTimeslotsIntersection(1, 0).size());
+        calendar.syncJournal();
+
+        // Neither the journal nor the snapshot saw the reservations, the stored availability is intact
+        assertRecovered(open(copyDirectory(directory, "crashed")));
+        calendar.closeJournal();
+        assertRecovered(open(directory));
+    }
+
+    @Test
+    void rejectUnknownRecord() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        calendar.syncJournal();
+
+        // A complete record of a type this version does not write
+        ByteBuffer body = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES).put((byte) 99).putLong(1000).putInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + body.capacity())
+                .putInt(body.capacity()).putInt((int) crc.getValue()).put(body.array());
+        Path copy = copyDirectory(directory, "unknown");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(copy, CalendarJournal.JOURNAL_PREFIX + "*")) {
+            for (Path file : files) Files.write(file, record.array(), StandardOpenOption.APPEND);
+        }
+        assertThrows(IOException.class, () -> open(copy));
+    }
+
+    @Test
+    void compact() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        mutate(calendar);
+        calendar.syncJournal();
+        Path beforeCompaction = copyDirectory(directory, "before");
+
+        calendar.compactJournal();
+        calendar.addAvailableTimeslot(1, 2018, 10, 22, 9);
+        calendar.syncJournal();
+
+        // A crash between saving the snapshot and deleting the old journal leaves both behind
+        Path copy = copyDirectory(directory, "compacted");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(beforeCompaction, CalendarJournal.JOURNAL_PREFIX + "*")) {
+            for (Path file : files) Files.copy(file, copy.resolve(file.getFileName()));
+        }
+        InterviewCalendar recovered = open(copy);
+        assertEquals(5, recovered.getTimeslotsIntersection(1, 0).size());
+        assertFalse(recovered.getCandidate(1).isAvailable(new Timeslot(2018, 10, 22, 13)));
+    }
+
+    @Test
+    void compactAutomatically() throws Exception {
+        InterviewCalendar calendar = InterviewCalendar.open(directory, 1, 1024);
+        opened.add(calendar);
+        calendar.addInterviewer("Susan");
+        for (int hour = 0; hour < 1000; hour++) calendar.addAvailableSlots(0, hour * 2, hour * 2 + 1);
+        calendar.syncJournal();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journalSize(directory) > 1024 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(journalSize(directory) <= 1024);
+        calendar.closeJournal();
+        assertEquals(1000, open(directory).getInterviewer(0).getAvailableSlots().length);
+    }
+
+    private long journalSize(Path path) throws IOException {
+        long size = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, CalendarJournal.JOURNAL_PREFIX + "*")) {
+            for (Path file : files) size += Files.size(file);
+        }
+        return size;
+    }
+
+    private Path copyDirectory(Path source, String name) throws IOException {
+        Path target = Files.createDirectory(source.resolveSibling(source.getFileName() + "-" + name));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+            for (Path file : files) Files.copy(file, target.resolve(file.getFileName()));
+        }
+        return target;
+    }
+
+    @Test
+    void recoverZones() throws IOException {
+        InterviewCalendar calendar = open(directory);
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        calendar.addCandidate("Blair", tokyo);
+        calendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 12);
+        calendar.closeJournal();
+
+        Person recovered = open(directory).getCandidate(0);
+        assertEquals(tokyo, recovered.getZone());
+        assertTrue(recovered.isAvailable(Slots.of(2018, 10, 22, 0)));
+        assertEquals(3, recovered.getAvailableSlotCount());
+    }
+}
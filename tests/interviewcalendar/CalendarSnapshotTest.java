@@ -0,0 +1,126 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarSnapshotTest {
+    @TempDir
+    Path directory;
+
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+
+    CalendarSnapshotTest() {
+        interviewCalendar.addInterviewer("Susan");
+        interviewCalendar.addCandidate("Blair");
+        interviewCalendar.addInterviewer("Jörg");
+        interviewCalendar.removeInterviewer(2);
+        interviewCalendar.addInterviewer("John");
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(0, 2019, 3, 1, 0, 24);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 12, 20);
+        RecurrenceRule rule = RecurrenceRule.weekly(LocalDate.of(2018, 10, 22), 9, 12, DayOfWeek.TUESDAY)
+                .until(LocalDate.of(2018, 12, 31)).except(LocalDate.of(2018, 10, 30));
+        interviewCalendar.addRecurringAvailability(3, rule);
+        interviewCalendar.removeUnavailableTimeslot(3, 2018, 10, 23, 10);
+
+        Path file = directory.resolve("calendar.snapshot");
+        interviewCalendar.saveSnapshot(file);
+        InterviewCalendar loaded = InterviewCalendar.loadSnapshot(file);
+
+        assertEquals(interviewCalendar.getInterviewers().keySet(), loaded.getInterviewers().keySet());
+        assertEquals(interviewCalendar.getCandidates().keySet(), loaded.getCandidates().keySet());
+        assertEquals("John", loaded.getInterviewer(3).getName());
+        for (int id : Arrays.asList(0, 1, 3))
+            assertEquals(interviewCalendar.getPerson(id).getAvailableTimeslots(), loaded.getPerson(id).getAvailableTimeslots());
+
+        List<RecurrenceRule> rules = loaded.getPerson(3).getRecurringAvailability();
+        assertEquals(1, rules.size());
+        assertEquals(rule.getUntilDate(), rules.get(0).getUntilDate());
+        assertEquals(rule.getExceptions(), rules.get(0).getExceptions());
+        assertFalse(loaded.getPerson(3).isAvailable(new Timeslot(2018, 10, 23, 10)));
+
+        assertEquals(interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0)),
+                loaded.getTimeslotsIntersection(1, Collections.singleton(0)));
+        assertEquals(Collections.singleton(0), loaded.getAvailableInterviewers(2018, 10, 22, 9));
+        assertEquals(4, loaded.addCandidate("Dan"));
+    }
+
+    @Test
+    void replaceExistingSnapshot() throws IOException {
+        Path file = directory.resolve("calendar.snapshot");
+        interviewCalendar.saveSnapshot(file);
+        interviewCalendar.addAvailableTimeslot(1, 2018, 10, 22, 9);
+        interviewCalendar.saveSnapshot(file);
+
+        assertEquals(1, InterviewCalendar.loadSnapshot(file).getCandidate(1).getAvailableTimeslots().size());
+        assertFalse(Files.exists(directory.resolve("calendar.snapshot.tmp")));
+    }
+
+    @Test
+    void loadInvalidFile() throws IOException {
+        Path file = directory.resolve("invalid.snapshot");
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThrows(IOException.class, () -> InterviewCalendar.loadSnapshot(file));
+
+        Path truncated = directory.resolve("truncated.snapshot");
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        interviewCalendar.saveSnapshot(truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> InterviewCalendar.loadSnapshot(truncated));
+
+        Path otherVersion = directory.resolve("version.snapshot");
+        interviewCalendar.saveSnapshot(otherVersion);
+        bytes = Files.readAllBytes(otherVersion);
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, CalendarSnapshot.VERSION + 1);
+        Files.write(otherVersion, bytes);
+        assertThrows(IOException.class, () -> InterviewCalendar.loadSnapshot(otherVersion));
+    }
+
+    @Test
+    void saveAndLoadQuarterHours() throws IOException {
+        InterviewCalendar calendar = new InterviewCalendar(SlotGranularity.ofMinutes(15));
+        int interviewer = calendar.addInterviewer("Susan");
+        calendar.addAvailableRange(interviewer, LocalDateTime.of(2018, 10, 22, 9, 45), LocalDateTime.of(2018, 10, 29, 10, 15));
+        Path file = directory.resolve("quarters.snapshot");
+        calendar.saveSnapshot(file);
+
+        InterviewCalendar loaded = InterviewCalendar.loadSnapshot(file);
+        assertEquals(SlotGranularity.ofMinutes(15), loaded.getGranularity());
+        assertEquals(calendar.getInterviewer(interviewer).getAvailableIntervals(), loaded.getInterviewer(interviewer).getAvailableIntervals());
+        assertThrows(IOException.class, () -> CalendarSnapshot.load(file, new InterviewCalendar()));
+    }
+
+    @Test
+    void saveAndLoadZones() throws IOException {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        int interviewer = interviewCalendar.addInterviewer("John", newYork);
+        Path file = directory.resolve("zones.snapshot");
+        interviewCalendar.saveSnapshot(file);
+
+        InterviewCalendar loaded = InterviewCalendar.loadSnapshot(file);
+        assertEquals(newYork, loaded.getInterviewer(interviewer).getZone());
+        assertEquals(ZoneOffset.UTC, loaded.getInterviewer(0).getZone());
+        loaded.addAvailableTimeslot(interviewer, 2018, 10, 22, 9);
+        assertTrue(loaded.getInterviewer(interviewer).isAvailable(Slots.of(2018, 10, 22, 13)));
+    }
+}
@@ -0,0 +1,59 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+    private Histogram histogram = new Histogram();
+
+    @Test
+    void percentiles() {
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long value = 1; value <= 1000; value++) histogram.record(value);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 / 32);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 / 32);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+
+    @Test
+    void buckets() {
+        for (long value : new long[] { 0, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE }) {
+            int bucket = Histogram.bucketOf(value);
+            assertTrue(Histogram.highestValueOf(bucket) >= value);
+            assertTrue(bucket == 0 || Histogram.highestValueOf(bucket - 1) < value);
+        }
+        assertEquals(32, Histogram.bucketOf(32));
+        assertEquals(Histogram.bucketOf(64), Histogram.bucketOf(65));
+    }
+
+    @Test
+    void concurrentRecording() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++)
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) histogram.record(i % 100);
+                }));
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(40000, histogram.getCount());
+        assertEquals(99, histogram.getMax());
+        assertEquals(49, histogram.getValueAtPercentile(50));
+    }
+}
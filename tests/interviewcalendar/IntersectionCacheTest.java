@@ -0,0 +1,88 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionCacheTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar(2);
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int john = interviewCalendar.addInterviewer("John");
+    private int candidate = interviewCalendar.addCandidate("Blair");
+
+    IntersectionCacheTest() {
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 23, 9, 12);
+        interviewCalendar.addAvailableTimeslots(john, 2018, 10, 23, 10, 17);
+        interviewCalendar.addAvailableTimeslots(candidate, 2018, 10, 23, 8, 17);
+    }
+
+    @Test
+    void key() {
+        assertEquals(IntersectionCache.key(2, new int[] { 1, 0, 1 }, 0, 24), IntersectionCache.key(2, new int[] { 0, 1 }, 0, 24));
+        assertNotEquals(IntersectionCache.key(2, new int[] { 0, 1 }, 0, 24), IntersectionCache.key(2, new int[] { 0, 1 }, 0, 48));
+        assertNotEquals(IntersectionCache.key(2, new int[] { 0 }, 0, 24), IntersectionCache.key(2, new int[] { 0, 1 }, 0, 24));
+    }
+
+    @Test
+    void reuseResult() {
+        Set<Timeslot> first = interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john));
+        Set<Timeslot> second = interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(john, susan));
+        assertEquals(2, first.size());
+        assertEquals(first, second);
+        assertEquals(1, interviewCalendar.getIntersectionCache().size());
+    }
+
+    @Test
+    void invalidateChangedPerson() {
+        assertEquals(2, interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john)).size());
+        interviewCalendar.getInterviewer(john).removeUnavailableTimeslot(2018, 10, 23, 10);
+        assertEquals(1, interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john)).size());
+        interviewCalendar.addAvailableTimeslot(john, 2018, 10, 23, 9);
+        assertEquals(2, interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john)).size());
+        interviewCalendar.addRecurringAvailability(john, RecurrenceRule.weekly(LocalDate.of(2018, 10, 22), 10, 11, DayOfWeek.TUESDAY));
+        assertEquals(3, interviewCalendar.getSlotsIntersection(candidate, Arrays.asList(susan, john)).length);
+    }
+
+    @Test
+    void invalidateRemovedPerson() {
+        assertEquals(2, interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john)).size());
+        interviewCalendar.removeInterviewer(john);
+        assertEquals(3, interviewCalendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, john)).size());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        IntersectionCache cache = new IntersectionCache(2);
+        Person person = interviewCalendar.getPerson(candidate);
+        AvailabilityBitmap result = new AvailabilityBitmap();
+        long[] versions = IntersectionCache.versions(Arrays.asList(person));
+        IntersectionCache.Key first = IntersectionCache.key(candidate, new int[0], 0, 1);
+        IntersectionCache.Key second = IntersectionCache.key(candidate, new int[0], 0, 2);
+        IntersectionCache.Key third = IntersectionCache.key(candidate, new int[0], 0, 3);
+        cache.put(first, versions, result);
+        cache.put(second, versions, result);
+        assertSame(result, cache.get(first, Arrays.asList(person)));
+        cache.put(third, versions, result);
+
+        assertEquals(2, cache.size());
+        assertSame(result, cache.get(first, Arrays.asList(person)));
+        assertNull(cache.get(second, Arrays.asList(person)));
+        assertSame(result, cache.get(third, Arrays.asList(person)));
+    }
+
+    @Test
+    void disabled() {
+        InterviewCalendar uncached = new InterviewCalendar(0);
+        int interviewer = uncached.addInterviewer("Susan");
+        int blair = uncached.addCandidate("Blair");
+        uncached.addAvailableTimeslot(interviewer, 2018, 10, 23, 9);
+        uncached.addAvailableTimeslot(blair, 2018, 10, 23, 9);
+        assertEquals(1, uncached.getTimeslotsIntersection(blair, interviewer).size());
+        assertThrows(IllegalArgumentException.class, () -> new InterviewCalendar(-1));
+    }
+}
@@ -0,0 +1,84 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionCursorTest {
+    private long monday = Slots.of(2018, 10, 22, 0);
+    private Person candidate = new Person(1, "Blair");
+    private Person interviewer1 = new Person(2, "Susan");
+    private Person interviewer2 = new Person(3, "John");
+
+    IntersectionCursorTest() {
+        for (int day = 0; day < 14; day++) {
+            candidate.addAvailableSlots(monday + day * 24 + 9, monday + day * 24 + 17);
+            interviewer1.addAvailableSlots(monday + day * 24 + 12, monday + day * 24 + 20);
+            interviewer2.addAvailableSlot(monday + day * 24 + 15);
+        }
+    }
+
+    @Test
+    void slots() {
+        PrimitiveIterator.OfLong slots = new IntersectionCursor(Arrays.asList(candidate, interviewer1, interviewer2),
+                monday + 16, monday + 14 * 24).slots();
+        for (int day = 1; day < 14; day++) assertEquals(monday + day * 24 + 15, slots.nextLong());
+        assertFalse(slots.hasNext());
+    }
+
+    @Test
+    void weekByWeek() {
+        IntersectionCursor cursor = new IntersectionCursor(Arrays.asList(candidate, interviewer1, interviewer2),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO);
+        // Week chunks start on Thursdays, like the epoch
+        assertTrue(cursor.next());
+        assertEquals(3, cursor.getSlots().cardinality());
+
+        // The second week is read only when the cursor gets there
+        interviewer2.removeUnavailableSlot(monday + 5 * 24 + 15);
+        assertTrue(cursor.next());
+        assertEquals(6, cursor.getSlots().cardinality());
+        assertFalse(cursor.getSlots().get(monday + 5 * 24 + 15));
+        assertTrue(cursor.next());
+        assertEquals(4, cursor.getSlots().cardinality());
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void skipsWeeksWithoutCommonAvailability() {
+        long later = Slots.of(2030, 1, 7, 10);
+        candidate.addAvailableSlot(later);
+        interviewer1.addAvailableSlot(later);
+        interviewer1.addAvailableSlot(later + 1);
+        interviewer2.addAvailableSlot(Slots.of(2025, 1, 7, 10));
+        interviewer2.addAvailableSlot(later);
+
+        IntersectionCursor cursor = new IntersectionCursor(Arrays.asList(candidate, interviewer1, interviewer2),
+                monday + 14 * 24, IntersectionEngine.UNBOUNDED_TO);
+        assertTrue(cursor.next());
+        assertArrayEquals(new long[] {later}, cursor.getSlots().toArray());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void openEndedRulesWithoutUpperBound() {
+        Clock clock = Clock.fixed(LocalDate.of(2018, 10, 23).atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        candidate.setClock(clock);
+        interviewer1.setClock(clock);
+        candidate.addRecurringAvailability(RecurrenceRule.daily(LocalDate.of(2018, 10, 1), 9, 10));
+        interviewer1.addRecurringAvailability(RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 12));
+
+        long[] slots = Slots.stream(new IntersectionCursor(Arrays.asList(candidate, interviewer1),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO).slots()).toArray();
+        assertArrayEquals(candidate.getSlotsIntersection(Arrays.asList(interviewer1)), slots);
+        assertEquals(Slots.of(2018, 10, 1, 9), slots[0]);
+        assertEquals(Slots.of(2019, 10, 23, 9), slots[slots.length - 1]);
+    }
+}
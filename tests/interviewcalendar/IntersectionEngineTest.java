@@ -0,0 +1,95 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionEngineTest {
+    private long monday = new Timeslot(2018, 10, 22, 0).getSlot();
+    private AvailabilityBitmap candidate = new AvailabilityBitmap();
+    private AvailabilityBitmap interviewer1 = new AvailabilityBitmap();
+    private AvailabilityBitmap interviewer2 = new AvailabilityBitmap();
+    private AvailabilityBitmap out = new AvailabilityBitmap();
+
+    IntersectionEngineTest() {
+        for (int day = 0; day < 14; day++) {
+            for (int hour = 9; hour < 17; hour++) candidate.set(monday + day * 24 + hour);
+            for (int hour = 12; hour < 20; hour++) interviewer1.set(monday + day * 24 + hour);
+            for (int hour = 15; hour < 16; hour++) interviewer2.set(monday + day * 24 + hour);
+        }
+    }
+
+    @Test
+    void intersect() {
+        assertTrue(IntersectionEngine.intersect(Arrays.asList(candidate, interviewer1, interviewer2),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, out));
+        assertEquals(14, out.cardinality());
+        assertTrue(out.get(monday + 15));
+        assertFalse(out.get(monday + 14));
+    }
+
+    @Test
+    void intersectWindow() {
+        assertTrue(IntersectionEngine.intersect(Arrays.asList(candidate, interviewer1),
+                monday + 24 + 13, monday + 3 * 24, out));
+        assertEquals(4 + 5, out.cardinality());
+        assertFalse(out.get(monday + 24 + 12));
+        assertTrue(out.get(monday + 24 + 13));
+        assertFalse(out.get(monday + 3 * 24 + 12));
+    }
+
+    @Test
+    void intersectEmpty() {
+        AvailabilityBitmap nobody = new AvailabilityBitmap();
+        out.set(monday);
+        assertFalse(IntersectionEngine.intersect(Arrays.asList(candidate, nobody),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, out));
+        assertTrue(out.isEmpty());
+        assertFalse(IntersectionEngine.intersect(Collections.singletonList(candidate), monday + 100 * 24, monday + 101 * 24, out));
+    }
+
+    @Test
+    void outputIsReusable() {
+        IntersectionEngine.intersect(Arrays.asList(candidate, interviewer1), monday, monday + 24, out);
+        IntersectionEngine.intersect(Arrays.asList(candidate, interviewer2), monday + 24, monday + 48, out);
+        assertEquals(1, out.cardinality());
+        assertTrue(out.get(monday + 24 + 15));
+    }
+
+    @Test
+    void findRuns() {
+        IntervalSet runs = IntersectionEngine.findRuns(Arrays.asList(candidate, interviewer1),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, 4, 3);
+        assertEquals(3, runs.size());
+        assertEquals(monday + 12, runs.getStartSlot(0));
+        assertEquals(monday + 17, runs.getEndSlot(0));
+        assertEquals(monday + 2 * 24 + 12, runs.getStartSlot(2));
+
+        assertTrue(IntersectionEngine.findRuns(Arrays.asList(candidate, interviewer1),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, 6, 10).isEmpty());
+        assertEquals(14, IntersectionEngine.findRuns(Arrays.asList(candidate, interviewer1),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, 5, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void findRunsAcrossWords() {
+        AvailabilityBitmap overnight = new AvailabilityBitmap();
+        long weekStart = overnight.weekOf(monday) * overnight.getSlotsPerWeek();
+        // The first run spans two week chunks, the second one two words
+        overnight.setRange(weekStart - 5, weekStart + 3);
+        overnight.setRange(weekStart + 60, weekStart + 70);
+        IntervalSet runs = IntersectionEngine.findRuns(Collections.singletonList(overnight),
+                IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, 8, 10);
+        assertEquals(2, runs.size());
+        assertEquals(weekStart - 5, runs.getStartSlot(0));
+        assertEquals(weekStart + 3, runs.getEndSlot(0));
+        assertEquals(weekStart + 70, runs.getEndSlot(1));
+
+        runs = IntersectionEngine.findRuns(Collections.singletonList(overnight), weekStart + 62, weekStart + 69, 7, 10);
+        assertEquals(1, runs.size());
+        assertEquals(weekStart + 62, runs.getStartSlot(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionSubscriptionTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int john = interviewCalendar.addInterviewer("John");
+    private int candidate = interviewCalendar.addCandidate("Blair");
+    private LocalDate monday = LocalDate.of(2018, 10, 22);
+
+    private List<Runnable> tasks = new ArrayList<>();
+    private List<IntervalSet> added = new ArrayList<>();
+    private List<IntervalSet> removed = new ArrayList<>();
+
+    IntersectionSubscriptionTest() {
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 23, 9, 12);
+        interviewCalendar.addAvailableTimeslots(john, 2018, 10, 23, 10, 17);
+        interviewCalendar.addAvailableTimeslots(candidate, 2018, 10, 23, 8, 17);
+    }
+
+    private IntersectionSubscription subscribe() {
+        return interviewCalendar.subscribe(candidate, Arrays.asList(susan, john), monday, monday.plusDays(6),
+                (newTimeslots, oldTimeslots) -> {
+                    added.add(newTimeslots);
+                    removed.add(oldTimeslots);
+                }, tasks::add);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) tasks.remove(0).run();
+    }
+
+    private static IntervalSet intervals(int day, int startHour, int endHour) {
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(2018, 10, day, startHour, endHour);
+        return intervals;
+    }
+
+    @Test
+    void initialTimeslots() {
+        IntersectionSubscription subscription = subscribe();
+        assertEquals(intervals(23, 10, 12), subscription.getIntervals());
+        assertEquals(2, subscription.getTimeslots().size());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void deliverChanges() {
+        IntersectionSubscription subscription = subscribe();
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 23, 12, 14);
+        interviewCalendar.removeUnavailableTimeslot(john, 2018, 10, 23, 10);
+        // Changes made before the task runs are delivered together
+        assertEquals(1, tasks.size());
+        runTasks();
+
+        assertEquals(1, added.size());
+        assertEquals(intervals(23, 12, 14), added.get(0));
+        assertEquals(intervals(23, 10, 11), removed.get(0));
+        assertEquals(3, subscription.getTimeslots().size());
+    }
+
+    @Test
+    void ignoreChangesWithoutEffect() {
+        subscribe();
+        interviewCalendar.addAvailableTimeslot(susan, 2018, 10, 24, 9);
+        interviewCalendar.addAvailableTimeslot(john, 2018, 11, 24, 9);
+        runTasks();
+        assertTrue(added.isEmpty());
+
+        interviewCalendar.getInterviewer(susan).addRecurringAvailability(
+                RecurrenceRule.weekly(monday, 14, 15, DayOfWeek.TUESDAY));
+        runTasks();
+        assertEquals(intervals(23, 14, 15), added.get(0));
+        assertTrue(removed.get(0).isEmpty());
+    }
+
+    @Test
+    void cancel() {
+        IntersectionSubscription subscription = subscribe();
+        subscription.cancel();
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 23, 12, 14);
+        runTasks();
+        assertTrue(added.isEmpty());
+        assertEquals(2, subscription.getTimeslots().size());
+    }
+
+    @Test
+    void defaultExecutor() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        IntersectionSubscription subscription = interviewCalendar.subscribe(candidate, Arrays.asList(susan, john),
+                monday, monday.plusDays(6), (newTimeslots, oldTimeslots) -> delivered.countDown());
+        interviewCalendar.addAvailableTimeslot(susan, 2018, 10, 23, 12);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(3, subscription.getTimeslots().size());
+    }
+
+    @Test
+    void deliverCapacityChanges() {
+        IntersectionSubscription subscription = subscribe();
+        interviewCalendar.setCapacity(john, 1, InterviewLoad.UNLIMITED);
+        runTasks();
+        assertTrue(added.isEmpty());
+
+        // An interview outside of the subscription fills John's day
+        Reservation reservation = interviewCalendar.bookTimeslot(candidate, Arrays.asList(john), new Timeslot(2018, 10, 23, 16));
+        runTasks();
+        assertEquals(1, removed.size());
+        assertEquals(intervals(23, 10, 12), removed.get(0));
+        assertTrue(subscription.getTimeslots().isEmpty());
+
+        interviewCalendar.releaseReservation(reservation.getId());
+        runTasks();
+        assertEquals(2, added.size());
+        assertEquals(intervals(23, 10, 12), added.get(1));
+        assertEquals(2, subscription.getTimeslots().size());
+    }
+
+    @Test
+    void changeWhileSeeding() throws InterruptedException {
+        Person interviewer = interviewCalendar.getInterviewer(john);
+        AtomicReference<IntersectionSubscription> subscription = new AtomicReference<>();
+        Thread subscriber = new Thread(() -> subscription.set(interviewCalendar.subscribe(candidate, Arrays.asList(susan, john),
+                monday, monday.plusDays(6), (newTimeslots, oldTimeslots) -> {
+                    added.add(newTimeslots);
+                    removed.add(oldTimeslots);
+                }, Runnable::run)));
+
+        // The subscription listens already but waits for John's lock to seed the intersection
+        List<Person> locked = Person.lockAll(Collections.singletonList(interviewer), true);
+        try {
+            subscriber.start();
+            while (subscriber.getState() != Thread.State.WAITING) Thread.sleep(1);
+            interviewCalendar.removeUnavailableTimeslot(john, 2018, 10, 23, 10);
+        } finally {
+            // The drain runs here and waits for the initial intersection
+            Person.unlockAll(locked, true);
+        }
+        subscriber.join();
+
+        assertEquals(intervals(23, 11, 12), subscription.get().getIntervals());
+        assertTrue(added.isEmpty());
+    }
+
+    @Test
+    void drainAfterLockIsReleased() {
+        List<Boolean> readable = new ArrayList<>();
+        Person interviewer = interviewCalendar.getInterviewer(john);
+        interviewCalendar.subscribe(candidate, Arrays.asList(susan, john), monday, monday.plusDays(6),
+                (newTimeslots, oldTimeslots) -> {
+                    // Another thread could not read John if his write lock were still held
+                    try {
+                        readable.add(CompletableFuture.supplyAsync(() -> interviewer.isAvailable(new Timeslot(2018, 10, 23, 11)))
+                                .get(5, TimeUnit.SECONDS));
+                    } catch (Exception e) {
+                        readable.add(false);
+                    }
+                }, Runnable::run);
+        interviewCalendar.removeUnavailableTimeslot(john, 2018, 10, 23, 10);
+        assertEquals(Arrays.asList(true), readable);
+    }
+}
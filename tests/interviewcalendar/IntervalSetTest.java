@@ -0,0 +1,60 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalSetTest {
+    private IntervalSet intervals = new IntervalSet();
+
+    @Test
+    void addMergesTouchingIntervals() {
+        intervals.add(2018, 10, 22, 9, 12);
+        intervals.add(2018, 10, 22, 14, 17);
+        assertEquals(2, intervals.size());
+        intervals.add(2018, 10, 22, 12, 14);
+        assertEquals(1, intervals.size());
+        assertEquals(8, intervals.getTimeslotCount());
+        assertEquals(2018102209, intervals.getStart(0).getID());
+        assertEquals(2018102217, intervals.getEnd(0).getID());
+    }
+
+    @Test
+    void addOutOfOrder() {
+        intervals.add(2018, 10, 24, 9, 12);
+        intervals.add(2018, 10, 22, 9, 12);
+        intervals.add(2018, 10, 23, 9, 12);
+        assertEquals(3, intervals.size());
+        assertEquals(2018102209, intervals.getStart(0).getID());
+        assertEquals(2018102409, intervals.getStart(2).getID());
+    }
+
+    @Test
+    void remove() {
+        intervals.add(2018, 10, 22, 9, 17);
+        intervals.remove(2018, 10, 22, 12, 13);
+        assertEquals(2, intervals.size());
+        assertFalse(intervals.contains(new Timeslot(2018, 10, 22, 12)));
+        assertTrue(intervals.contains(new Timeslot(2018, 10, 22, 13)));
+        intervals.remove(2018, 10, 22, 8, 12);
+        assertEquals(1, intervals.size());
+        intervals.remove(2018, 10, 22, 0, 24);
+        assertTrue(intervals.isEmpty());
+    }
+
+    @Test
+    void intersect() {
+        IntervalSet other = new IntervalSet();
+        intervals.add(2018, 10, 22, 9, 17);
+        intervals.add(2018, 10, 23, 9, 17);
+        other.add(2018, 10, 22, 8, 10);
+        other.add(2018, 10, 22, 16, 24);
+        other.add(2018, 10, 23, 0, 11);
+        IntervalSet expected = new IntervalSet();
+        expected.add(2018, 10, 22, 9, 10);
+        expected.add(2018, 10, 22, 16, 17);
+        expected.add(2018, 10, 23, 9, 11);
+        assertEquals(expected, intervals.intersect(other));
+        assertEquals(expected, other.intersect(intervals));
+    }
+}
@@ -1,8 +1,25 @@
 package interviewcalendar;
 
 import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,4 +124,338 @@ class InterviewCalendarTest {
         assertTrue(timeslotSet.contains(new Timeslot(2018, 10, 22, 14)));
         assertTrue(timeslotSet.contains(new Timeslot(2018, 10, 22, 15)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTimeslotsIntersectionWindow() {
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 16);
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 23, 9, 16);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 14, 18);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 23, 14, 18);
+        Set<Timeslot> timeslotSet = interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0),
+                LocalDate.of(2018, 10, 23), LocalDate.of(2018, 10, 23));
+        assertEquals(2, timeslotSet.size());
+        assertTrue(timeslotSet.contains(new Timeslot(2018, 10, 23, 14)));
+        assertTrue(timeslotSet.contains(new Timeslot(2018, 10, 23, 15)));
+    }
+
+    @Test
+    void addRecurringAvailability() {
+        interviewCalendar.addRecurringAvailability(0, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 17));
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 14, 18);
+        Set<Timeslot> timeslotSet = interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0),
+                LocalDate.of(2018, 10, 22), LocalDate.of(2018, 10, 28));
+        assertEquals(3, timeslotSet.size());
+        assertTrue(timeslotSet.contains(new Timeslot(2018, 10, 22, 16)));
+    }
+
+    @Test
+    void openEndedRulesFollowTheClock() {
+        interviewCalendar.addRecurringAvailability(0, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 10));
+        interviewCalendar.addRecurringAvailability(1, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 10));
+        interviewCalendar.setClock(Clock.fixed(LocalDateTime.of(2018, 10, 23, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        long[] slots = interviewCalendar.getSlotsIntersection(1, Collections.singleton(0));
+        assertEquals(Slots.of(2018, 1, 1, 9), slots[0]);
+        assertEquals(Slots.of(2019, 10, 23, 9), slots[slots.length - 1]);
+
+        // Nobody changed, but the next day reaches one day further
+        interviewCalendar.setClock(Clock.fixed(LocalDateTime.of(2018, 10, 24, 0, 30).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        slots = interviewCalendar.getSlotsIntersection(1, Collections.singleton(0));
+        assertEquals(Slots.of(2019, 10, 24, 9), slots[slots.length - 1]);
+
+        // People added later tell the date with the same clock
+        int john = interviewCalendar.addInterviewer("John");
+        interviewCalendar.addRecurringAvailability(john, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 10));
+        slots = interviewCalendar.getSlotsIntersection(1, Arrays.asList(0, john));
+        assertEquals(Slots.of(2019, 10, 24, 9), slots[slots.length - 1]);
+    }
+
+    @Test
+    void streamTimeslotsIntersection() {
+        interviewCalendar.addRecurringAvailability(0, RecurrenceRule.daily(LocalDate.of(2018, 1, 1), 9, 17));
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 14, 18);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 30, 9, 12);
+        List<Timeslot> timeslots = interviewCalendar.streamTimeslotsIntersection(1, Collections.singleton(0),
+                new Timeslot(2018, 10, 22, 15), new Timeslot(2018, 11, 1, 0), 3).collect(Collectors.toList());
+        assertEquals(3, timeslots.size());
+        assertEquals(new Timeslot(2018, 10, 22, 15), timeslots.get(0));
+        assertEquals(new Timeslot(2018, 10, 22, 16), timeslots.get(1));
+        assertEquals(new Timeslot(2018, 10, 30, 9), timeslots.get(2));
+    }
+
+    @Test
+    void concurrentUpdatesAndIntersections() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(executor.submit(() -> {
+                int id = interviewCalendar.addInterviewer("Interviewer");
+                for (int day = 1; day <= 28; day++) interviewCalendar.addAvailableTimeslots(id, 2018, 10, day, 9, 17);
+                interviewCalendar.getTimeslotsIntersection(1, interviewCalendar.getInterviewers().keySet());
+                return id;
+            }));
+        }
+        Set<Integer> uniqueIds = new TreeSet<>();
+        for (Future<Integer> id : ids) uniqueIds.add(id.get());
+        executor.shutdown();
+        assertEquals(100, uniqueIds.size());
+        assertEquals(101, interviewCalendar.getInterviewers().size());
+    }
+
+    @Test
+    void getSlotsIntersection() {
+        long monday = Slots.of(2018, 10, 22, 0);
+        interviewCalendar.addAvailableSlots(0, monday + 20, monday + 30);
+        interviewCalendar.addAvailableSlots(1, monday + 22, monday + 40);
+        interviewCalendar.removeUnavailableSlots(1, monday + 23, monday + 24);
+        assertArrayEquals(new long[] { monday + 22, monday + 24, monday + 25 },
+                interviewCalendar.streamSlotsIntersection(1, Collections.singleton(0), monday, monday + 26).toArray());
+        assertEquals(7, interviewCalendar.getSlotsIntersection(1, Collections.singleton(0)).length);
+    }
+
+    @Test
+    void findContiguousBlocks() {
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 23, 9, 17);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 10, 12);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 13, 16);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 23, 8, 18);
+
+        IntervalSet blocks = interviewCalendar.findContiguousBlocks(1, Collections.singleton(0), 3,
+                LocalDate.of(2018, 10, 22), LocalDate.of(2018, 10, 23));
+        assertEquals(2, blocks.size());
+        assertEquals(new Timeslot(2018, 10, 22, 13), blocks.getStart(0));
+        assertEquals(new Timeslot(2018, 10, 23, 17), blocks.getEnd(1));
+
+        blocks = interviewCalendar.findContiguousBlocks(1, Collections.singleton(0), 2, new Timeslot(2018, 10, 22, 11), 1);
+        assertEquals(1, blocks.size());
+        assertEquals(new Timeslot(2018, 10, 22, 13), blocks.getStart(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> interviewCalendar.findContiguousBlocks(1, Collections.singleton(0), 0, new Timeslot(2018, 10, 22, 11), 1));
+    }
+
+    @Test
+    void quarterHourGranularity() {
+        SlotGranularity quarterHours = SlotGranularity.ofMinutes(15);
+        InterviewCalendar calendar = new InterviewCalendar(quarterHours);
+        int interviewer = calendar.addInterviewer("Susan");
+        int candidate = calendar.addCandidate("Blair");
+        calendar.addAvailableRange(interviewer, LocalDateTime.of(2018, 10, 22, 9, 15), LocalDateTime.of(2018, 10, 22, 10, 30));
+        calendar.addAvailableTimeslots(candidate, 2018, 10, 22, 10, 12);
+
+        Set<Timeslot> common = calendar.getTimeslotsIntersection(candidate, Collections.singleton(interviewer),
+                LocalDate.of(2018, 10, 22), LocalDate.of(2018, 10, 22));
+        assertEquals(2, common.size());
+        assertTrue(common.contains(new Timeslot(2018, 10, 22, 10, 15)));
+        assertFalse(common.contains(new Timeslot(2018, 10, 22, 10, 30)));
+        assertEquals(Collections.singleton(interviewer), calendar.getAvailableInterviewers(new Timeslot(2018, 10, 22, 9, 15)));
+        assertTrue(calendar.getAvailableInterviewers(new Timeslot(2018, 10, 22, 9, 0)).isEmpty());
+
+        // A recurring hour is four quarter-hour timeslots, a removed quarter of it stays unavailable
+        calendar.addRecurringAvailability(interviewer, RecurrenceRule.weekly(LocalDate.of(2018, 10, 22), 11, 12, DayOfWeek.MONDAY));
+        calendar.removeUnavailableRange(interviewer, LocalDateTime.of(2018, 10, 22, 11, 15), LocalDateTime.of(2018, 10, 22, 11, 30));
+        IntervalSet blocks = calendar.findContiguousBlocks(candidate, Collections.singleton(interviewer), Duration.ofMinutes(30),
+                LocalDate.of(2018, 10, 22), LocalDate.of(2018, 10, 22));
+        assertEquals(2, blocks.size());
+        assertEquals(new Timeslot(2018, 10, 22, 10, 0), blocks.getStart(0));
+        assertEquals(new Timeslot(2018, 10, 22, 10, 30), blocks.getEnd(0));
+        assertEquals(new Timeslot(2018, 10, 22, 11, 30), blocks.getStart(1));
+        assertTrue(calendar.findContiguousBlocks(candidate, Collections.singleton(interviewer), 1,
+                LocalDate.of(2018, 10, 22), LocalDate.of(2018, 10, 22)).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> calendar.addAvailableRange(interviewer,
+                LocalDateTime.of(2018, 10, 22, 9, 10), LocalDateTime.of(2018, 10, 22, 9, 30)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.applyBatch(new AvailabilityBatch().add(interviewer, 0, 1)));
+    }
+
+    @Test
+    void metrics() {
+        MetricsRecorder metrics = new MetricsRecorder();
+        interviewCalendar.setMetrics(metrics);
+        int interviewer = interviewCalendar.addInterviewer("John");
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(interviewer, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 12, 20);
+        interviewCalendar.removeUnavailableTimeslot(1, 2018, 10, 22, 13);
+        interviewCalendar.getTimeslotsIntersection(1, List.of(0, interviewer));
+        interviewCalendar.getTimeslotsIntersection(1, List.of(0, interviewer));
+
+        assertEquals(3, metrics.getLatencies(CalendarMetrics.Operation.ADD_AVAILABILITY).getCount());
+        assertEquals(1, metrics.getLatencies(CalendarMetrics.Operation.REMOVE_AVAILABILITY).getCount());
+        assertEquals(2, metrics.getLatencies(CalendarMetrics.Operation.INTERSECTION).getCount());
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(1, metrics.getCacheMisses());
+        assertEquals(4, metrics.getIntersectionSizes().getMax());
+    }
+
+    @Test
+    void metricsPerInterval() {
+        MetricsRecorder metrics = new MetricsRecorder();
+        interviewCalendar.setMetrics(metrics);
+        interviewCalendar.applyBatch(new AvailabilityBatch()
+                .add(0, 2018, 10, 22, 9, 12)
+                .add(0, 2018, 10, 23, 9, 12)
+                .remove(0, 2018, 10, 24, 9, 12));
+        assertEquals(1, metrics.getLatencies(CalendarMetrics.Operation.BATCH).getCount());
+        assertEquals(2, metrics.getLatencies(CalendarMetrics.Operation.ADD_AVAILABILITY).getCount());
+        assertEquals(1, metrics.getLatencies(CalendarMetrics.Operation.REMOVE_AVAILABILITY).getCount());
+    }
+
+    @Test
+    void retention() {
+        interviewCalendar.addAvailableTimeslots(0, 2018, 9, 3, 9, 17);
+        interviewCalendar.addAvailableTimeslots(0, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 9, 3, 9, 17);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 10, 22, 9, 17);
+        Clock clock = Clock.fixed(LocalDateTime.of(2018, 10, 23, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        interviewCalendar.setRetention(Duration.ofDays(14), clock);
+        assertEquals(Duration.ofDays(14), interviewCalendar.getRetention());
+
+        // A change drops the expired weeks of the changed person only, and older changes are ignored
+        interviewCalendar.addAvailableTimeslot(0, 2018, 9, 4, 9);
+        assertEquals(8, interviewCalendar.getInterviewer(0).getAvailableSlotCount());
+        assertTrue(interviewCalendar.getAvailableInterviewers(2018, 9, 3, 9).isEmpty());
+        assertEquals(16, interviewCalendar.getCandidate(1).getAvailableSlotCount());
+
+        interviewCalendar.pruneHistory();
+        assertEquals(8, interviewCalendar.getCandidate(1).getAvailableSlotCount());
+        assertEquals(8, interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0)).size());
+    }
+
+    @Test
+    void reservations() throws Exception {
+        int john = interviewCalendar.addInterviewer("John");
+        int mary = interviewCalendar.addCandidate("Mary");
+        Timeslot timeslot = new Timeslot(2018, 9, 3, 10);
+        for (int id = 0; id <= mary; id++) interviewCalendar.addAvailableTimeslot(id, 2018, 9, 3, 10);
+
+        // Two candidates race for the same interviewers, only one of them gets the timeslot
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger booked = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int candidateID : new int[] {1, mary}) {
+                futures.add(executor.submit(() -> {
+                    if (interviewCalendar.bookTimeslot(candidateID, Arrays.asList(john, 0), timeslot) != null) booked.incrementAndGet();
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, booked.get());
+        assertTrue(interviewCalendar.getAvailableInterviewers(timeslot).isEmpty());
+        assertTrue(interviewCalendar.getCandidate(1).isAvailable(timeslot) ^ interviewCalendar.getCandidate(mary).isAvailable(timeslot));
+
+        assertThrows(IllegalArgumentException.class, () -> interviewCalendar.bookTimeslot(1, Collections.singleton(42), timeslot));
+
+        // An unconfirmed hold is given back once it expires
+        Reservation hold = interviewCalendar.holdTimeslot(1, Collections.singleton(0), new Timeslot(2018, 9, 3, 11), Duration.ZERO);
+        assertNull(hold);
+        interviewCalendar.addAvailableTimeslot(0, 2018, 9, 3, 11);
+        interviewCalendar.addAvailableTimeslot(1, 2018, 9, 3, 11);
+        hold = interviewCalendar.holdTimeslot(1, Collections.singleton(0), new Timeslot(2018, 9, 3, 11), Duration.ZERO);
+        assertEquals(hold, interviewCalendar.getReservation(hold.getId()));
+        assertEquals(1, interviewCalendar.expireHolds());
+        assertFalse(interviewCalendar.confirmReservation(hold.getId()));
+        assertEquals(1, interviewCalendar.getTimeslotsIntersection(1, 0).size());
+    }
+
+    @Test
+    void zones() {
+        InterviewCalendar calendar = new InterviewCalendar();
+        ZoneId newYork = ZoneId.of("America/New_York");
+        ZoneId london = ZoneId.of("Europe/London");
+        int interviewer = calendar.addInterviewer("Susan", newYork);
+        int candidate = calendar.addCandidate("Blair", london);
+        assertEquals(newYork, calendar.getInterviewer(interviewer).getZone());
+        calendar.addAvailableTimeslots(interviewer, 2018, 9, 3, 9, 17);
+        calendar.addAvailableTimeslots(candidate, 2018, 9, 3, 9, 17);
+
+        // Stored and intersected in UTC
+        Set<Timeslot> utc = calendar.getTimeslotsIntersection(candidate, interviewer);
+        assertEquals(3, utc.size());
+        assertTrue(utc.contains(new Timeslot(2018, 9, 3, 13)));
+        assertEquals(Collections.singleton(interviewer), calendar.getAvailableInterviewers(2018, 9, 3, 15));
+        assertEquals(Collections.singleton(interviewer), calendar.getAvailableInterviewers(LocalDateTime.of(2018, 9, 3, 9, 0), newYork));
+        assertTrue(calendar.getAvailableInterviewers(LocalDateTime.of(2018, 9, 3, 9, 0), london).isEmpty());
+        // A person's own timeslots are local
+        assertTrue(calendar.getInterviewer(interviewer).isAvailable(new Timeslot(2018, 9, 3, 9)));
+        assertEquals(3, calendar.getCandidate(candidate).getTimeslotsIntersection(calendar.getInterviewer(interviewer)).size());
+        assertTrue(calendar.getCandidate(candidate).getTimeslotsIntersection(calendar.getInterviewer(interviewer))
+                .contains(new Timeslot(2018, 9, 3, 14)));
+
+        LocalDate day = LocalDate.of(2018, 9, 3);
+        List<ZonedDateTime> inLondon = calendar.getTimeslotsIntersection(candidate, Collections.singleton(interviewer), day, day, london);
+        assertEquals(ZonedDateTime.of(2018, 9, 3, 14, 0, 0, 0, london), inLondon.get(0));
+        assertEquals(3, inLondon.size());
+        List<ZonedDateTime> inNewYork = calendar.getTimeslotsIntersection(candidate, Collections.singleton(interviewer), day, day, newYork);
+        assertEquals(ZonedDateTime.of(2018, 9, 3, 9, 0, 0, 0, newYork), inNewYork.get(0));
+
+        // The window is a day of the given zone
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        assertTrue(calendar.getTimeslotsIntersection(candidate, Collections.singleton(interviewer), day.minusDays(1), day.minusDays(1), tokyo).isEmpty());
+        List<ZonedDateTime> inTokyo = calendar.getTimeslotsIntersection(candidate, Collections.singleton(interviewer), day, day.plusDays(1), tokyo);
+        assertEquals(ZonedDateTime.of(2018, 9, 4, 0, 0, 0, 0, tokyo), inTokyo.get(2));
+    }
+
+    @Test
+    void rankTimeslots() {
+        interviewCalendar.addAvailableTimeslots(0, 2018, 9, 3, 9, 17);
+        interviewCalendar.addAvailableTimeslots(1, 2018, 9, 3, 9, 17);
+        LocalDate day = LocalDate.of(2018, 9, 3);
+
+        // The ends of the common block leave the free time in one piece
+        List<RankedTimeslot> ranked = interviewCalendar.rankTimeslots(1, Collections.singleton(0), day, day,
+                SlotScorer.leastFragmenting(), 2);
+        assertEquals(new Timeslot(2018, 9, 3, 9), ranked.get(0).getTimeslot());
+        assertEquals(new Timeslot(2018, 9, 3, 16), ranked.get(1).getTimeslot());
+        assertEquals(2, ranked.get(0).getScore());
+
+        ranked = interviewCalendar.rankTimeslots(1, Collections.singleton(0), day, day,
+                SlotScorer.leastFragmenting().plus(SlotScorer.preferredHours(14, 17, ZoneOffset.UTC), 1), 3);
+        assertEquals(new Timeslot(2018, 9, 3, 16), ranked.get(0).getTimeslot());
+        assertEquals(new Timeslot(2018, 9, 3, 9), ranked.get(1).getTimeslot());
+        assertEquals(new Timeslot(2018, 9, 3, 14), ranked.get(2).getTimeslot());
+        assertTrue(interviewCalendar.rankTimeslots(1, Collections.singleton(0), day.plusDays(1), day.plusDays(1),
+                SlotScorer.earliest(), 3).isEmpty());
+    }
+
+    @Test
+    void capacity() {
+        int mary = interviewCalendar.addCandidate("Mary");
+        for (int id = 0; id <= mary; id++) {
+            interviewCalendar.addAvailableTimeslots(id, 2018, 9, 3, 9, 17);
+            interviewCalendar.addAvailableTimeslots(id, 2018, 9, 4, 9, 17);
+            interviewCalendar.addAvailableTimeslots(id, 2018, 9, 5, 9, 17);
+        }
+        interviewCalendar.setCapacity(0, 1, 2);
+        Person susan = interviewCalendar.getInterviewer(0);
+        assertEquals(1, susan.getMaxInterviewsPerDay());
+
+        Reservation first = interviewCalendar.bookTimeslot(1, Collections.singleton(0), new Timeslot(2018, 9, 3, 10));
+        assertEquals(1, susan.getDayLoad(LocalDate.of(2018, 9, 3)));
+        assertTrue(interviewCalendar.getTimeslotsIntersection(mary, Collections.singleton(0),
+                LocalDate.of(2018, 9, 3), LocalDate.of(2018, 9, 3)).isEmpty());
+        assertNull(interviewCalendar.bookTimeslot(mary, Collections.singleton(0), new Timeslot(2018, 9, 3, 11)));
+        assertEquals(16, interviewCalendar.getTimeslotsIntersection(mary, Collections.singleton(0)).size());
+
+        // The second interview of the week fills the week
+        assertNotNull(interviewCalendar.bookTimeslot(mary, Collections.singleton(0), new Timeslot(2018, 9, 4, 11)));
+        assertEquals(2, susan.getWeekLoad(LocalDate.of(2018, 9, 9)));
+        assertTrue(interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0)).isEmpty());
+        assertTrue(interviewCalendar.findPanels(1, 1, LocalDate.of(2018, 9, 3), LocalDate.of(2018, 9, 9), 1).isEmpty());
+
+        interviewCalendar.releaseReservation(first.getId());
+        assertEquals(0, susan.getDayLoad(LocalDate.of(2018, 9, 3)));
+        assertEquals(16, interviewCalendar.getTimeslotsIntersection(1, Collections.singleton(0)).size());
+        LocalDate tuesday = LocalDate.of(2018, 9, 4);
+        List<RankedTimeslot> ranked = interviewCalendar.rankTimeslots(1, Collections.singleton(0), tuesday.minusDays(1), tuesday,
+                SlotScorer.leastLoaded(), 1);
+        assertEquals(new Timeslot(2018, 9, 3, 9), ranked.get(0).getTimeslot());
+        // Tuesday is full until the capacity is raised
+        interviewCalendar.setCapacity(0, 2, 3);
+        ranked = interviewCalendar.rankTimeslots(1, Collections.singleton(0), tuesday, tuesday, SlotScorer.leastLoaded(), 1);
+        assertEquals(new Timeslot(2018, 9, 4, 9), ranked.get(0).getTimeslot());
+        assertEquals(-1.0, ranked.get(0).getScore());
+    }
+}
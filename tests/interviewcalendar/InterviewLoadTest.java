@@ -0,0 +1,89 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterviewLoadTest {
+    private InterviewLoad load = new InterviewLoad(SlotGranularity.HOURLY, ZoneOffset.UTC);
+    // Monday
+    private long monday = Slots.of(2018, 10, 22, 10);
+
+    @Test
+    void counters() {
+        load.add(monday, 1);
+        load.add(monday + 1, 1);
+        load.add(monday + 24, 1);
+        assertEquals(2, load.getDayLoad(LocalDate.of(2018, 10, 22)));
+        assertEquals(3, load.getWeekLoad(LocalDate.of(2018, 10, 28)));
+        assertEquals(0, load.getWeekLoad(LocalDate.of(2018, 10, 29)));
+        assertEquals(2, load.getLoad(monday - 10, monday + 14));
+        assertEquals(3, load.getLoad(IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO));
+
+        load.add(monday, -1);
+        assertEquals(1, load.getDayLoad(LocalDate.of(2018, 10, 22)));
+        assertTrue(load.getSaturated().isEmpty());
+    }
+
+    @Test
+    void saturation() {
+        load.setCapacity(1, 2);
+        load.add(monday, 1);
+        assertTrue(load.isSaturated(monday - 10));
+        assertTrue(load.isSaturated(monday + 13));
+        assertFalse(load.isSaturated(monday + 14));
+        assertEquals(24, load.getSaturated().cardinality());
+
+        // A full week covers Monday to Sunday
+        load.add(monday + 48, 1);
+        assertEquals(7 * 24, load.getSaturated().cardinality());
+        assertTrue(load.isSaturated(Slots.of(2018, 10, 28, 23)));
+        assertFalse(load.isSaturated(Slots.of(2018, 10, 29, 0)));
+
+        load.add(monday + 48, -1);
+        assertEquals(24, load.getSaturated().cardinality());
+        load.setCapacity(InterviewLoad.UNLIMITED, InterviewLoad.UNLIMITED);
+        assertTrue(load.getSaturated().isEmpty());
+
+        load.setCapacity(0, 5);
+        assertTrue(load.isClosed());
+        assertTrue(load.isSaturated(monday + 1000));
+        assertThrows(IllegalArgumentException.class, () -> load.setCapacity(-1, 5));
+    }
+
+    @Test
+    void saturationChanges() {
+        load.setCapacity(2, 4);
+        assertFalse(load.add(monday, 1));
+        assertTrue(load.add(monday + 1, 1));
+        // Another interview on a full day changes nothing
+        assertFalse(load.add(monday + 2, 1));
+        assertFalse(load.add(monday + 2, -1));
+        // The full week covers the full day
+        assertFalse(load.add(monday + 24, 1));
+        assertTrue(load.add(monday + 25, 1));
+        assertTrue(load.add(monday + 25, -1));
+        assertFalse(load.add(monday + 24, -1));
+        assertTrue(load.add(monday + 1, -1));
+        assertTrue(load.getSaturated().isEmpty());
+        assertEquals(monday - 10, load.startOfWeek(monday + 100));
+        assertEquals(monday - 10 + 7 * 24, load.endOfWeek(monday + 100));
+    }
+
+    @Test
+    void localDays() {
+        InterviewLoad tokyo = new InterviewLoad(SlotGranularity.HOURLY, ZoneId.of("Asia/Tokyo"));
+        tokyo.setCapacity(1, InterviewLoad.UNLIMITED);
+        // 16:00 UTC on Monday is 01:00 on Tuesday in Tokyo
+        tokyo.add(Slots.of(2018, 10, 22, 16), 1);
+        assertEquals(1, tokyo.getDayLoad(LocalDate.of(2018, 10, 23)));
+        assertTrue(tokyo.isSaturated(Slots.of(2018, 10, 22, 15)));
+        assertFalse(tokyo.isSaturated(Slots.of(2018, 10, 22, 14)));
+        assertTrue(tokyo.isSaturated(Slots.of(2018, 10, 23, 14)));
+        assertFalse(tokyo.isSaturated(Slots.of(2018, 10, 23, 15)));
+    }
+}
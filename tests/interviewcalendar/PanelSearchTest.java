@@ -0,0 +1,96 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanelSearchTest {
+    private InterviewCalendar interviewCalendar = new InterviewCalendar();
+    private int candidate = interviewCalendar.addCandidate("Blair");
+    private int susan = interviewCalendar.addInterviewer("Susan");
+    private int john = interviewCalendar.addInterviewer("John");
+    private int ursula = interviewCalendar.addInterviewer("Ursula");
+    private int philipp = interviewCalendar.addInterviewer("Philipp");
+    private LocalDate from = LocalDate.of(2018, 10, 22);
+    private LocalDate to = LocalDate.of(2018, 10, 31);
+
+    PanelSearchTest() {
+        interviewCalendar.addAvailableTimeslots(candidate, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(susan, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslots(john, 2018, 10, 22, 12, 20);
+        interviewCalendar.addAvailableTimeslots(ursula, 2018, 10, 22, 15, 20);
+        interviewCalendar.addAvailableTimeslots(philipp, 2018, 10, 23, 9, 17);
+    }
+
+    @Test
+    void findSingleInterviewers() {
+        List<PanelMatch> panels = interviewCalendar.findPanels(candidate, 1, from, to, 10);
+        assertEquals(3, panels.size());
+        assertEquals(Arrays.asList(susan), panels.get(0).getInterviewersIDs());
+        assertEquals(8, panels.get(0).getTimeslotCount());
+        assertEquals(Arrays.asList(john), panels.get(1).getInterviewersIDs());
+        assertEquals(Arrays.asList(ursula), panels.get(2).getInterviewersIDs());
+    }
+
+    @Test
+    void findPanels() {
+        List<PanelMatch> panels = interviewCalendar.findPanels(candidate, 3, from, to, 10);
+        assertEquals(1, panels.size());
+        assertEquals(Arrays.asList(susan, john, ursula), panels.get(0).getInterviewersIDs());
+        assertEquals(2, panels.get(0).getTimeslotCount());
+        assertTrue(panels.get(0).getTimeslots().contains(new Timeslot(2018, 10, 22, 16)));
+    }
+
+    @Test
+    void findBestPanelsOnly() {
+        List<PanelMatch> panels = interviewCalendar.findPanels(candidate, 2, from, to, 2);
+        assertEquals(2, panels.size());
+        assertEquals(Arrays.asList(susan, john), panels.get(0).getInterviewersIDs());
+        assertEquals(5, panels.get(0).getTimeslotCount());
+        assertEquals(Arrays.asList(susan, ursula), panels.get(1).getInterviewersIDs());
+    }
+
+    @Test
+    void findPanelsWithinWindow() {
+        assertTrue(interviewCalendar.findPanels(candidate, 1, LocalDate.of(2018, 10, 23), to, 10).isEmpty());
+    }
+
+    @Test
+    void preferLessLoadedPanels() {
+        int dan = interviewCalendar.addInterviewer("Dan");
+        int mary = interviewCalendar.addCandidate("Mary");
+        interviewCalendar.addAvailableTimeslots(dan, 2018, 10, 22, 9, 17);
+        interviewCalendar.addAvailableTimeslot(susan, 2018, 10, 24, 9);
+        interviewCalendar.addAvailableTimeslot(mary, 2018, 10, 24, 9);
+        assertNotNull(interviewCalendar.bookTimeslot(mary, Arrays.asList(susan), new Timeslot(2018, 10, 24, 9)));
+
+        List<PanelMatch> panels = interviewCalendar.findPanels(candidate, 1, from, to, 2);
+        assertEquals(Arrays.asList(dan), panels.get(0).getInterviewersIDs());
+        assertEquals(0, panels.get(0).getLoad());
+        assertEquals(Arrays.asList(susan), panels.get(1).getInterviewersIDs());
+        assertEquals(1, panels.get(1).getLoad());
+        assertEquals(8, panels.get(1).getTimeslotCount());
+    }
+
+    @Test
+    void pruneTiedPanels() {
+        Person blair = interviewCalendar.getCandidate(candidate);
+        List<Person> pool = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Person interviewer = new Person(100 + i, "Interviewer");
+            interviewer.addAvailableTimeslots(2018, 10, 22, 9, 17);
+            pool.add(interviewer);
+        }
+        PanelSearch search = new PanelSearch(2, IntersectionEngine.UNBOUNDED_FROM, IntersectionEngine.UNBOUNDED_TO, 1);
+        List<PanelMatch> panels = search.search(blair, pool);
+        assertEquals(Arrays.asList(100, 101), panels.get(0).getInterviewersIDs());
+        assertEquals(8, panels.get(0).getTimeslotCount());
+        // Only the pairs with the first interviewer are intersected, every other pair ties with the first panel
+        assertEquals(29, search.getIntersections());
+    }
+}
@@ -0,0 +1,157 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedCalendarTest {
+
+    /**
+     * Partition kept in process which counts the summaries it is asked for
+     */
+    private static class CountingPartition implements CalendarPartition {
+        private final InterviewCalendar calendar;
+        private int summaries;
+
+        CountingPartition(InterviewCalendar calendar) {
+            this.calendar = calendar;
+        }
+
+        @Override
+        public SlotGranularity getGranularity() {
+            return calendar.getGranularity();
+        }
+
+        @Override
+        public int addInterviewer(String name) {
+            return calendar.addInterviewer(name);
+        }
+
+        @Override
+        public void removeInterviewer(int id) {
+            calendar.removeInterviewer(id);
+        }
+
+        @Override
+        public int addCandidate(String name) {
+            return calendar.addCandidate(name);
+        }
+
+        @Override
+        public void removeCandidate(int id) {
+            calendar.removeCandidate(id);
+        }
+
+        @Override
+        public void addAvailableSlots(int personID, long fromSlot, long toSlot) {
+            calendar.addAvailableSlots(personID, fromSlot, toSlot);
+        }
+
+        @Override
+        public void removeUnavailableSlots(int personID, long fromSlot, long toSlot) {
+            calendar.removeUnavailableSlots(personID, fromSlot, toSlot);
+        }
+
+        @Override
+        public IntervalSet getCommonAvailability(Collection<Integer> personIDs, long fromSlot, long toSlot) {
+            summaries++;
+            return calendar.getCommonAvailability(personIDs, fromSlot, toSlot);
+        }
+    }
+
+    @Test
+    void partitionAwareIDs() {
+        PartitionedCalendar calendar = new PartitionedCalendar(3);
+        for (int i = 0; i < 6; i++) {
+            int id = calendar.addInterviewer("Interviewer " + i);
+            assertEquals(i % 3, calendar.partitionOf(id));
+        }
+        int first = calendar.addCandidate("Blair", "Payments");
+        int second = calendar.addInterviewer("Susan", "Payments");
+        assertEquals(calendar.partitionOf(first), calendar.partitionOf(second));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void sameIntersectionAsOneCalendar() {
+        PartitionedCalendar partitioned = new PartitionedCalendar(4);
+        InterviewCalendar single = new InterviewCalendar();
+        List<Integer> partitionedIDs = new ArrayList<>();
+        List<Integer> singleIDs = new ArrayList<>();
+        int partitionedCandidate = partitioned.addCandidate("Blair");
+        int singleCandidate = single.addCandidate("Blair");
+        partitioned.addAvailableTimeslots(partitionedCandidate, 2018, 9, 3, 8, 18);
+        single.addAvailableTimeslots(singleCandidate, 2018, 9, 3, 8, 18);
+        for (int i = 0; i < 5; i++) {
+            partitionedIDs.add(partitioned.addInterviewer("Interviewer " + i));
+            singleIDs.add(single.addInterviewer("Interviewer " + i));
+            partitioned.addAvailableTimeslots(partitionedIDs.get(i), 2018, 9, 3, 9 + i, 16);
+            single.addAvailableTimeslots(singleIDs.get(i), 2018, 9, 3, 9 + i, 16);
+        }
+        partitioned.removeUnavailableTimeslots(partitionedIDs.get(2), 2018, 9, 3, 14, 15);
+        single.removeUnavailableTimeslots(singleIDs.get(2), 2018, 9, 3, 14, 15);
+
+        Set<Timeslot> expected = single.getTimeslotsIntersection(singleCandidate, singleIDs);
+        assertEquals(2, expected.size());
+        assertEquals(expected, partitioned.getTimeslotsIntersection(partitionedCandidate, partitionedIDs));
+        assertEquals(expected, partitioned.getTimeslotsIntersection(partitionedCandidate, partitionedIDs,
+                LocalDate.of(2018, 9, 3), LocalDate.of(2018, 9, 3)));
+        assertTrue(partitioned.getTimeslotsIntersection(partitionedCandidate, partitionedIDs,
+                LocalDate.of(2018, 9, 4), LocalDate.of(2018, 9, 5)).isEmpty());
+    }
+
+    @Test
+    void scatterToInvolvedPartitionsOnly() {
+        List<CountingPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            partitions.add(new CountingPartition(new InterviewCalendar(SlotGranularity.HOURLY, 0, i, 3)));
+        PartitionedCalendar calendar = new PartitionedCalendar(partitions, Runnable::run);
+
+        int candidate = calendar.addCandidate("Blair");
+        int susan = calendar.addInterviewer("Susan");
+        calendar.addAvailableTimeslots(candidate, 2018, 9, 3, 9, 12);
+        calendar.addAvailableTimeslots(susan, 2018, 9, 3, 10, 14);
+
+        assertEquals(2, calendar.getTimeslotsIntersection(candidate, Arrays.asList(susan)).size());
+        assertEquals(Arrays.asList(1, 1, 0), Arrays.asList(partitions.get(0).summaries, partitions.get(1).summaries, partitions.get(2).summaries));
+
+        assertEquals(3, calendar.getTimeslotsIntersection(candidate, Collections.emptyList()).size());
+        assertEquals(2, partitions.get(0).summaries);
+        assertEquals(1, partitions.get(1).summaries);
+
+        // An unknown interviewer is not available everywhere
+        assertThrows(IllegalArgumentException.class, () -> calendar.getTimeslotsIntersection(candidate, Arrays.asList(susan, 41)));
+    }
+
+    @Test
+    void removedCandidate() {
+        PartitionedCalendar calendar = new PartitionedCalendar(3);
+        int candidate = calendar.addCandidate("Blair");
+        int susan = calendar.addInterviewer("Susan");
+        calendar.addAvailableTimeslots(candidate, 2018, 9, 3, 9, 12);
+        calendar.addAvailableTimeslots(susan, 2018, 9, 3, 9, 12);
+        calendar.removeCandidate(candidate);
+        assertThrows(IllegalArgumentException.class, () -> calendar.getTimeslotsIntersection(candidate, Arrays.asList(susan)));
+        assertThrows(IllegalArgumentException.class, () -> calendar.getTimeslotsIntersection(candidate, Collections.emptyList()));
+    }
+
+    @Test
+    void invalidPartitions() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedCalendar(0));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedCalendar(Arrays.asList(
+                new InterviewCalendar(), new InterviewCalendar(SlotGranularity.ofMinutes(15))), Runnable::run));
+
+        // Partitions which are not set up for partitioning generate ids of other partitions
+        PartitionedCalendar calendar = new PartitionedCalendar(Arrays.asList(new InterviewCalendar(), new InterviewCalendar()), Runnable::run);
+        calendar.addInterviewer("Susan");
+        assertThrows(IllegalStateException.class, () -> calendar.addInterviewer("John"));
+    }
+}
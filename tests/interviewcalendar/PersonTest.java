@@ -2,8 +2,15 @@ package interviewcalendar;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,4 +57,138 @@ class PersonTest {
         person.removeUnavailableTimeslot(timeslot1);
         assertEquals(false, person.getAvailableTimeslots().contains(timeslot1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTimeslotsIntersection() {
+        Person other = new Person(10, "Jane");
+        person.addAvailableTimeslots(2018, 1, 22, 9, 17);
+        other.addAvailableTimeslots(2018, 1, 22, 15, 18);
+        other.addAvailableTimeslot(timeslot2);
+        Set<Timeslot> timeslotSet = person.getTimeslotsIntersection(other);
+        assertEquals(2, timeslotSet.size());
+        assertTrue(timeslotSet.contains(new Timeslot(2018, 1, 22, 15)));
+        assertTrue(timeslotSet.contains(timeslot1));
+    }
+
+    @Test
+    void getAvailableIntervals() {
+        person.addAvailableTimeslots(2018, 1, 22, 20, 24);
+        person.addAvailableTimeslots(2018, 1, 23, 0, 3);
+        person.addAvailableTimeslot(timeslot2);
+        IntervalSet intervals = person.getAvailableIntervals();
+        assertEquals(2, intervals.size());
+        assertEquals(2018012220, intervals.getStart(0).getID());
+        assertEquals(2018012303, intervals.getEnd(0).getID());
+        assertEquals(timeslot2, intervals.getStart(1));
+    }
+
+    @Test
+    void getIntervalsIntersection() {
+        Person other = new Person(10, "Jane");
+        IntervalSet intervals = new IntervalSet();
+        intervals.add(2018, 1, 22, 9, 17);
+        intervals.add(2018, 1, 23, 9, 17);
+        person.addAvailableIntervals(intervals);
+        person.removeUnavailableTimeslots(2018, 1, 23, 12, 13);
+        other.addAvailableTimeslots(2018, 1, 23, 10, 15);
+        IntervalSet expected = new IntervalSet();
+        expected.add(2018, 1, 23, 10, 12);
+        expected.add(2018, 1, 23, 13, 15);
+        assertEquals(expected, person.getIntervalsIntersection(Collections.singleton(other)));
+    }
+
+    @Test
+    void recurringAvailability() {
+        Person other = new Person(10, "Jane");
+        person.addRecurringAvailability(RecurrenceRule.weekly(LocalDate.of(2018, 1, 1), 9, 12, DayOfWeek.TUESDAY));
+        person.removeUnavailableTimeslot(2018, 1, 23, 10);
+        other.addAvailableTimeslots(2018, 1, 23, 8, 20);
+        Set<Timeslot> timeslotSet = person.getTimeslotsIntersection(other);
+        assertEquals(2, timeslotSet.size());
+        assertTrue(timeslotSet.contains(timeslot2));
+        assertFalse(timeslotSet.contains(new Timeslot(2018, 1, 23, 10)));
+        person.addAvailableTimeslot(2018, 1, 23, 10);
+        assertEquals(3, person.getTimeslotsIntersection(other).size());
+    }
+
+    @Test
+    void streamAvailableTimeslots() {
+        person.addAvailableTimeslot(timeslot1);
+        person.addAvailableTimeslot(timeslot2);
+        person.addAvailableTimeslot(timeslot3);
+        assertArrayEquals(new Timeslot[] { timeslot2, timeslot3 },
+                person.streamAvailableTimeslots(new Timeslot(2018, 1, 23, 0), new Timeslot(2018, 2, 1, 0)).toArray());
+    }
+
+    @Test
+    void gauges() {
+        long empty = person.getEstimatedMemoryBytes();
+        assertEquals(0, person.getAvailableSlotCount());
+        person.addAvailableTimeslots(availableTimeslots);
+        person.addAvailableTimeslots(2018, 1, 22, 9, 12);
+        assertEquals(5, person.getAvailableSlotCount());
+        assertTrue(person.getEstimatedMemoryBytes() > empty);
+    }
+
+    @Test
+    void zone() {
+        assertEquals(ZoneOffset.UTC, person.getZone());
+
+        // Hours are local to the person, daylight saving time starts on 2018/03/11 in New York
+        Person newYorker = new Person(1, "Susan", SlotGranularity.HOURLY, ZoneId.of("America/New_York"));
+        newYorker.addAvailableTimeslots(2018, 3, 10, 9, 17);
+        newYorker.addAvailableTimeslots(2018, 3, 11, 0, 4);
+        assertTrue(newYorker.isAvailable(Slots.of(2018, 3, 10, 14)));
+        assertFalse(newYorker.isAvailable(Slots.of(2018, 3, 10, 13)));
+        assertTrue(newYorker.isAvailable(new Timeslot(2018, 3, 11, 3)));
+        assertFalse(newYorker.isAvailable(new Timeslot(2018, 3, 11, 2)));
+        assertEquals(11, newYorker.getAvailableSlotCount());
+
+        // Only whole hours within the range are added, every hour overlapping the range is removed
+        Person kathmandu = new Person(2, "Ram", SlotGranularity.HOURLY, ZoneId.of("Asia/Kathmandu"));
+        kathmandu.addAvailableTimeslots(2018, 10, 22, 9, 12);
+        assertArrayEquals(new long[] {Slots.of(2018, 10, 22, 4), Slots.of(2018, 10, 22, 5)}, kathmandu.getAvailableSlots());
+        kathmandu.removeUnavailableTimeslot(2018, 10, 22, 10);
+        assertEquals(0, kathmandu.getAvailableSlotCount());
+    }
+
+    @Test
+    void timeslotsInZone() {
+        Person berliner = new Person(1, "Hans", SlotGranularity.HOURLY, ZoneId.of("Europe/Berlin"));
+        Timeslot nine = new Timeslot(2018, 10, 22, 9);
+        berliner.addAvailableTimeslot(2018, 10, 22, 9);
+        assertTrue(berliner.isAvailable(nine));
+        assertEquals(Collections.singleton(nine), berliner.getAvailableTimeslots());
+        berliner.removeUnavailableTimeslot(nine);
+        assertEquals(0, berliner.getAvailableSlotCount());
+        berliner.addAvailableTimeslot(nine);
+        assertArrayEquals(new long[] {Slots.of(2018, 10, 22, 7)}, berliner.getAvailableSlots());
+        assertEquals(Collections.singletonList(nine), berliner.streamAvailableTimeslots(nine, new Timeslot(2018, 10, 22, 10))
+                .collect(Collectors.toList()));
+
+        // The clocks go back from 3:00 to 2:00 on 2018/10/28, both 2:00 timeslots are added and given once
+        Timeslot two = new Timeslot(2018, 10, 28, 2);
+        berliner.addAvailableTimeslot(two);
+        assertEquals(3, berliner.getAvailableSlotCount());
+        assertEquals(new TreeSet<>(Arrays.asList(nine, two)), berliner.getAvailableTimeslots());
+        assertEquals(Arrays.asList(nine, two), berliner.streamAvailableTimeslots(nine, new Timeslot(2018, 10, 29, 0))
+                .collect(Collectors.toList()));
+
+        // The clocks skip 2:00 on 2018/03/25
+        Timeslot skipped = new Timeslot(2018, 3, 25, 2);
+        berliner.addAvailableTimeslot(skipped);
+        assertFalse(berliner.isAvailable(skipped));
+        assertEquals(3, berliner.getAvailableSlotCount());
+    }
+
+    @Test
+    void recurringAvailabilityInZone() {
+        Person berliner = new Person(1, "Hans", SlotGranularity.HOURLY, ZoneId.of("Europe/Berlin"));
+        berliner.addRecurringAvailability(RecurrenceRule.weekly(LocalDate.of(2018, 10, 22), 9, 12, DayOfWeek.TUESDAY));
+        berliner.removeUnavailableTimeslot(2018, 10, 30, 11);
+        assertTrue(berliner.isAvailable(Slots.of(2018, 10, 23, 7)));
+        assertFalse(berliner.isAvailable(Slots.of(2018, 10, 23, 10)));
+        assertArrayEquals(new long[] {Slots.of(2018, 10, 30, 8), Slots.of(2018, 10, 30, 9)},
+                berliner.streamAvailableSlots(Slots.of(2018, 10, 30, 0), Slots.of(2018, 10, 31, 0)).toArray());
+    }
+}
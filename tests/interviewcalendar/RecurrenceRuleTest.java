@@ -0,0 +1,96 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+    // Monday
+    private LocalDate startDate = LocalDate.of(2018, 10, 22);
+    private RecurrenceRule rule = RecurrenceRule.weekly(startDate, 9, 12, DayOfWeek.TUESDAY, DayOfWeek.THURSDAY);
+    private LocalDate today = LocalDate.of(2020, 6, 15);
+    private Clock clock = Clock.fixed(today.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void covers() {
+        assertTrue(rule.covers(Slots.of(2018, 10, 23, 9), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertTrue(rule.covers(Slots.of(2018, 10, 25, 11), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertFalse(rule.covers(Slots.of(2018, 10, 25, 12), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertFalse(rule.covers(Slots.of(2018, 10, 24, 10), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertFalse(rule.covers(Slots.of(2018, 10, 16, 10), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertTrue(rule.covers(Slots.of(2025, 10, 23, 10), SlotGranularity.HOURLY, ZoneOffset.UTC));
+    }
+
+    @Test
+    void untilAndExcept() {
+        RecurrenceRule limited = rule.until(LocalDate.of(2018, 11, 30)).except(LocalDate.of(2018, 10, 25));
+        assertTrue(limited.covers(Slots.of(2018, 10, 23, 9), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertFalse(limited.covers(Slots.of(2018, 10, 25, 9), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertFalse(limited.covers(Slots.of(2018, 12, 4, 9), SlotGranularity.HOURLY, ZoneOffset.UTC));
+        assertTrue(rule.covers(Slots.of(2018, 10, 25, 9), SlotGranularity.HOURLY, ZoneOffset.UTC));
+    }
+
+    @Test
+    void expandOnlyWithinWindow() {
+        AvailabilityBitmap bitmap = new AvailabilityBitmap();
+        rule.expand(new Timeslot(2018, 10, 23, 10).getSlot(), new Timeslot(2018, 11, 6, 0).getSlot(), bitmap, ZoneOffset.UTC);
+        // Tuesday 10-12, Thursday, Tuesday, Thursday
+        assertEquals(2 + 3 * 3, bitmap.cardinality());
+        assertFalse(bitmap.get(new Timeslot(2018, 10, 23, 9).getSlot()));
+    }
+
+    @Test
+    void expandOpenEndedWithoutWindow() {
+        AvailabilityBitmap bitmap = new AvailabilityBitmap();
+        RecurrenceRule future = RecurrenceRule.daily(today.plusDays(10), 9, 10);
+        long toSlot = future.expansionEnd(IntersectionEngine.UNBOUNDED_FROM, SlotGranularity.HOURLY, ZoneOffset.UTC, clock);
+        future.expand(IntersectionEngine.UNBOUNDED_FROM, toSlot, bitmap, ZoneOffset.UTC);
+        assertEquals(RecurrenceRule.OPEN_ENDED_EXPANSION_DAYS, bitmap.cardinality());
+        assertThrows(IllegalArgumentException.class, () -> future.expand(IntersectionEngine.UNBOUNDED_FROM,
+                IntersectionEngine.UNBOUNDED_TO, bitmap, ZoneOffset.UTC));
+        assertEquals(IntersectionEngine.UNBOUNDED_TO,
+                future.until(today.plusDays(20)).expansionEnd(IntersectionEngine.UNBOUNDED_FROM, SlotGranularity.HOURLY, ZoneOffset.UTC, clock));
+    }
+
+    @Test
+    void expandOldOpenEndedRuleBeyondToday() {
+        AvailabilityBitmap bitmap = new AvailabilityBitmap();
+        LocalDate old = today.minusYears(3);
+        RecurrenceRule daily = RecurrenceRule.daily(old, 9, 10);
+        long toSlot = daily.expansionEnd(IntersectionEngine.UNBOUNDED_FROM, SlotGranularity.HOURLY, ZoneOffset.UTC, clock);
+        daily.expand(IntersectionEngine.UNBOUNDED_FROM, toSlot, bitmap, ZoneOffset.UTC);
+        LocalDate last = today.plusDays(RecurrenceRule.OPEN_ENDED_EXPANSION_DAYS - 1);
+        assertTrue(bitmap.get(new Timeslot(old.getYear(), old.getMonthValue(), old.getDayOfMonth(), 9).getSlot()));
+        assertTrue(bitmap.get(new Timeslot(today.getYear(), today.getMonthValue(), today.getDayOfMonth(), 9).getSlot()));
+        assertTrue(bitmap.get(new Timeslot(last.getYear(), last.getMonthValue(), last.getDayOfMonth(), 9).getSlot()));
+        assertEquals(last.toEpochDay() - old.toEpochDay() + 1, bitmap.cardinality());
+    }
+
+    @Test
+    void expandInZone() {
+        // Summer time in Berlin ends on 2018/10/28
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        AvailabilityBitmap bitmap = new AvailabilityBitmap();
+        RecurrenceRule.weekly(startDate, 9, 12, DayOfWeek.TUESDAY).expand(Slots.of(2018, 10, 22, 0), Slots.of(2018, 11, 5, 0), bitmap, berlin);
+        assertArrayEquals(new long[] {Slots.of(2018, 10, 23, 7), Slots.of(2018, 10, 23, 8), Slots.of(2018, 10, 23, 9),
+                Slots.of(2018, 10, 30, 8), Slots.of(2018, 10, 30, 9), Slots.of(2018, 10, 30, 10)}, bitmap.toArray());
+
+        assertTrue(rule.covers(Slots.of(2018, 10, 23, 7), SlotGranularity.HOURLY, berlin));
+        assertFalse(rule.covers(Slots.of(2018, 10, 23, 10), SlotGranularity.HOURLY, berlin));
+        assertTrue(rule.covers(Slots.of(2018, 10, 30, 10), SlotGranularity.HOURLY, berlin));
+        // Monday 23:00 in UTC is already Tuesday in Tokyo
+        assertTrue(RecurrenceRule.weekly(startDate, 8, 9, DayOfWeek.TUESDAY)
+                .covers(Slots.of(2018, 10, 22, 23), SlotGranularity.HOURLY, ZoneId.of("Asia/Tokyo")));
+    }
+
+    @Test
+    void invalidHours() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.daily(startDate, 12, 9));
+    }
+}
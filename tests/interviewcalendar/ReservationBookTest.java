@@ -0,0 +1,122 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationBookTest {
+    private Instant now = Instant.parse("2018-09-03T08:00:00Z");
+    private Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+    private ReservationBook book = new ReservationBook(clock);
+    private Person candidate = new Person(0, "Blair");
+    private Person susan = new Person(1, "Susan");
+    private Person john = new Person(2, "John");
+    private long slot = Slots.of(2018, 9, 3, 10);
+
+    ReservationBookTest() {
+        candidate.addAvailableSlots(slot, slot + 2);
+        susan.addAvailableSlots(slot, slot + 2);
+        john.addAvailableSlot(slot + 1);
+    }
+
+    @Test
+    void claimIsAllOrNothing() {
+        assertNull(book.claim(candidate, Arrays.asList(susan, john), slot, Duration.ofMinutes(5)));
+        assertTrue(candidate.isAvailable(slot));
+        assertTrue(susan.isAvailable(slot));
+
+        Reservation reservation = book.claim(candidate, Arrays.asList(susan, john), slot + 1, Duration.ofMinutes(5));
+        assertEquals(Reservation.State.HELD, reservation.getState());
+        assertEquals(new Timeslot(2018, 9, 3, 11), reservation.getTimeslot());
+        assertEquals(Arrays.asList(1, 2), reservation.getInterviewersIDs());
+        assertFalse(candidate.isAvailable(slot + 1));
+        assertFalse(susan.isAvailable(slot + 1));
+        assertFalse(john.isAvailable(slot + 1));
+        assertNull(book.claim(candidate, Collections.singletonList(susan), slot + 1, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void confirmBeforeExpiry() {
+        Reservation reservation = book.claim(candidate, Collections.singletonList(susan), slot, Duration.ofMinutes(5));
+        now = now.plusSeconds(60);
+        assertTrue(book.confirm(reservation.getId()));
+        assertEquals(Reservation.State.CONFIRMED, reservation.getState());
+
+        now = now.plusSeconds(600);
+        assertEquals(0, book.expireHolds());
+        assertFalse(candidate.isAvailable(slot));
+        assertFalse(susan.isAvailable(slot));
+    }
+
+    @Test
+    void expire() {
+        Reservation first = book.claim(candidate, Collections.singletonList(susan), slot, Duration.ofMinutes(5));
+        Reservation second = book.claim(candidate, Collections.singletonList(susan), slot + 1, Duration.ofMinutes(10));
+        now = now.plusSeconds(300);
+        assertFalse(book.confirm(first.getId()));
+        assertEquals(Reservation.State.EXPIRED, first.getState());
+        assertTrue(candidate.isAvailable(slot));
+        assertTrue(susan.isAvailable(slot));
+        assertNull(book.get(first.getId()));
+
+        now = now.plusSeconds(300);
+        assertEquals(1, book.expireHolds());
+        assertEquals(Reservation.State.EXPIRED, second.getState());
+        assertTrue(susan.isAvailable(slot + 1));
+        assertEquals(0, book.expireHolds());
+    }
+
+    @Test
+    void release() {
+        Reservation held = book.claim(candidate, Collections.singletonList(susan), slot, Duration.ofMinutes(5));
+        Reservation booked = book.claim(candidate, Collections.singletonList(susan), slot + 1, null);
+        assertEquals(Reservation.State.CONFIRMED, booked.getState());
+
+        assertTrue(book.release(held.getId()));
+        assertTrue(book.release(booked.getId()));
+        assertFalse(book.release(booked.getId()));
+        assertFalse(book.confirm(held.getId()));
+        assertEquals(Reservation.State.RELEASED, held.getState());
+        assertEquals(2, susan.getAvailableSlotCount());
+        assertEquals(2, candidate.getAvailableSlotCount());
+    }
+
+    @Test
+    void releaseKeepsLaterChanges() {
+        Reservation reservation = book.claim(candidate, Arrays.asList(susan), slot, Duration.ofMinutes(5));
+        susan.removeUnavailableSlot(slot);
+        assertTrue(book.release(reservation.getId()));
+        assertTrue(candidate.isAvailable(slot));
+        assertFalse(susan.isAvailable(slot));
+
+        reservation = book.claim(candidate, Arrays.asList(susan), slot + 1, Duration.ofMinutes(5));
+        candidate.addAvailableSlot(slot + 1);
+        now = now.plus(Duration.ofMinutes(10));
+        assertEquals(1, book.expireHolds());
+        assertTrue(candidate.isAvailable(slot + 1));
+        assertTrue(susan.isAvailable(slot + 1));
+    }
+}
@@ -0,0 +1,60 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotGranularityTest {
+    private final SlotGranularity quarterHours = SlotGranularity.ofMinutes(15);
+
+    @Test
+    void ofMinutes() {
+        assertSame(SlotGranularity.HOURLY, SlotGranularity.ofMinutes(60));
+        assertEquals(4, quarterHours.getSlotsPerHour());
+        assertEquals(2, SlotGranularity.ofMinutes(30).getSlotsPerHour());
+        assertThrows(IllegalArgumentException.class, () -> SlotGranularity.ofMinutes(0));
+        assertThrows(IllegalArgumentException.class, () -> SlotGranularity.ofMinutes(45));
+        assertThrows(IllegalArgumentException.class, () -> SlotGranularity.ofMinutes(120));
+    }
+
+    @Test
+    void slotOf() {
+        long hour = Slots.of(2018, 10, 22, 9);
+        assertEquals(hour, SlotGranularity.HOURLY.slotOf(2018, 10, 22, 9, 0));
+        assertEquals(4 * hour + 3, quarterHours.slotOf(2018, 10, 22, 9, 45));
+        assertEquals(4 * hour + 2, quarterHours.slotOf(LocalDateTime.of(2018, 10, 22, 9, 30)));
+        assertEquals(4 * Slots.of(LocalDate.of(2018, 10, 22)), quarterHours.slotOf(LocalDate.of(2018, 10, 22)));
+        assertEquals(4 * hour + 1, quarterHours.slotOf(new Timeslot(2018, 10, 22, 9, 15)));
+        assertThrows(IllegalArgumentException.class, () -> quarterHours.slotOf(2018, 10, 22, 9, 10));
+        assertThrows(IllegalArgumentException.class, () -> SlotGranularity.HOURLY.slotOf(LocalDateTime.of(2018, 10, 22, 9, 30)));
+    }
+
+    @Test
+    void toTimeslot() {
+        Timeslot timeslot = quarterHours.toTimeslot(quarterHours.slotOf(1969, 12, 31, 23, 45));
+        assertEquals(new Timeslot(1969, 12, 31, 23, 45), timeslot);
+        assertEquals(45, timeslot.getStartMinute());
+        assertEquals(new Timeslot(2018, 10, 22, 9), SlotGranularity.HOURLY.toTimeslot(Slots.of(2018, 10, 22, 9)));
+        assertTrue(new Timeslot(2018, 10, 22, 9).compareTo(new Timeslot(2018, 10, 22, 9, 15)) < 0);
+    }
+
+    @Test
+    void zones() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        ZonedDateTime morning = ZonedDateTime.of(2018, 3, 11, 9, 0, 0, 0, newYork);
+        assertEquals(Slots.of(2018, 3, 11, 13), SlotGranularity.HOURLY.slotOf(morning));
+        assertEquals(morning, SlotGranularity.HOURLY.toZonedDateTime(Slots.of(2018, 3, 11, 13), newYork));
+
+        // Kathmandu is 5:45 ahead of UTC, so its hours fall inside UTC hours
+        ZonedDateTime kathmandu = ZonedDateTime.of(2018, 10, 22, 9, 0, 0, 0, ZoneId.of("Asia/Kathmandu"));
+        assertEquals(4 * Slots.of(2018, 10, 22, 3) + 1, quarterHours.slotOf(kathmandu));
+        assertThrows(IllegalArgumentException.class, () -> SlotGranularity.HOURLY.slotOf(kathmandu));
+        assertEquals(Slots.of(2018, 10, 22, 3), SlotGranularity.HOURLY.floorSlot(kathmandu.toInstant()));
+        assertEquals(Slots.of(2018, 10, 22, 4), SlotGranularity.HOURLY.ceilSlot(kathmandu.toInstant()));
+    }
+}
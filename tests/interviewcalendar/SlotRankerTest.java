@@ -0,0 +1,74 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotRankerTest {
+    private Person blair = new Person(0, "Blair");
+    private List<Person> people = Collections.singletonList(blair);
+
+    private List<RankedTimeslot> rank(SlotRanker ranker, long from, long to) {
+        ranker.add(LongStream.range(from, to).iterator(), PanelState.capture(people, from, to, from, to));
+        return ranker.getRanked();
+    }
+
+    private static List<Long> slotsOf(List<RankedTimeslot> ranked) {
+        return ranked.stream().map(RankedTimeslot::getSlot).collect(Collectors.toList());
+    }
+
+    @Test
+    void keepsBestScores() {
+        // Scores rise and fall every 10 slots
+        SlotScorer scorer = (slot, panel) -> slot % 10;
+        List<RankedTimeslot> ranked = rank(new SlotRanker(scorer, 3), 0, 1000);
+        assertEquals(List.of(9L, 19L, 29L), slotsOf(ranked));
+        assertEquals(9, ranked.get(0).getScore());
+        assertEquals(SlotGranularity.HOURLY.toTimeslot(9), ranked.get(0).getTimeslot());
+    }
+
+    @Test
+    void earliestFirst() {
+        assertEquals(List.of(5L, 6L), slotsOf(rank(new SlotRanker(SlotScorer.earliest(), 2), 5, 100)));
+        assertEquals(List.of(5L, 6L, 7L), slotsOf(rank(new SlotRanker(SlotScorer.earliest(), 10), 5, 8)));
+        assertTrue(rank(new SlotRanker(SlotScorer.earliest(), 10), 5, 5).isEmpty());
+    }
+
+    @Test
+    void combinedScores() {
+        long nine = Slots.of(2018, 9, 3, 9);
+        SlotScorer scorer = SlotScorer.earliest().plus(SlotScorer.preferredHours(14, 16, ZoneOffset.UTC), 2)
+                .plus((slot, panel) -> slot == nine ? 1 : 0, 1);
+        List<RankedTimeslot> ranked = rank(new SlotRanker(scorer, 3), nine, nine + 8);
+        assertEquals(List.of(nine + 5, nine + 6, nine), slotsOf(ranked));
+        assertEquals(2, ranked.get(0).getScore());
+    }
+
+    @Test
+    void scoresCopiedState() {
+        long nine = Slots.of(2018, 9, 3, 9);
+        blair.addAvailableSlots(nine, nine + 8);
+        PanelState panel = PanelState.capture(people, nine, nine + 8, nine, nine + 8);
+        // Changes made after the copy are not seen by the scorers
+        blair.removeUnavailableSlot(nine + 3);
+        blair.countInterview(nine + 2, true);
+
+        assertTrue(panel.isAvailable(0, nine + 3));
+        assertFalse(panel.isAvailable(0, nine - 1));
+        assertEquals(1, SlotScorer.leastFragmenting().score(nine, panel));
+        assertEquals(0, SlotScorer.leastFragmenting().score(nine + 2, panel));
+        assertEquals(0, panel.getLoad(0, nine + 2));
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SlotRanker(SlotScorer.earliest(), 0));
+        assertThrows(IllegalArgumentException.class, () -> SlotScorer.preferredHours(17, 9, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,38 @@
+package interviewcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotsTest {
+
+    @Test
+    void of() {
+        assertEquals(0, Slots.of(1970, 1, 1, 0));
+        assertEquals(-1, Slots.of(1969, 12, 31, 23));
+        assertEquals(LocalDate.of(2018, 10, 22).toEpochDay() * 24 + 9, Slots.of(2018, 10, 22, 9));
+        assertEquals(Slots.of(2018, 10, 22, 23) + 1, Slots.of(2018, 10, 23, 0));
+        assertEquals(Slots.of(2018, 10, 22, 0), Slots.of(LocalDate.of(2018, 10, 22)));
+    }
+
+    @Test
+    void getDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(1)) {
+            long slot = Slots.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 5);
+            assertEquals(date.toEpochDay() * 24 + 5, slot);
+            assertEquals(date.getYear(), Slots.getYear(slot));
+            assertEquals(date.getMonthValue(), Slots.getMonth(slot));
+            assertEquals(date.getDayOfMonth(), Slots.getDay(slot));
+            assertEquals(5, Slots.getHour(slot));
+        }
+    }
+
+    @Test
+    void invalidDate() {
+        assertThrows(IllegalArgumentException.class, () -> Slots.of(2018, 2, 29, 0));
+        assertThrows(IllegalArgumentException.class, () -> Slots.of(2018, 13, 1, 0));
+        assertEquals(Slots.of(2020, 3, 1, 0) - 24, Slots.of(2020, 2, 29, 0));
+    }
+}
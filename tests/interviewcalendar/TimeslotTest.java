@@ -43,4 +43,11 @@ class TimeslotTest {
         assertEquals(0, timeslot.compareTo(new Timeslot(year, month, day, startHour )));
         assertEquals(1, timeslot.compareTo(new Timeslot(year, month, day, startHour - 1)));
     }
+
+    @Test
+    void getSlot() {
+        assertEquals(new Timeslot(year, month, day, startHour + 1).getSlot(), timeslot.getSlot() + 1);
+        assertEquals(new Timeslot(year, month, day + 1, 0).getSlot(), new Timeslot(year, month, day, 23).getSlot() + 1);
+        assertEquals(id, new Timeslot(timeslot.getSlot()).getID());
+    }
 }
\ No newline at end of file